@@ -31,3 +31,15 @@ export interface ScoreDistribution {
   range61to80: number;
   range81to100: number;
 }
+
+export interface DashboardDelta {
+  counters?: Partial<
+    Pick<
+      DashboardStats,
+      'totalStudents' | 'totalCourses' | 'totalExamResults' | 'averageScore' | 'completedPairs' | 'inProgressPairs'
+    >
+  >;
+  scoreDistribution?: Partial<ScoreDistribution>;
+  topStudents?: TopStudent[];
+  recentResults?: RecentResult[];
+}
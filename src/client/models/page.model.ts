@@ -2,6 +2,8 @@ export interface Page<T> {
   content: T[];
   totalElements: number;
   totalPages: number;
+  totalEstimated: boolean;
   size: number;
   number: number;
+  last: boolean;
 }
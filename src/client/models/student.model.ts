@@ -6,3 +6,9 @@ export interface Student {
   gsmNumber?: string;
   completedCourses?: { courseName: string; average: number }[];
 }
+
+export interface StudentSuggestion {
+  id: number;
+  fullName: string;
+  number: number;
+}
@@ -8,7 +8,7 @@ import { MatIconModule } from '@angular/material/icon';
 import { MatFormFieldModule } from '@angular/material/form-field';
 import { MatInputModule } from '@angular/material/input';
 import { StudentService } from '../../services/student.service';
-import { Student } from '../../models/student.model';
+import { Student, StudentSuggestion } from '../../models/student.model';
 import { Subject, debounceTime, distinctUntilChanged } from 'rxjs';
 
 @Component({
@@ -69,15 +69,17 @@ import { Subject, debounceTime, distinctUntilChanged } from 'rxjs';
       <tr mat-row *matRowDef="let row; columns: displayedColumns"></tr>
     </table>
 
-    <mat-paginator
-      [length]="totalElements"
-      [pageSize]="pageSize"
-      [pageIndex]="pageIndex"
-      [pageSizeOptions]="[5, 10, 25]"
-      (page)="onPage($event)"
-      showFirstLastButtons
-    >
-    </mat-paginator>
+    @if (!searchTerm) {
+      <mat-paginator
+        [length]="totalElements"
+        [pageSize]="pageSize"
+        [pageIndex]="pageIndex"
+        [pageSizeOptions]="[5, 10, 25]"
+        (page)="onPage($event)"
+        showFirstLastButtons
+      >
+      </mat-paginator>
+    }
   `,
   styles: `
     .header-row {
@@ -106,8 +108,9 @@ export class ExamResultAddComponent implements OnInit {
   private router = inject(Router);
   private cdr = inject(ChangeDetectorRef);
 
-  dataSource = new MatTableDataSource<Student>();
+  dataSource = new MatTableDataSource<Student | StudentSuggestion>();
   displayedColumns = ['number', 'fullName', 'email', 'actions'];
+  private readonly suggestionLimit = 25;
   searchTerm = '';
   totalElements = 0;
   pageSize = 10;
@@ -130,13 +133,27 @@ export class ExamResultAddComponent implements OnInit {
   }
 
   loadStudents() {
-    this.studentService.getAll(this.pageIndex, this.pageSize, this.searchTerm || undefined).subscribe({
-      next: (page) => {
-        this.dataSource.data = page.content;
-        this.totalElements = page.totalElements;
-        this.cdr.markForCheck();
-      },
-    });
+    if (this.searchTerm.trim()) {
+      // typeahead answers from the server's prefix index: no paging, no email
+      this.studentService.suggest(this.searchTerm, this.suggestionLimit).subscribe({
+        next: (suggestions) => {
+          this.dataSource.data = suggestions;
+          this.displayedColumns = ['number', 'fullName', 'actions'];
+          this.cdr.markForCheck();
+        },
+      });
+      return;
+    }
+    this.studentService
+      .getAll(this.pageIndex, this.pageSize, undefined, ['number', 'fullName', 'email'])
+      .subscribe({
+        next: (page) => {
+          this.dataSource.data = page.content;
+          this.displayedColumns = ['number', 'fullName', 'email', 'actions'];
+          this.totalElements = page.totalElements;
+          this.cdr.markForCheck();
+        },
+      });
   }
 
   onSearch(term: string) {
@@ -150,7 +167,7 @@ export class ExamResultAddComponent implements OnInit {
     this.loadStudents();
   }
 
-  selectStudent(student: Student) {
+  selectStudent(student: Student | StudentSuggestion) {
     this.router.navigate(['/exam-results/add', student.id]);
   }
 }
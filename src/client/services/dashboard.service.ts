@@ -1,7 +1,7 @@
 import { Injectable, inject } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
 import { Observable } from 'rxjs';
-import { DashboardStats } from '../models/dashboard-stats.model';
+import { DashboardDelta, DashboardStats } from '../models/dashboard-stats.model';
 import { environment } from '../environments/environment';
 
 @Injectable({ providedIn: 'root' })
@@ -13,4 +13,30 @@ export class DashboardService {
   getStats(): Observable<DashboardStats> {
     return this.http.get<DashboardStats>(`${this.baseUrl}/stats`);
   }
+
+  stream(): Observable<DashboardStats> {
+    return new Observable<DashboardStats>((subscriber) => {
+      const source = new EventSource(`${this.baseUrl}/stream`);
+      let stats: DashboardStats | null = null;
+
+      source.addEventListener('stats', (event) => {
+        stats = JSON.parse((event as MessageEvent).data) as DashboardStats;
+        subscriber.next(stats);
+      });
+      source.addEventListener('delta', (event) => {
+        if (!stats) return;
+        const delta = JSON.parse((event as MessageEvent).data) as DashboardDelta;
+        stats = {
+          ...stats,
+          ...delta.counters,
+          scoreDistribution: { ...stats.scoreDistribution, ...delta.scoreDistribution },
+          topStudents: delta.topStudents ?? stats.topStudents,
+          recentResults: delta.recentResults ?? stats.recentResults,
+        };
+        subscriber.next(stats);
+      });
+
+      return () => source.close();
+    });
+  }
 }
@@ -1,7 +1,7 @@
 import { Injectable, inject } from '@angular/core';
 import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
-import { Student } from '../models/student.model';
+import { Student, StudentSuggestion } from '../models/student.model';
 import { Page } from '../models/page.model';
 import { environment } from '../environments/environment';
 
@@ -11,14 +11,22 @@ export class StudentService {
 
   private readonly baseUrl = `${environment.apiUrl}/api/students`;
 
-  getAll(page = 0, size = 10, search?: string): Observable<Page<Student>> {
+  getAll(page = 0, size = 10, search?: string, fields?: (keyof Student)[]): Observable<Page<Student>> {
     let params = new HttpParams().set('page', page).set('size', size);
     if (search) {
       params = params.set('search', search);
     }
+    if (fields) {
+      params = params.set('fields', fields.join(','));
+    }
     return this.http.get<Page<Student>>(this.baseUrl, { params });
   }
 
+  suggest(prefix: string, limit = 10): Observable<StudentSuggestion[]> {
+    const params = new HttpParams().set('prefix', prefix).set('limit', limit);
+    return this.http.get<StudentSuggestion[]>(`${this.baseUrl}/suggest`, { params });
+  }
+
   getById(id: number): Observable<Student> {
     return this.http.get<Student>(`${this.baseUrl}/${id}`);
   }
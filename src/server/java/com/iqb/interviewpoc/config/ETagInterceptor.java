@@ -0,0 +1,63 @@
+package com.iqb.interviewpoc.config;
+
+import com.iqb.interviewpoc.store.DataVersions;
+import com.iqb.interviewpoc.store.DataVersions.Scope;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+@Component
+public class ETagInterceptor implements HandlerInterceptor {
+
+    private final DataVersions versions;
+
+    public ETagInterceptor(DataVersions versions) {
+        this.versions = versions;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod method) || !"GET".equals(request.getMethod())) {
+            return true;
+        }
+        VersionedResource versioned = method.getMethodAnnotation(VersionedResource.class);
+        if (versioned == null) {
+            return true;
+        }
+        String etag = "W/\"" + versions.epoch() + "-" + version(versioned, request) + "\"";
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        return !new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+
+    private long version(VersionedResource versioned, HttpServletRequest request) {
+        if (versioned.value().length == 0 && versioned.studentIdVariable().isEmpty()) {
+            return versions.global();
+        }
+        long version = 0;
+        for (Scope scope : versioned.value()) {
+            version = Math.max(version, versions.scope(scope));
+        }
+        if (!versioned.studentIdVariable().isEmpty()) {
+            @SuppressWarnings("unchecked")
+            Map<String, String> variables =
+                    (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+            String studentId = variables == null ? null : variables.get(versioned.studentIdVariable());
+            if (studentId != null) {
+                try {
+                    version = Math.max(version, versions.student(Long.parseLong(studentId)));
+                } catch (NumberFormatException e) {
+                    // let the handler reject the malformed id
+                    return versions.global();
+                }
+            }
+        }
+        return version;
+    }
+}
@@ -2,13 +2,16 @@ package com.iqb.interviewpoc.config;
 
 import com.iqb.interviewpoc.dto.ErrorResponse;
 import com.iqb.interviewpoc.exception.BusinessRuleException;
+import com.iqb.interviewpoc.exception.DataIntegrityMessages;
 import com.iqb.interviewpoc.exception.ResourceNotFoundException;
+import com.iqb.interviewpoc.exception.WriteTimeoutException;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -55,15 +58,24 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<ErrorResponse> handleDataIntegrity(DataIntegrityViolationException ex) {
         log.error("Data integrity violation", ex);
-        String message = "Data integrity violation";
-        String rootMsg = ex.getMostSpecificCause().getMessage();
-        if (rootMsg != null && rootMsg.toLowerCase().contains("unique")) {
-            message = "Duplicate value violates unique constraint";
-        }
+        String message = DataIntegrityMessages.describe(ex);
         return ResponseEntity.status(HttpStatus.CONFLICT)
                 .body(new ErrorResponse(409, "Conflict", message));
     }
 
+    @ExceptionHandler(WriteTimeoutException.class)
+    public ResponseEntity<ErrorResponse> handleWriteTimeout(WriteTimeoutException ex) {
+        log.warn("Write timed out: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ErrorResponse(503, "Service Unavailable", ex.getMessage()));
+    }
+
+    @ExceptionHandler(HttpMediaTypeNotSupportedException.class)
+    public ResponseEntity<ErrorResponse> handleMediaType(HttpMediaTypeNotSupportedException ex) {
+        return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+                .body(new ErrorResponse(415, "Unsupported Media Type", ex.getMessage()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGeneric(Exception ex) {
         log.error("Unexpected error", ex);
@@ -0,0 +1,48 @@
+package com.iqb.interviewpoc.config;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.iqb.interviewpoc.dto.FieldSet;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Writes only the requested properties of {@code @JsonFilter(FieldSet.FILTER)}
+ * types for handlers that take a {@code fields} parameter. The handler has
+ * already validated the names, so this only applies them.
+ */
+@RestControllerAdvice
+public class SparseFieldsAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return super.supports(returnType, converterType) && returnType.getMethod() != null
+                && Arrays.stream(returnType.getMethod().getParameters())
+                        .anyMatch(p -> p.isAnnotationPresent(RequestParam.class)
+                                && FieldSet.PARAM.equals(p.getAnnotation(RequestParam.class).value()));
+    }
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        Set<String> names = FieldSet.requested(servletRequest.getServletRequest().getParameter(FieldSet.PARAM));
+        if (names != null) {
+            bodyContainer.setFilters(new SimpleFilterProvider()
+                    .addFilter(FieldSet.FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(names)));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.iqb.interviewpoc.config;
+
+import com.iqb.interviewpoc.store.DataVersions.Scope;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a GET handler whose response only changes when the given data
+ * changes. {@link ETagInterceptor} derives a weak ETag from the matching
+ * versions and answers If-None-Match with 304 before the handler runs.
+ * No scopes means the global version.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface VersionedResource {
+
+    Scope[] value() default {};
+
+    /** Path variable holding a student id whose own version is included. */
+    String studentIdVariable() default "";
+}
@@ -0,0 +1,45 @@
+package com.iqb.interviewpoc.controller;
+
+import com.iqb.interviewpoc.config.VersionedResource;
+import com.iqb.interviewpoc.dto.AnalyticsDto;
+import com.iqb.interviewpoc.service.AnalyticsService;
+import com.iqb.interviewpoc.store.DataVersions.Scope;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/analytics")
+@Tag(name = "Analytics", description = "Aggregates over exam results")
+public class AnalyticsController {
+
+    private final AnalyticsService service;
+
+    public AnalyticsController(AnalyticsService service) {
+        this.service = service;
+    }
+
+    @GetMapping
+    @VersionedResource({Scope.STUDENT, Scope.COURSE, Scope.EXAM_RESULT})
+    @Operation(summary = "Aggregate exam results", description = "Returns counts, average scores and pass rates grouped by course, student, or day/week/month of creation (UTC)")
+    @ApiResponse(responseCode = "200", description = "Aggregates returned")
+    @ApiResponse(responseCode = "400", description = "Invalid grouping or filter")
+    public AnalyticsDto query(
+            @Parameter(description = "course, student, day, week or month") @RequestParam(defaultValue = "course") String groupBy,
+            @Parameter(description = "Only results for this course") @RequestParam(required = false) Long courseId,
+            @Parameter(description = "Only results for this student") @RequestParam(required = false) Long studentId,
+            @Parameter(description = "Created on or after this date (yyyy-MM-dd)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Created on or before this date (yyyy-MM-dd)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Minimum score that counts as a pass") @RequestParam(defaultValue = "50") int passScore,
+            @Parameter(description = "Maximum number of groups returned (1-10000)") @RequestParam(defaultValue = "1000") int limit) {
+        return service.query(groupBy, courseId, studentId, from, to, passScore, limit);
+    }
+}
@@ -1,45 +1,98 @@
 package com.iqb.interviewpoc.controller;
 
+import com.iqb.interviewpoc.config.VersionedResource;
+import com.iqb.interviewpoc.dto.FieldSet;
+import com.iqb.interviewpoc.dto.PageDto;
+import com.iqb.interviewpoc.dto.ScoreStatsDto;
+import com.iqb.interviewpoc.dto.ScoreTrendDto;
 import com.iqb.interviewpoc.entity.Course;
+import com.iqb.interviewpoc.service.CountMode;
 import com.iqb.interviewpoc.service.CourseService;
+import com.iqb.interviewpoc.service.ScoreStatsService;
+import com.iqb.interviewpoc.service.ScoreTrendService;
+import com.iqb.interviewpoc.store.DataVersions.Scope;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.Set;
+
 @RestController
 @RequestMapping("/api/courses")
 @Tag(name = "Courses", description = "Course management")
 public class CourseController {
 
+    private static final Set<String> FIELDS = Set.of("id", "name", "createdAt", "updatedAt");
+
     private final CourseService service;
+    private final ScoreStatsService statsService;
+    private final ScoreTrendService trendService;
 
-    public CourseController(CourseService service) {
+    public CourseController(CourseService service, ScoreStatsService statsService, ScoreTrendService trendService) {
         this.service = service;
+        this.statsService = statsService;
+        this.trendService = trendService;
     }
 
     @GetMapping
+    @VersionedResource(Scope.COURSE)
     @Operation(summary = "List courses", description = "Returns a paginated list of courses with optional search")
-    public Page<Course> getAll(
+    public PageDto<Course> getAll(
             @Parameter(description = "Search by course name") @RequestParam(required = false) String search,
+            @Parameter(description = "Total to report: exact (COUNT query), none (hasNext only), or estimate (from maintained statistics)") @RequestParam(defaultValue = "exact") String count,
+            @Parameter(description = "Comma-separated properties to return (id is always included); omit for all") @RequestParam(value = FieldSet.PARAM, required = false) String fields,
             Pageable pageable) {
-        return service.getAll(search, pageable);
+        FieldSet.parse(fields, FIELDS);
+        return PageDto.of(service.getAll(search, pageable, CountMode.parse(count)));
     }
 
     @GetMapping("/{id}")
+    @VersionedResource(Scope.COURSE)
     @Operation(summary = "Get course by ID")
     @ApiResponse(responseCode = "200", description = "Course found")
+    @ApiResponse(responseCode = "400", description = "Unknown field")
     @ApiResponse(responseCode = "404", description = "Course not found")
-    public Course getById(@PathVariable Long id) {
+    public Course getById(
+            @PathVariable Long id,
+            @Parameter(description = "Comma-separated properties to return (id is always included); omit for all") @RequestParam(value = FieldSet.PARAM, required = false) String fields) {
+        FieldSet.parse(fields, FIELDS);
         return service.getById(id);
     }
 
+    @GetMapping("/{id}/stats")
+    @VersionedResource({Scope.COURSE, Scope.EXAM_RESULT})
+    @Operation(summary = "Get score statistics for a course", description = "Returns mean, percentiles and a bucketed score distribution from the in-memory histogram")
+    @ApiResponse(responseCode = "200", description = "Statistics returned")
+    @ApiResponse(responseCode = "400", description = "Invalid bucket width")
+    @ApiResponse(responseCode = "404", description = "Course not found")
+    public ScoreStatsDto getStats(
+            @PathVariable Long id,
+            @Parameter(description = "Bucket width in score points (1-101)") @RequestParam(defaultValue = "10") int bucketWidth) {
+        return statsService.getCourseStats(id, bucketWidth);
+    }
+
+    @GetMapping("/{id}/trend")
+    @VersionedResource({Scope.COURSE, Scope.EXAM_RESULT})
+    @Operation(summary = "Get score trend for a course", description = "Returns result count and average score per day, week or month (UTC) from the maintained trend rollup")
+    @ApiResponse(responseCode = "200", description = "Trend returned")
+    @ApiResponse(responseCode = "400", description = "Invalid bucket or date range")
+    @ApiResponse(responseCode = "404", description = "Course not found")
+    public ScoreTrendDto getTrend(
+            @PathVariable Long id,
+            @Parameter(description = "day, week (starting Monday) or month") @RequestParam(defaultValue = "week") String bucket,
+            @Parameter(description = "Buckets containing or after this date (yyyy-MM-dd)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Buckets starting on or before this date (yyyy-MM-dd)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return trendService.getCourseTrend(id, bucket, from, to);
+    }
+
     @PostMapping
     @Operation(summary = "Create a course")
     @ApiResponse(responseCode = "201", description = "Course created")
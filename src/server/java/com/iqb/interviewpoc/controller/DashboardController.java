@@ -1,12 +1,17 @@
 package com.iqb.interviewpoc.controller;
 
+import com.iqb.interviewpoc.config.VersionedResource;
 import com.iqb.interviewpoc.dto.DashboardStatsDto;
 import com.iqb.interviewpoc.service.DashboardService;
+import com.iqb.interviewpoc.service.DashboardStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/dashboard")
@@ -14,14 +19,29 @@ import org.springframework.web.bind.annotation.RestController;
 public class DashboardController {
 
     private final DashboardService service;
+    private final DashboardStreamService streamService;
 
-    public DashboardController(DashboardService service) {
+    public DashboardController(DashboardService service, DashboardStreamService streamService) {
         this.service = service;
+        this.streamService = streamService;
     }
 
     @GetMapping("/stats")
+    @VersionedResource
     @Operation(summary = "Get dashboard statistics", description = "Returns summary stats including totals, averages, top students, recent results, and score distribution")
     public DashboardStatsDto getStats() {
         return service.getStats();
     }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream dashboard updates", description = "Server-Sent Events: one 'stats' event with the full statistics, then 'delta' events containing only the changed fields")
+    public SseEmitter stream() {
+        return streamService.subscribe();
+    }
+
+    @PostMapping("/rollup/rebuild")
+    @Operation(summary = "Rebuild dashboard rollup", description = "Recomputes the maintained dashboard counters and score trend rollup from scratch and returns the resulting stats")
+    public DashboardStatsDto rebuildRollup() {
+        return service.rebuildRollup();
+    }
 }
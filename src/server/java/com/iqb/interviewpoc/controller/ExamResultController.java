@@ -1,38 +1,142 @@
 package com.iqb.interviewpoc.controller;
 
+import com.iqb.interviewpoc.config.VersionedResource;
+import com.iqb.interviewpoc.dto.CursorPageDto;
 import com.iqb.interviewpoc.dto.ExamResultDto;
+import com.iqb.interviewpoc.dto.ExamResultFilter;
+import com.iqb.interviewpoc.dto.FieldSet;
+import com.iqb.interviewpoc.dto.ImportReportDto;
+import com.iqb.interviewpoc.dto.PageDto;
+import com.iqb.interviewpoc.dto.RecentResultFeedDto;
 import com.iqb.interviewpoc.dto.SaveScoresRequest;
+import com.iqb.interviewpoc.dto.ScoreStatsDto;
+import com.iqb.interviewpoc.dto.ScoreTrendDto;
 import com.iqb.interviewpoc.dto.StudentScoresDto;
+import com.iqb.interviewpoc.service.CountMode;
+import com.iqb.interviewpoc.service.ExamResultImportService;
 import com.iqb.interviewpoc.service.ExamResultService;
+import com.iqb.interviewpoc.service.RecentResultService;
+import com.iqb.interviewpoc.service.ScoreStatsService;
+import com.iqb.interviewpoc.service.ScoreTrendService;
+import com.iqb.interviewpoc.store.DataVersions.Scope;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.Set;
+
 @RestController
 @RequestMapping("/api/exam-results")
 @Tag(name = "Exam Results", description = "Exam score management")
 public class ExamResultController {
 
+    private static final Set<String> FIELDS = FieldSet.componentsOf(ExamResultDto.class);
+
     private final ExamResultService service;
+    private final ScoreStatsService statsService;
+    private final RecentResultService recentResultService;
+    private final ScoreTrendService trendService;
+    private final ExamResultImportService importService;
 
-    public ExamResultController(ExamResultService service) {
+    public ExamResultController(ExamResultService service,
+                                ScoreStatsService statsService,
+                                RecentResultService recentResultService,
+                                ScoreTrendService trendService,
+                                ExamResultImportService importService) {
         this.service = service;
+        this.statsService = statsService;
+        this.recentResultService = recentResultService;
+        this.trendService = trendService;
+        this.importService = importService;
     }
 
     @GetMapping
-    @Operation(summary = "List exam results", description = "Returns a paginated list of all exam results with optional search")
-    public Page<ExamResultDto> getAll(
-            @Parameter(description = "Search by student name, course name, or score") @RequestParam(required = false) String search,
+    @VersionedResource({Scope.STUDENT, Scope.COURSE, Scope.EXAM_RESULT})
+    @Operation(summary = "List exam results", description = "Returns a paginated list of all exam results with optional search and typed filters; the student or course is only joined when one of its fields is requested")
+    @ApiResponse(responseCode = "200", description = "Page returned")
+    @ApiResponse(responseCode = "400", description = "Invalid filter range, count mode or fields")
+    public PageDto<ExamResultDto> getAll(
+            @Parameter(description = "Search by student name, course name, or exact score") @RequestParam(required = false) String search,
+            @ParameterObject ExamResultFilter filter,
+            @Parameter(description = "Total to report: exact (COUNT query), none (hasNext only), or estimate (from maintained statistics)") @RequestParam(defaultValue = "exact") String count,
+            @Parameter(description = "Comma-separated properties to return (id is always included); omit for all") @RequestParam(value = FieldSet.PARAM, required = false) String fields,
             Pageable pageable) {
-        return service.getAll(search, pageable);
+        return PageDto.of(service.getAll(search, filter, pageable, CountMode.parse(count), FieldSet.parse(fields, FIELDS)));
+    }
+
+    @GetMapping(params = "after")
+    @VersionedResource({Scope.STUDENT, Scope.COURSE, Scope.EXAM_RESULT})
+    @Operation(summary = "List exam results by cursor", description = "Keyset pagination, newest first by default: seeks past the previous page's last row instead of skipping an offset, so deep pages cost the same as the first; does not combine with search")
+    @ApiResponse(responseCode = "200", description = "Page returned")
+    @ApiResponse(responseCode = "400", description = "Invalid cursor, size, sort or fields")
+    public CursorPageDto<ExamResultDto> getAfter(
+            @Parameter(description = "Cursor from the previous page's nextCursor; empty for the first page") @RequestParam String after,
+            @Parameter(description = "Page size (1-100)") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Sort columns, e.g. score,desc (id, score)") Sort sort,
+            @Parameter(description = "Comma-separated properties to return (id is always included); omit for all") @RequestParam(value = FieldSet.PARAM, required = false) String fields) {
+        return service.getAfter(after, size, sort, FieldSet.parse(fields, FIELDS));
+    }
+
+    @GetMapping("/recent")
+    @VersionedResource({Scope.STUDENT, Scope.COURSE, Scope.EXAM_RESULT})
+    @Operation(summary = "Recent activity feed", description = "Returns the newest exam results first; pass nextCursor as 'before' to get the next page")
+    @ApiResponse(responseCode = "200", description = "Feed page")
+    @ApiResponse(responseCode = "400", description = "Invalid limit")
+    public RecentResultFeedDto getRecent(
+            @Parameter(description = "Only results with an id below this cursor") @RequestParam(required = false) Long before,
+            @Parameter(description = "Page size (1-100)") @RequestParam(defaultValue = "20") int limit) {
+        return recentResultService.getFeed(before, limit);
+    }
+
+    @GetMapping("/stats")
+    @VersionedResource(Scope.EXAM_RESULT)
+    @Operation(summary = "Get score statistics across all courses", description = "Returns mean, percentiles and a bucketed score distribution from the in-memory histogram")
+    @ApiResponse(responseCode = "200", description = "Statistics returned")
+    @ApiResponse(responseCode = "400", description = "Invalid bucket width")
+    public ScoreStatsDto getStats(
+            @Parameter(description = "Bucket width in score points (1-101)") @RequestParam(defaultValue = "10") int bucketWidth) {
+        return statsService.getGlobalStats(bucketWidth);
+    }
+
+    @GetMapping("/trend")
+    @VersionedResource(Scope.EXAM_RESULT)
+    @Operation(summary = "Get score trend across all courses", description = "Returns result count and average score per day, week or month (UTC) from the maintained trend rollup")
+    @ApiResponse(responseCode = "200", description = "Trend returned")
+    @ApiResponse(responseCode = "400", description = "Invalid bucket or date range")
+    public ScoreTrendDto getTrend(
+            @Parameter(description = "day, week (starting Monday) or month") @RequestParam(defaultValue = "week") String bucket,
+            @Parameter(description = "Buckets containing or after this date (yyyy-MM-dd)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Buckets starting on or before this date (yyyy-MM-dd)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return trendService.getGlobalTrend(bucket, from, to);
+    }
+
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Import exam results", description = "Streams a CSV (header naming studentNumber, courseName and score) or NDJSON body and inserts the valid rows in chunked batches; students resolve by number, courses by name (case-insensitive). Rows that fail are listed by line, up to 1000")
+    @ApiResponse(responseCode = "200", description = "Import report")
+    @ApiResponse(responseCode = "400", description = "CSV header is missing a column")
+    @ApiResponse(responseCode = "415", description = "Body is neither text/csv nor application/x-ndjson")
+    public ImportReportDto importResults(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        ExamResultImportService.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(contentType))
+                ? ExamResultImportService.Format.NDJSON : ExamResultImportService.Format.CSV;
+        return importService.importResults(body, format);
     }
 
     @GetMapping("/student/{studentId}")
+    @VersionedResource(value = Scope.COURSE, studentIdVariable = "studentId")
     @Operation(summary = "Get scores for a student", description = "Returns all exam scores grouped by course for a given student")
     @ApiResponse(responseCode = "200", description = "Scores found")
     @ApiResponse(responseCode = "404", description = "Student not found")
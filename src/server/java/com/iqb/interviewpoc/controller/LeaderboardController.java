@@ -0,0 +1,47 @@
+package com.iqb.interviewpoc.controller;
+
+import com.iqb.interviewpoc.config.VersionedResource;
+import com.iqb.interviewpoc.dto.LeaderboardEntryDto;
+import com.iqb.interviewpoc.dto.PageDto;
+import com.iqb.interviewpoc.service.LeaderboardService;
+import com.iqb.interviewpoc.store.DataVersions.Scope;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/leaderboard")
+@Tag(name = "Leaderboard", description = "Student rankings by average score")
+public class LeaderboardController {
+
+    private final LeaderboardService service;
+
+    public LeaderboardController(LeaderboardService service) {
+        this.service = service;
+    }
+
+    @GetMapping
+    @VersionedResource({Scope.STUDENT, Scope.COURSE, Scope.EXAM_RESULT})
+    @Operation(summary = "Get leaderboard", description = "Returns a page of students ranked by average score, globally or within one course")
+    @ApiResponse(responseCode = "200", description = "Leaderboard page")
+    @ApiResponse(responseCode = "404", description = "Course not found")
+    public PageDto<LeaderboardEntryDto> getLeaderboard(
+            @Parameter(description = "Rank within this course only") @RequestParam(required = false) Long courseId,
+            Pageable pageable) {
+        return PageDto.of(service.getLeaderboard(courseId, pageable));
+    }
+
+    @GetMapping("/students/{studentId}")
+    @VersionedResource({Scope.STUDENT, Scope.COURSE, Scope.EXAM_RESULT})
+    @Operation(summary = "Get a student's rank", description = "Returns the student's rank and average score, globally or within one course")
+    @ApiResponse(responseCode = "200", description = "Rank found")
+    @ApiResponse(responseCode = "404", description = "Student or course not found, or student has no scores")
+    public LeaderboardEntryDto getStanding(
+            @PathVariable Long studentId,
+            @Parameter(description = "Rank within this course only") @RequestParam(required = false) Long courseId) {
+        return service.getStanding(studentId, courseId);
+    }
+}
@@ -1,43 +1,95 @@
 package com.iqb.interviewpoc.controller;
 
+import com.iqb.interviewpoc.config.VersionedResource;
+import com.iqb.interviewpoc.dto.CursorPageDto;
+import com.iqb.interviewpoc.dto.FieldSet;
+import com.iqb.interviewpoc.dto.PageDto;
+import com.iqb.interviewpoc.dto.StudentBulkResultDto;
 import com.iqb.interviewpoc.dto.StudentListDto;
+import com.iqb.interviewpoc.dto.StudentSuggestionDto;
 import com.iqb.interviewpoc.entity.Student;
+import com.iqb.interviewpoc.service.CountMode;
+import com.iqb.interviewpoc.service.StudentBulkService;
 import com.iqb.interviewpoc.service.StudentService;
+import com.iqb.interviewpoc.store.DataVersions.Scope;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
+
 @RestController
 @RequestMapping("/api/students")
 @Tag(name = "Students", description = "Student management")
 public class StudentController {
 
+    private static final Set<String> LIST_FIELDS = FieldSet.componentsOf(StudentListDto.class);
+    private static final Set<String> DETAIL_FIELDS = Set.of("id", "fullName", "number", "email", "gsmNumber", "createdAt", "updatedAt");
+
     private final StudentService service;
+    private final StudentBulkService bulkService;
 
-    public StudentController(StudentService service) {
+    public StudentController(StudentService service, StudentBulkService bulkService) {
         this.service = service;
+        this.bulkService = bulkService;
     }
 
     @GetMapping
-    @Operation(summary = "List students", description = "Returns a paginated list of students with optional search")
-    public Page<StudentListDto> getAll(
+    @VersionedResource({Scope.STUDENT, Scope.COURSE, Scope.EXAM_RESULT})
+    @Operation(summary = "List students", description = "Returns a paginated list of students with optional search; leaving completedCourses out of fields skips its query")
+    public PageDto<StudentListDto> getAll(
             @Parameter(description = "Search by name, number, email, or phone") @RequestParam(required = false) String search,
+            @Parameter(description = "Total to report: exact (COUNT query), none (hasNext only), or estimate (from maintained statistics)") @RequestParam(defaultValue = "exact") String count,
+            @Parameter(description = "Comma-separated properties to return (id is always included); omit for all") @RequestParam(value = FieldSet.PARAM, required = false) String fields,
             Pageable pageable) {
-        return service.getAll(search, pageable);
+        return PageDto.of(service.getAll(search, pageable, CountMode.parse(count), FieldSet.parse(fields, LIST_FIELDS)));
+    }
+
+    @GetMapping(params = "after")
+    @VersionedResource({Scope.STUDENT, Scope.COURSE, Scope.EXAM_RESULT})
+    @Operation(summary = "List students by cursor", description = "Keyset pagination: seeks past the previous page's last row instead of skipping an offset, so deep pages cost the same as the first; does not combine with search")
+    @ApiResponse(responseCode = "200", description = "Page returned")
+    @ApiResponse(responseCode = "400", description = "Invalid cursor, size, sort or fields")
+    public CursorPageDto<StudentListDto> getAfter(
+            @Parameter(description = "Cursor from the previous page's nextCursor; empty for the first page") @RequestParam String after,
+            @Parameter(description = "Page size (1-100)") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Sort columns, e.g. fullName,asc (id, fullName, number, email)") Sort sort,
+            @Parameter(description = "Comma-separated properties to return (id is always included); omit for all") @RequestParam(value = FieldSet.PARAM, required = false) String fields) {
+        return service.getAfter(after, size, sort, FieldSet.parse(fields, LIST_FIELDS));
+    }
+
+    @GetMapping("/suggest")
+    @VersionedResource(Scope.STUDENT)
+    @Operation(summary = "Suggest students", description = "Typeahead: students whose name, any later word of the name, number or email starts with the prefix; answered from memory, case- and accent-insensitive")
+    @ApiResponse(responseCode = "200", description = "Suggestions returned")
+    @ApiResponse(responseCode = "400", description = "Invalid limit")
+    public List<StudentSuggestionDto> suggest(
+            @Parameter(description = "Typed prefix") @RequestParam String prefix,
+            @Parameter(description = "Maximum suggestions (1-50)") @RequestParam(defaultValue = "10") int limit) {
+        return service.suggest(prefix, limit);
     }
 
     @GetMapping("/{id}")
+    @VersionedResource(Scope.STUDENT)
     @Operation(summary = "Get student by ID")
     @ApiResponse(responseCode = "200", description = "Student found")
+    @ApiResponse(responseCode = "400", description = "Unknown field")
     @ApiResponse(responseCode = "404", description = "Student not found")
-    public Student getById(@PathVariable Long id) {
+    public Student getById(
+            @PathVariable Long id,
+            @Parameter(description = "Comma-separated properties to return (id is always included); omit for all") @RequestParam(value = FieldSet.PARAM, required = false) String fields) {
+        FieldSet.parse(fields, DETAIL_FIELDS);
         return service.getById(id);
     }
 
@@ -49,6 +101,14 @@ public class StudentController {
         return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Create or update students in bulk", description = "Streams a JSON array of students and upserts them by number in chunked batches; each element is checked against the same constraints as a single create and reported by its array index")
+    @ApiResponse(responseCode = "200", description = "Per-row results")
+    @ApiResponse(responseCode = "400", description = "Body is not a JSON array or is malformed")
+    public StudentBulkResultDto bulkUpsert(InputStream body) throws IOException {
+        return bulkService.upsert(body);
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update a student")
     @ApiResponse(responseCode = "200", description = "Student updated")
@@ -0,0 +1,20 @@
+package com.iqb.interviewpoc.dto;
+
+import java.util.List;
+
+public record AnalyticsDto(
+    String groupBy,
+    int passScore,
+    long count,
+    Double averageScore,
+    Double passRate,
+    List<GroupDto> groups
+) {
+    public record GroupDto(
+        String key,
+        String label,
+        long count,
+        double averageScore,
+        double passRate
+    ) {}
+}
@@ -0,0 +1,10 @@
+package com.iqb.interviewpoc.dto;
+
+import java.util.List;
+
+public record CursorPageDto<T>(
+    List<T> content,
+    int size,
+    boolean hasNext,
+    String nextCursor
+) {}
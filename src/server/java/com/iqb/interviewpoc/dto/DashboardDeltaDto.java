@@ -0,0 +1,20 @@
+package com.iqb.interviewpoc.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.iqb.interviewpoc.dto.DashboardStatsDto.RecentResultDto;
+import com.iqb.interviewpoc.dto.DashboardStatsDto.TopStudentDto;
+
+import java.util.List;
+import java.util.Map;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DashboardDeltaDto(
+    Map<String, Number> counters,
+    Map<String, Integer> scoreDistribution,
+    List<TopStudentDto> topStudents,
+    List<RecentResultDto> recentResults
+) {
+    public boolean isEmpty() {
+        return counters == null && scoreDistribution == null && topStudents == null && recentResults == null;
+    }
+}
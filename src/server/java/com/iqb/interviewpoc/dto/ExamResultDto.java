@@ -1,10 +1,13 @@
 package com.iqb.interviewpoc.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+@JsonFilter(FieldSet.FILTER)
 public record ExamResultDto(
     long id,
     long studentId,
     String studentName,
-    int studentNumber,
+    Integer studentNumber,
     long courseId,
     String courseName,
     int score
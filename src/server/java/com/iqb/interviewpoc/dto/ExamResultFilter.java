@@ -0,0 +1,22 @@
+package com.iqb.interviewpoc.dto;
+
+import io.swagger.v3.oas.annotations.Parameter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+public record ExamResultFilter(
+    @Parameter(description = "Only results for this course") Long courseId,
+    @Parameter(description = "Only results for this student") Long studentId,
+    @Parameter(description = "Lowest score, inclusive") Integer minScore,
+    @Parameter(description = "Highest score, inclusive") Integer maxScore,
+    @Parameter(description = "First day, inclusive (yyyy-MM-dd)") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdFrom,
+    @Parameter(description = "Last day, inclusive (yyyy-MM-dd)") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdTo,
+    @Parameter(description = "true: only student/course pairs with all 3 scores; false: only pairs still in progress") Boolean completed
+) {
+
+    public boolean isEmpty() {
+        return courseId == null && studentId == null && minScore == null && maxScore == null
+                && createdFrom == null && createdTo == null && completed == null;
+    }
+}
@@ -0,0 +1,60 @@
+package com.iqb.interviewpoc.dto;
+
+import com.iqb.interviewpoc.exception.BusinessRuleException;
+
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Properties a client asked for with {@code ?fields=a,b}; {@code id} is always
+ * included. Types annotated with {@code @JsonFilter(FieldSet.FILTER)} are
+ * written with only these properties, and services use {@link #includes} to
+ * skip the joins and queries behind the ones left out.
+ */
+public record FieldSet(Set<String> names) {
+
+    public static final String PARAM = "fields";
+    public static final String FILTER = "fields";
+    public static final FieldSet ALL = new FieldSet(null);
+
+    public static FieldSet parse(String fields, Set<String> allowed) {
+        Set<String> names = requested(fields);
+        if (names == null) {
+            return ALL;
+        }
+        for (String name : names) {
+            if (!allowed.contains(name)) {
+                throw new BusinessRuleException("Unknown field '" + name + "', expected any of " + String.join(", ", new TreeSet<>(allowed)));
+            }
+        }
+        return new FieldSet(Collections.unmodifiableSet(names));
+    }
+
+    public static Set<String> componentsOf(Class<? extends Record> type) {
+        return Arrays.stream(type.getRecordComponents()).map(RecordComponent::getName).collect(Collectors.toUnmodifiableSet());
+    }
+
+    // Null when no fields were requested.
+    public static Set<String> requested(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        names.add("id");
+        Arrays.stream(fields.split(",")).map(String::trim).filter(name -> !name.isEmpty()).forEach(names::add);
+        return names;
+    }
+
+    public boolean includes(String name) {
+        return names == null || names.contains(name);
+    }
+
+    public boolean includesAny(String... candidates) {
+        return Arrays.stream(candidates).anyMatch(this::includes);
+    }
+}
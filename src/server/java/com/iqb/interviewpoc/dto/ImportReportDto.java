@@ -0,0 +1,12 @@
+package com.iqb.interviewpoc.dto;
+
+import java.util.List;
+
+public record ImportReportDto(
+    long imported,
+    long rejected,
+    List<RowErrorDto> errors,
+    boolean errorsTruncated
+) {
+    public record RowErrorDto(long line, String message) {}
+}
@@ -0,0 +1,9 @@
+package com.iqb.interviewpoc.dto;
+
+public record LeaderboardEntryDto(
+    int rank,
+    long studentId,
+    String fullName,
+    double averageScore,
+    int scoreCount
+) {}
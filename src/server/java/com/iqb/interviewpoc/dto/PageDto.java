@@ -0,0 +1,61 @@
+package com.iqb.interviewpoc.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Wire form of a list page: the rows, the page position and, when the
+ * request counted, the total. Written field by field, so the payload never
+ * carries Spring Data's pageable and sort graph and keeps its shape across
+ * Spring Data versions.
+ */
+@JsonSerialize(using = PageDto.Serializer.class)
+public record PageDto<T>(
+    List<T> content,
+    int number,
+    int size,
+    boolean last,
+    Long totalElements,
+    Integer totalPages,
+    Boolean totalEstimated
+) {
+
+    public static <T> PageDto<T> of(Slice<T> slice) {
+        if (slice instanceof Page<T> page) {
+            boolean estimated = page instanceof EstimatedPage<T> e && e.isTotalEstimated();
+            return new PageDto<>(page.getContent(), page.getNumber(), page.getSize(), page.isLast(),
+                    page.getTotalElements(), page.getTotalPages(), estimated);
+        }
+        return new PageDto<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.isLast(), null, null, null);
+    }
+
+    // Totals are left out, not written as null, when the request asked for count=none.
+    static class Serializer extends StdSerializer<PageDto<?>> {
+
+        Serializer() {
+            super(PageDto.class, false);
+        }
+
+        @Override
+        public void serialize(PageDto<?> page, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            provider.defaultSerializeField("content", page.content(), gen);
+            gen.writeNumberField("number", page.number());
+            gen.writeNumberField("size", page.size());
+            gen.writeBooleanField("last", page.last());
+            if (page.totalElements() != null) {
+                gen.writeNumberField("totalElements", page.totalElements());
+                gen.writeNumberField("totalPages", page.totalPages());
+                gen.writeBooleanField("totalEstimated", page.totalEstimated());
+            }
+            gen.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.iqb.interviewpoc.dto;
+
+import com.iqb.interviewpoc.dto.DashboardStatsDto.RecentResultDto;
+
+import java.util.List;
+
+public record RecentResultFeedDto(
+    List<RecentResultDto> content,
+    Long nextCursor
+) {}
@@ -0,0 +1,21 @@
+package com.iqb.interviewpoc.dto;
+
+import java.util.List;
+
+public record ScoreStatsDto(
+    long count,
+    Double mean,
+    Integer median,
+    Integer p90,
+    Integer p99,
+    Integer min,
+    Integer max,
+    int bucketWidth,
+    List<BucketDto> buckets
+) {
+    public record BucketDto(
+        int from,
+        int to,
+        long count
+    ) {}
+}
@@ -0,0 +1,16 @@
+package com.iqb.interviewpoc.dto;
+
+import java.util.List;
+
+public record ScoreTrendDto(
+    String bucket,
+    long count,
+    Double averageScore,
+    List<PointDto> points
+) {
+    public record PointDto(
+        String start,
+        long count,
+        double averageScore
+    ) {}
+}
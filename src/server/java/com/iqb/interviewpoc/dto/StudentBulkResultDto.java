@@ -0,0 +1,16 @@
+package com.iqb.interviewpoc.dto;
+
+import java.util.List;
+
+public record StudentBulkResultDto(
+    long created,
+    long updated,
+    long unchanged,
+    long rejected,
+    List<RowResultDto> rows
+) {
+    public enum Status { CREATED, UPDATED, UNCHANGED, REJECTED }
+
+    // index is the element's position in the request array
+    public record RowResultDto(int index, Status status, Long id, String message) {}
+}
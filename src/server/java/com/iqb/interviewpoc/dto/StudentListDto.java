@@ -1,7 +1,10 @@
 package com.iqb.interviewpoc.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+
 import java.util.List;
 
+@JsonFilter(FieldSet.FILTER)
 public record StudentListDto(
     Long id,
     String fullName,
@@ -0,0 +1,7 @@
+package com.iqb.interviewpoc.dto;
+
+public record StudentSuggestionDto(
+    long id,
+    String fullName,
+    Integer number
+) {}
@@ -1,9 +1,14 @@
 package com.iqb.interviewpoc.entity;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.iqb.interviewpoc.dto.FieldSet;
+import com.iqb.interviewpoc.event.EntityChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 
 @Entity
+@JsonFilter(FieldSet.FILTER)
+@EntityListeners(EntityChangeListener.class)
 @Table(name = "course", indexes = {
     @Index(name = "idx_course_name", columnList = "name")
 })
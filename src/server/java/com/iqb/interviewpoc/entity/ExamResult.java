@@ -1,15 +1,21 @@
 package com.iqb.interviewpoc.entity;
 
+import com.iqb.interviewpoc.event.EntityChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
 @Entity
+@EntityListeners(EntityChangeListener.class)
 @Table(name = "exam_result", indexes = {
     @Index(name = "idx_exam_result_student_id", columnList = "student_id"),
     @Index(name = "idx_exam_result_course_id", columnList = "course_id"),
-    @Index(name = "idx_exam_result_student_course", columnList = "student_id, course_id")
+    @Index(name = "idx_exam_result_student_course", columnList = "student_id, course_id"),
+    @Index(name = "idx_exam_result_course_score", columnList = "course_id, score"),
+    @Index(name = "idx_exam_result_course_created", columnList = "course_id, created_at"),
+    @Index(name = "idx_exam_result_created_at", columnList = "created_at"),
+    @Index(name = "idx_exam_result_slot", columnList = "student_id, course_id, slot", unique = true)
 })
 public class ExamResult extends BaseEntity {
 
@@ -33,8 +39,22 @@ public class ExamResult extends BaseEntity {
     @Column(name = "score", nullable = false)
     private Integer score;
 
+    // assigned and compacted by schema triggers; null on an entity persisted in this session
+    @Column(name = "slot", insertable = false, updatable = false)
+    private Integer slot;
+
+    @Transient
+    private Integer persistedScore;
+
     public ExamResult() {}
 
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    protected void rememberPersistedScore() {
+        persistedScore = score;
+    }
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
@@ -46,4 +66,8 @@ public class ExamResult extends BaseEntity {
 
     public Integer getScore() { return score; }
     public void setScore(Integer score) { this.score = score; }
+
+    public Integer getSlot() { return slot; }
+
+    public Integer getPersistedScore() { return persistedScore; }
 }
@@ -1,11 +1,16 @@
 package com.iqb.interviewpoc.entity;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.iqb.interviewpoc.dto.FieldSet;
+import com.iqb.interviewpoc.event.EntityChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
 @Entity
+@JsonFilter(FieldSet.FILTER)
+@EntityListeners(EntityChangeListener.class)
 @Table(name = "student", indexes = {
     @Index(name = "idx_student_number", columnList = "number"),
     @Index(name = "idx_student_email", columnList = "email"),
@@ -0,0 +1,41 @@
+package com.iqb.interviewpoc.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Read-only view of the trigger-maintained student_summary row; used as a
+ * sort key source for the student list.
+ */
+@Entity
+@Immutable
+@Table(name = "student_summary", indexes = {
+    @Index(name = "idx_student_summary_average", columnList = "completed_average"),
+    @Index(name = "idx_student_summary_completed", columnList = "completed_courses"),
+    @Index(name = "idx_student_summary_activity", columnList = "last_activity")
+})
+public class StudentSummary {
+
+    @Id
+    @Column(name = "student_id")
+    private Long studentId;
+
+    @Column(name = "completed_courses", nullable = false)
+    private Integer completedCourses;
+
+    @Column(name = "completed_average")
+    private Double completedAverage;
+
+    @Column(name = "last_activity")
+    private Long lastActivity;
+
+    protected StudentSummary() {}
+
+    public Long getStudentId() { return studentId; }
+
+    public Integer getCompletedCourses() { return completedCourses; }
+
+    public Double getCompletedAverage() { return completedAverage; }
+
+    public Long getLastActivity() { return lastActivity; }
+}
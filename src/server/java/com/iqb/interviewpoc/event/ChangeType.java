@@ -0,0 +1,7 @@
+package com.iqb.interviewpoc.event;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
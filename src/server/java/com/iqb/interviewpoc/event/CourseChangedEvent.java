@@ -0,0 +1,7 @@
+package com.iqb.interviewpoc.event;
+
+public record CourseChangedEvent(
+    ChangeType type,
+    long id,
+    String name
+) {}
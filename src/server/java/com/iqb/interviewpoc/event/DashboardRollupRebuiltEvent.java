@@ -0,0 +1,4 @@
+package com.iqb.interviewpoc.event;
+
+// Published when the dashboard rollups are recomputed from the base tables, outside any entity change.
+public record DashboardRollupRebuiltEvent() {}
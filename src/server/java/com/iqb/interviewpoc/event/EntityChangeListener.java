@@ -0,0 +1,51 @@
+package com.iqb.interviewpoc.event;
+
+import com.iqb.interviewpoc.entity.Course;
+import com.iqb.interviewpoc.entity.ExamResult;
+import com.iqb.interviewpoc.entity.Student;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener that turns every persisted write into an application event.
+ * Listeners that keep derived state in sync should use
+ * {@code @TransactionalEventListener} so they only see committed changes.
+ * Rows removed by a database cascade are not seen here; the services publish
+ * those explicitly.
+ */
+public class EntityChangeListener {
+
+    private final ApplicationEventPublisher publisher;
+
+    public EntityChangeListener(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @PostPersist
+    public void onPersist(Object entity) {
+        publish(entity, ChangeType.CREATED);
+    }
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        publish(entity, ChangeType.UPDATED);
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        publish(entity, ChangeType.DELETED);
+    }
+
+    private void publish(Object entity, ChangeType type) {
+        if (entity instanceof ExamResult er) {
+            publisher.publishEvent(ExamResultChangedEvent.of(type, er));
+        } else if (entity instanceof Student s) {
+            publisher.publishEvent(new StudentChangedEvent(
+                    type, s.getId(), s.getFullName(), s.getNumber(), s.getEmail(), s.getGsmNumber()));
+        } else if (entity instanceof Course c) {
+            publisher.publishEvent(new CourseChangedEvent(type, c.getId(), c.getName()));
+        }
+    }
+}
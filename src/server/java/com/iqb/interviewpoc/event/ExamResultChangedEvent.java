@@ -0,0 +1,27 @@
+package com.iqb.interviewpoc.event;
+
+import com.iqb.interviewpoc.entity.ExamResult;
+
+import java.time.LocalDateTime;
+
+public record ExamResultChangedEvent(
+    ChangeType type,
+    long id,
+    long studentId,
+    long courseId,
+    Integer oldScore,
+    Integer newScore,
+    LocalDateTime createdAt
+) {
+    public static ExamResultChangedEvent of(ChangeType type, ExamResult er) {
+        return new ExamResultChangedEvent(
+                type,
+                er.getId(),
+                er.getStudent().getId(),
+                er.getCourse().getId(),
+                type == ChangeType.CREATED ? null : er.getPersistedScore(),
+                type == ChangeType.DELETED ? null : er.getScore(),
+                er.getCreatedAt()
+        );
+    }
+}
@@ -0,0 +1,8 @@
+package com.iqb.interviewpoc.event;
+
+import java.util.List;
+
+// Student writes committed together, published once so listeners can apply them in one pass.
+public record StudentBatchChangedEvent(
+    List<StudentChangedEvent> changes
+) {}
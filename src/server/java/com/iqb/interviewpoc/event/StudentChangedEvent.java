@@ -0,0 +1,10 @@
+package com.iqb.interviewpoc.event;
+
+public record StudentChangedEvent(
+    ChangeType type,
+    long id,
+    String fullName,
+    Integer number,
+    String email,
+    String gsmNumber
+) {}
@@ -0,0 +1,25 @@
+package com.iqb.interviewpoc.exception;
+
+import org.springframework.dao.DataAccessException;
+
+/**
+ * Client-facing wording for writes the database rejected. Driver messages
+ * name tables, columns and SQLite codes, so they are logged, not returned.
+ */
+public final class DataIntegrityMessages {
+
+    private DataIntegrityMessages() {
+    }
+
+    public static String describe(DataAccessException ex) {
+        String rootMsg = ex.getMostSpecificCause().getMessage();
+        if (rootMsg != null && rootMsg.contains("exam_result.slot")) {
+            // a concurrent write took the pair's last free slot
+            return "Maximum 3 scores per student-course pair";
+        }
+        if (rootMsg != null && rootMsg.toLowerCase().contains("unique")) {
+            return "Duplicate value violates unique constraint";
+        }
+        return "Data integrity violation";
+    }
+}
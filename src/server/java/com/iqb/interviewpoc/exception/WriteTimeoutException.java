@@ -0,0 +1,8 @@
+package com.iqb.interviewpoc.exception;
+
+public class WriteTimeoutException extends RuntimeException {
+
+    public WriteTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -3,12 +3,46 @@ package com.iqb.interviewpoc.repository;
 import com.iqb.interviewpoc.entity.Course;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.List;
+
 public interface CourseRepository extends JpaRepository<Course, Long> {
 
-    @Query("SELECT c FROM Course c WHERE LOWER(c.name) LIKE LOWER(CONCAT('%', :term, '%'))")
+    String SEARCH_CONDITION = "LOWER(c.name) LIKE LOWER(CONCAT('%', :term, '%'))";
+
+    String SEARCH = "SELECT c FROM Course c WHERE " + SEARCH_CONDITION;
+
+    String MATCH_IDS = "SELECT rowid FROM course_fts WHERE course_fts MATCH :query ORDER BY rank";
+
+    @Query(SEARCH)
     Page<Course> search(@Param("term") String term, Pageable pageable);
+
+    @Query(SEARCH)
+    Slice<Course> searchSlice(@Param("term") String term, Pageable pageable);
+
+    @Query("SELECT c.id FROM Course c WHERE " + SEARCH_CONDITION)
+    List<Long> searchIds(@Param("term") String term, Pageable pageable);
+
+    @Query(value = "SELECT COUNT(*) FROM (SELECT name FROM course LIMIT :sample) c " +
+           "WHERE LOWER(c.name) LIKE '%' || LOWER(:term) || '%'", nativeQuery = true)
+    long countSearchInSample(@Param("term") String term, @Param("sample") int sample);
+
+    @Query(value = MATCH_IDS,
+           countQuery = "SELECT COUNT(*) FROM course_fts WHERE course_fts MATCH :query", nativeQuery = true)
+    Page<Number> matchIds(@Param("query") String query, Pageable pageable);
+
+    @Query(value = MATCH_IDS, nativeQuery = true)
+    Slice<Number> matchIdSlice(@Param("query") String query, Pageable pageable);
+
+    @Query(value = "SELECT COUNT(*) FROM course_fts WHERE course_fts MATCH :query", nativeQuery = true)
+    long countMatches(@Param("query") String query);
+
+    Slice<Course> findSliceBy(Pageable pageable);
+
+    @Query("SELECT c.id FROM Course c")
+    List<Long> findAllIds();
 }
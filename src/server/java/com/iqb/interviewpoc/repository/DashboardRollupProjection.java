@@ -0,0 +1,26 @@
+package com.iqb.interviewpoc.repository;
+
+public interface DashboardRollupProjection {
+
+    Long getStudentCount();
+
+    Long getCourseCount();
+
+    Long getExamResultCount();
+
+    Long getScoreSum();
+
+    Long getCompletedPairs();
+
+    Long getInProgressPairs();
+
+    Integer getRange0to20();
+
+    Integer getRange21to40();
+
+    Integer getRange41to60();
+
+    Integer getRange61to80();
+
+    Integer getRange81to100();
+}
@@ -1,67 +1,157 @@
 package com.iqb.interviewpoc.repository;
 
 import com.iqb.interviewpoc.entity.ExamResult;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
-public interface ExamResultRepository extends JpaRepository<ExamResult, Long> {
+public interface ExamResultRepository extends JpaRepository<ExamResult, Long>, JpaSpecificationExecutor<ExamResult> {
 
-    @Query("SELECT AVG(er.score) FROM ExamResult er")
-    Double averageScore();
+    @Query(value = "SELECT student_count AS studentCount, course_count AS courseCount, " +
+           "exam_result_count AS examResultCount, score_sum AS scoreSum, " +
+           "completed_pairs AS completedPairs, in_progress_pairs AS inProgressPairs, " +
+           "range_0_20 AS range0to20, range_21_40 AS range21to40, range_41_60 AS range41to60, " +
+           "range_61_80 AS range61to80, range_81_100 AS range81to100 " +
+           "FROM dashboard_rollup WHERE id = 1", nativeQuery = true)
+    DashboardRollupProjection findDashboardRollup();
 
-    @Query(value = "SELECT COUNT(*) FROM (SELECT student_id, course_id FROM exam_result GROUP BY student_id, course_id HAVING COUNT(*) = 3)", nativeQuery = true)
-    long countCompletedPairs();
+    @Modifying
+    @Query(value = "UPDATE dashboard_rollup SET " +
+           "student_count = (SELECT COUNT(*) FROM student), " +
+           "course_count = (SELECT COUNT(*) FROM course), " +
+           "exam_result_count = (SELECT COUNT(*) FROM exam_result), " +
+           "score_sum = (SELECT COALESCE(SUM(score), 0) FROM exam_result), " +
+           "completed_pairs = (SELECT COUNT(*) FROM exam_result WHERE slot = 3), " +
+           "in_progress_pairs = (SELECT COUNT(*) FROM exam_result WHERE slot = 1) - (SELECT COUNT(*) FROM exam_result WHERE slot = 3), " +
+           "range_0_20 = (SELECT COUNT(*) FROM exam_result WHERE score <= 20), " +
+           "range_21_40 = (SELECT COUNT(*) FROM exam_result WHERE score > 20 AND score <= 40), " +
+           "range_41_60 = (SELECT COUNT(*) FROM exam_result WHERE score > 40 AND score <= 60), " +
+           "range_61_80 = (SELECT COUNT(*) FROM exam_result WHERE score > 60 AND score <= 80), " +
+           "range_81_100 = (SELECT COUNT(*) FROM exam_result WHERE score > 80) " +
+           "WHERE id = 1", nativeQuery = true)
+    int rebuildDashboardRollup();
 
-    @Query(value = "SELECT COUNT(*) FROM (SELECT student_id, course_id FROM exam_result GROUP BY student_id, course_id HAVING COUNT(*) < 3)", nativeQuery = true)
-    long countInProgressPairs();
+    @Query(value = "SELECT bucket_start AS bucketStart, SUM(result_count) AS resultCount, SUM(score_sum) AS scoreSum " +
+           "FROM score_trend WHERE bucket = :bucket AND bucket_start BETWEEN :from AND :to " +
+           "GROUP BY bucket_start ORDER BY bucket_start", nativeQuery = true)
+    List<ScoreTrendProjection> findScoreTrend(@Param("bucket") String bucket,
+                                              @Param("from") String from, @Param("to") String to);
 
-    @Query(value = "SELECT s.id, s.full_name, AVG(er.score) as avg_score " +
-           "FROM exam_result er JOIN student s ON er.student_id = s.id " +
-           "GROUP BY s.id, s.full_name ORDER BY avg_score DESC LIMIT 5", nativeQuery = true)
-    List<TopStudentProjection> findTopStudentsByAvgScore();
+    @Query(value = "SELECT bucket_start AS bucketStart, result_count AS resultCount, score_sum AS scoreSum " +
+           "FROM score_trend WHERE course_id = :courseId AND bucket = :bucket AND bucket_start BETWEEN :from AND :to " +
+           "ORDER BY bucket_start", nativeQuery = true)
+    List<ScoreTrendProjection> findCourseScoreTrend(@Param("courseId") Long courseId, @Param("bucket") String bucket,
+                                                    @Param("from") String from, @Param("to") String to);
+
+    @Modifying
+    @Query(value = "DELETE FROM score_trend", nativeQuery = true)
+    int clearScoreTrend();
+
+    @Modifying
+    @Query(value = "INSERT INTO score_trend (course_id, bucket, bucket_start, result_count, score_sum) " +
+           "SELECT t.course_id, b.bucket, CASE b.bucket WHEN 'day' THEN t.day " +
+           "WHEN 'week' THEN date(t.day, 'weekday 0', '-6 days') ELSE date(t.day, 'start of month') END AS bucket_start, " +
+           "COUNT(*), SUM(t.score) " +
+           "FROM (SELECT course_id, score, CASE WHEN typeof(created_at) = 'integer' THEN date(created_at / 1000, 'unixepoch') ELSE date(created_at) END AS day FROM exam_result) AS t, " +
+           "(SELECT 'day' AS bucket UNION ALL SELECT 'week' UNION ALL SELECT 'month') AS b " +
+           "GROUP BY t.course_id, b.bucket, bucket_start", nativeQuery = true)
+    int fillScoreTrend();
+
+    @Query(value = "SELECT student_id AS studentId, course_id AS courseId, SUM(score) AS scoreSum, COUNT(*) AS total " +
+           "FROM exam_result GROUP BY student_id, course_id", nativeQuery = true)
+    List<StudentCourseTotalProjection> findStudentCourseTotals();
+
+    @Query("SELECT er.id FROM ExamResult er WHERE er.id < :before ORDER BY er.id DESC")
+    List<Long> findIdsBefore(@Param("before") long before, Pageable pageable);
 
     @Query(value = "SELECT er.id, s.full_name, c.name, er.score, er.created_at " +
            "FROM exam_result er JOIN student s ON er.student_id = s.id JOIN course c ON er.course_id = c.id " +
-           "ORDER BY er.created_at DESC LIMIT 5", nativeQuery = true)
-    List<RecentResultProjection> findRecentResults();
-
-    @Query(value = "SELECT " +
-           "SUM(CASE WHEN score <= 20 THEN 1 ELSE 0 END) as range0to20, " +
-           "SUM(CASE WHEN score > 20 AND score <= 40 THEN 1 ELSE 0 END) as range21to40, " +
-           "SUM(CASE WHEN score > 40 AND score <= 60 THEN 1 ELSE 0 END) as range41to60, " +
-           "SUM(CASE WHEN score > 60 AND score <= 80 THEN 1 ELSE 0 END) as range61to80, " +
-           "SUM(CASE WHEN score > 80 THEN 1 ELSE 0 END) as range81to100 " +
-           "FROM exam_result", nativeQuery = true)
-    ScoreDistributionProjection findScoreDistribution();
-
-    @Query(value = "SELECT er.student_id as studentId, c.name as courseName, AVG(er.score) as average " +
-           "FROM exam_result er JOIN course c ON er.course_id = c.id " +
-           "WHERE er.student_id IN (:studentIds) " +
-           "GROUP BY er.student_id, er.course_id, c.name " +
-           "HAVING COUNT(*) = 3", nativeQuery = true)
+           "WHERE er.id IN (:ids) ORDER BY er.id DESC", nativeQuery = true)
+    List<RecentResultProjection> findRecentResultsByIds(@Param("ids") List<Long> ids);
+
+    // A completed pair is one with slot 3; its three rows are three lookups on the slot index.
+    @Query(value = "SELECT s3.student_id as studentId, c.name as courseName, (s1.score + s2.score + s3.score) / 3.0 as average " +
+           "FROM exam_result s3 " +
+           "JOIN exam_result s1 ON s1.student_id = s3.student_id AND s1.course_id = s3.course_id AND s1.slot = 1 " +
+           "JOIN exam_result s2 ON s2.student_id = s3.student_id AND s2.course_id = s3.course_id AND s2.slot = 2 " +
+           "JOIN course c ON s3.course_id = c.id " +
+           "WHERE s3.student_id IN (:studentIds) AND s3.slot = 3 " +
+           "ORDER BY s3.student_id, s3.course_id", nativeQuery = true)
     List<CompletedCourseProjection> findCompletedCourseAverages(@Param("studentIds") List<Long> studentIds);
 
-    long countByStudentIdAndCourseId(Long studentId, Long courseId);
+    @Query(value = "SELECT course_id AS courseId, score, COUNT(*) AS total FROM exam_result GROUP BY course_id, score", nativeQuery = true)
+    List<ScoreCountProjection> countScoresByCourse();
+
+    List<ExamResult> findByCourseId(Long courseId);
 
     List<ExamResult> findByStudentIdOrderByCourseIdAscIdAsc(Long studentId);
 
-    @Query(value = "SELECT er FROM ExamResult er JOIN FETCH er.student JOIN FETCH er.course ORDER BY er.id DESC",
-           countQuery = "SELECT COUNT(er) FROM ExamResult er")
-    Page<ExamResult> findAllWithDetails(Pageable pageable);
+    @EntityGraph(attributePaths = "course")
+    List<ExamResult> findWithCourseByStudentIdOrderByCourseIdAscIdAsc(Long studentId);
 
-    @Query(value = "SELECT er FROM ExamResult er JOIN FETCH er.student JOIN FETCH er.course " +
-           "WHERE LOWER(er.student.fullName) LIKE LOWER(CONCAT('%', :term, '%')) OR " +
-           "LOWER(er.course.name) LIKE LOWER(CONCAT('%', :term, '%')) OR " +
-           "CAST(er.score AS string) LIKE CONCAT('%', :term, '%') " +
-           "ORDER BY er.id DESC",
-           countQuery = "SELECT COUNT(er) FROM ExamResult er " +
-           "WHERE LOWER(er.student.fullName) LIKE LOWER(CONCAT('%', :term, '%')) OR " +
+    String ALL_WITH_DETAILS = "SELECT er FROM ExamResult er JOIN FETCH er.student JOIN FETCH er.course ORDER BY er.id DESC";
+
+    String SEARCH_CONDITION = "LOWER(er.student.fullName) LIKE LOWER(CONCAT('%', :term, '%')) OR " +
            "LOWER(er.course.name) LIKE LOWER(CONCAT('%', :term, '%')) OR " +
-           "CAST(er.score AS string) LIKE CONCAT('%', :term, '%')")
-    Page<ExamResult> searchWithDetails(@Param("term") String term, Pageable pageable);
+           "er.score = :score";
+
+    String SEARCH_WITH_DETAILS = "SELECT er FROM ExamResult er JOIN FETCH er.student JOIN FETCH er.course " +
+           "WHERE " + SEARCH_CONDITION + " ORDER BY er.id DESC";
+
+    String MATCH_IDS = "SELECT rowid FROM exam_result_fts WHERE exam_result_fts MATCH :query " +
+           "ORDER BY bm25(exam_result_fts, 5.0, 5.0, 1.0)";
+
+    @Query(value = ALL_WITH_DETAILS, countQuery = "SELECT COUNT(er) FROM ExamResult er")
+    Page<ExamResult> findAllWithDetails(Pageable pageable);
+
+    @Query(ALL_WITH_DETAILS)
+    Slice<ExamResult> findSliceWithDetails(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"student", "course"})
+    Window<ExamResult> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    @Query(value = SEARCH_WITH_DETAILS,
+           countQuery = "SELECT COUNT(er) FROM ExamResult er WHERE " + SEARCH_CONDITION)
+    Page<ExamResult> searchWithDetails(@Param("term") String term, @Param("score") Integer score, Pageable pageable);
+
+    @Query(SEARCH_WITH_DETAILS)
+    Slice<ExamResult> searchSliceWithDetails(@Param("term") String term, @Param("score") Integer score, Pageable pageable);
+
+    @Query("SELECT er.id FROM ExamResult er WHERE " + SEARCH_CONDITION + " ORDER BY er.id DESC")
+    List<Long> searchIds(@Param("term") String term, @Param("score") Integer score, Pageable pageable);
+
+    @Query("SELECT er.id FROM ExamResult er WHERE er.id IN :ids AND (" + SEARCH_CONDITION + ")")
+    List<Long> searchIdsIn(@Param("term") String term, @Param("score") Integer score, @Param("ids") List<Long> ids);
+
+    @Query(value = "SELECT COUNT(*) FROM (SELECT s.full_name, c.name, er.score FROM exam_result er " +
+           "JOIN student s ON er.student_id = s.id JOIN course c ON er.course_id = c.id LIMIT :sample) t WHERE " +
+           "LOWER(t.full_name) LIKE '%' || LOWER(:term) || '%' OR " +
+           "LOWER(t.name) LIKE '%' || LOWER(:term) || '%' OR " +
+           "t.score = :score", nativeQuery = true)
+    long countSearchInSample(@Param("term") String term, @Param("score") Integer score, @Param("sample") int sample);
+
+    @Query(value = MATCH_IDS,
+           countQuery = "SELECT COUNT(*) FROM exam_result_fts WHERE exam_result_fts MATCH :query", nativeQuery = true)
+    Page<Number> matchIds(@Param("query") String query, Pageable pageable);
+
+    @Query(value = MATCH_IDS, nativeQuery = true)
+    Slice<Number> matchIdSlice(@Param("query") String query, Pageable pageable);
+
+    @Query(value = "SELECT COUNT(*) FROM exam_result_fts WHERE exam_result_fts MATCH :query", nativeQuery = true)
+    long countMatches(@Param("query") String query);
+
+    @Query("SELECT er FROM ExamResult er JOIN FETCH er.student JOIN FETCH er.course WHERE er.id IN :ids")
+    List<ExamResult> findAllWithDetailsByIdIn(@Param("ids") List<Long> ids);
 }
@@ -0,0 +1,69 @@
+package com.iqb.interviewpoc.repository;
+
+import com.iqb.interviewpoc.dto.ExamResultFilter;
+import com.iqb.interviewpoc.entity.ExamResult;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Typed exam result filters as criteria predicates. Only the filters that
+ * are set become predicates, and each compares a bare column with a bound
+ * value, so SQLite can answer them from the course/score, course/created_at
+ * and created_at indexes instead of scanning.
+ */
+public final class ExamResultSpecifications {
+
+    private static final int COMPLETING_SLOT = 3;
+
+    private ExamResultSpecifications() {
+    }
+
+    // score is the exact score for a numeric term, null otherwise.
+    public static Specification<ExamResult> matching(ExamResultFilter filter, String term, Integer score) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.courseId() != null) {
+                predicates.add(cb.equal(root.get("course").get("id"), filter.courseId()));
+            }
+            if (filter.studentId() != null) {
+                predicates.add(cb.equal(root.get("student").get("id"), filter.studentId()));
+            }
+            if (filter.minScore() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("score"), filter.minScore()));
+            }
+            if (filter.maxScore() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("score"), filter.maxScore()));
+            }
+            if (filter.createdFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), filter.createdFrom().atStartOfDay()));
+            }
+            if (filter.createdTo() != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), filter.createdTo().plusDays(1).atStartOfDay()));
+            }
+            if (filter.completed() != null) {
+                // a pair is completed when its slot 3 exists: one probe of the unique slot index
+                Subquery<Long> third = query.subquery(Long.class);
+                Root<ExamResult> other = third.from(ExamResult.class);
+                third.select(other.get("id")).where(
+                        cb.equal(other.get("student"), root.get("student")),
+                        cb.equal(other.get("course"), root.get("course")),
+                        cb.equal(other.get("slot"), COMPLETING_SLOT));
+                predicates.add(filter.completed() ? cb.exists(third) : cb.not(cb.exists(third)));
+            }
+            if (term != null) {
+                String pattern = "%" + term.toLowerCase(Locale.ROOT) + "%";
+                Predicate text = cb.or(
+                        cb.like(cb.lower(root.get("student").get("fullName")), pattern),
+                        cb.like(cb.lower(root.get("course").get("name")), pattern));
+                predicates.add(score == null ? text : cb.or(text, cb.equal(root.get("score"), score)));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
@@ -0,0 +1,10 @@
+package com.iqb.interviewpoc.repository;
+
+public interface ScoreCountProjection {
+
+    Long getCourseId();
+
+    Integer getScore();
+
+    Integer getTotal();
+}
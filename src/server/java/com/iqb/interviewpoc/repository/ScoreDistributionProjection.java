@@ -1,14 +0,0 @@
-package com.iqb.interviewpoc.repository;
-
-public interface ScoreDistributionProjection {
-
-    Integer getRange0to20();
-
-    Integer getRange21to40();
-
-    Integer getRange41to60();
-
-    Integer getRange61to80();
-
-    Integer getRange81to100();
-}
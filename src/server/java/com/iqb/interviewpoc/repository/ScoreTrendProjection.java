@@ -0,0 +1,10 @@
+package com.iqb.interviewpoc.repository;
+
+public interface ScoreTrendProjection {
+
+    String getBucketStart();
+
+    Long getResultCount();
+
+    Long getScoreSum();
+}
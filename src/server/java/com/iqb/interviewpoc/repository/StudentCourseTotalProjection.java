@@ -0,0 +1,8 @@
+package com.iqb.interviewpoc.repository;
+
+public interface StudentCourseTotalProjection {
+    Long getStudentId();
+    Long getCourseId();
+    Long getScoreSum();
+    Integer getTotal();
+}
@@ -1,18 +1,71 @@
 package com.iqb.interviewpoc.repository;
 
 import com.iqb.interviewpoc.entity.Student;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.List;
+
 public interface StudentRepository extends JpaRepository<Student, Long> {
 
-    @Query("SELECT s FROM Student s WHERE " +
-           "LOWER(s.fullName) LIKE LOWER(CONCAT('%', :term, '%')) OR " +
+    String SEARCH_CONDITION = "LOWER(s.fullName) LIKE LOWER(CONCAT('%', :term, '%')) OR " +
            "CAST(s.number AS string) LIKE CONCAT('%', :term, '%') OR " +
            "LOWER(s.email) LIKE LOWER(CONCAT('%', :term, '%')) OR " +
-           "LOWER(s.gsmNumber) LIKE LOWER(CONCAT('%', :term, '%'))")
+           "LOWER(s.gsmNumber) LIKE LOWER(CONCAT('%', :term, '%'))";
+
+    String SEARCH = "SELECT s FROM Student s WHERE " + SEARCH_CONDITION;
+
+    // Sort by summary columns through the "ss" alias, e.g. ss.completedAverage.
+    String WITH_SUMMARY = "SELECT s FROM Student s JOIN StudentSummary ss ON ss.studentId = s.id";
+
+    String MATCH_IDS = "SELECT rowid FROM student_fts WHERE student_fts MATCH :query " +
+           "ORDER BY bm25(student_fts, 10.0, 5.0, 2.0, 1.0)";
+
+    @Query(SEARCH)
     Page<Student> search(@Param("term") String term, Pageable pageable);
+
+    @Query(SEARCH)
+    Slice<Student> searchSlice(@Param("term") String term, Pageable pageable);
+
+    @Query("SELECT s.id FROM Student s WHERE " + SEARCH_CONDITION)
+    List<Long> searchIds(@Param("term") String term, Pageable pageable);
+
+    @Query(value = "SELECT COUNT(*) FROM (SELECT * FROM student LIMIT :sample) s WHERE " +
+           "LOWER(s.full_name) LIKE '%' || LOWER(:term) || '%' OR " +
+           "CAST(s.number AS TEXT) LIKE '%' || :term || '%' OR " +
+           "LOWER(s.email) LIKE '%' || LOWER(:term) || '%' OR " +
+           "LOWER(s.gsm_number) LIKE '%' || LOWER(:term) || '%'", nativeQuery = true)
+    long countSearchInSample(@Param("term") String term, @Param("sample") int sample);
+
+    @Query(value = MATCH_IDS,
+           countQuery = "SELECT COUNT(*) FROM student_fts WHERE student_fts MATCH :query", nativeQuery = true)
+    Page<Number> matchIds(@Param("query") String query, Pageable pageable);
+
+    @Query(value = MATCH_IDS, nativeQuery = true)
+    Slice<Number> matchIdSlice(@Param("query") String query, Pageable pageable);
+
+    @Query(value = "SELECT COUNT(*) FROM student_fts WHERE student_fts MATCH :query", nativeQuery = true)
+    long countMatches(@Param("query") String query);
+
+    Slice<Student> findSliceBy(Pageable pageable);
+
+    @Query(value = WITH_SUMMARY, countQuery = "SELECT COUNT(s) FROM Student s")
+    Page<Student> findAllWithSummary(Pageable pageable);
+
+    @Query(WITH_SUMMARY)
+    Slice<Student> findSliceWithSummary(Pageable pageable);
+
+    @Query(value = WITH_SUMMARY + " WHERE " + SEARCH_CONDITION,
+           countQuery = "SELECT COUNT(s) FROM Student s WHERE " + SEARCH_CONDITION)
+    Page<Student> searchWithSummary(@Param("term") String term, Pageable pageable);
+
+    Window<Student> findAllBy(ScrollPosition position, Sort sort, Limit limit);
 }
@@ -0,0 +1,26 @@
+package com.iqb.interviewpoc.repository;
+
+import com.iqb.interviewpoc.entity.StudentSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+public interface StudentSummaryRepository extends JpaRepository<StudentSummary, Long> {
+
+    @Modifying
+    @Query(value = "DELETE FROM student_summary", nativeQuery = true)
+    int clearAll();
+
+    @Modifying
+    @Query(value = "INSERT INTO student_summary (student_id, completed_courses, completed_average, last_activity) " +
+           "SELECT s.id, COALESCE(c.n, 0), c.average, a.last FROM student s " +
+           "LEFT JOIN (SELECT s3.student_id, COUNT(*) AS n, AVG((s1.score + s2.score + s3.score) / 3.0) AS average " +
+           "FROM exam_result s3 " +
+           "JOIN exam_result s1 ON s1.student_id = s3.student_id AND s1.course_id = s3.course_id AND s1.slot = 1 " +
+           "JOIN exam_result s2 ON s2.student_id = s3.student_id AND s2.course_id = s3.course_id AND s2.slot = 2 " +
+           "WHERE s3.slot = 3 GROUP BY s3.student_id) AS c ON c.student_id = s.id " +
+           "LEFT JOIN (SELECT student_id, MAX(CASE WHEN typeof(updated_at) = 'integer' THEN updated_at " +
+           "ELSE CAST(strftime('%s', updated_at) AS INTEGER) * 1000 END) AS last " +
+           "FROM exam_result GROUP BY student_id) AS a ON a.student_id = s.id", nativeQuery = true)
+    int fillAll();
+}
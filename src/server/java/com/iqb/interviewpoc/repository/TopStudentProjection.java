@@ -1,7 +0,0 @@
-package com.iqb.interviewpoc.repository;
-
-public interface TopStudentProjection {
-    Long getId();
-    String getFullName();
-    Double getAvgScore();
-}
@@ -0,0 +1,76 @@
+package com.iqb.interviewpoc.service;
+
+import com.iqb.interviewpoc.dto.AnalyticsDto;
+import com.iqb.interviewpoc.dto.AnalyticsDto.GroupDto;
+import com.iqb.interviewpoc.exception.BusinessRuleException;
+import com.iqb.interviewpoc.store.AnalyticsQuery;
+import com.iqb.interviewpoc.store.AnalyticsQuery.Group;
+import com.iqb.interviewpoc.store.AnalyticsQuery.GroupBy;
+import com.iqb.interviewpoc.store.ColumnarExamResults;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Locale;
+
+@Service
+public class AnalyticsService {
+
+    public static final int MAX_GROUPS = 10_000;
+
+    private final ColumnarExamResults columns;
+
+    public AnalyticsService(ColumnarExamResults columns) {
+        this.columns = columns;
+    }
+
+    public AnalyticsDto query(String groupBy, Long courseId, Long studentId,
+                              LocalDate from, LocalDate to, int passScore, int limit) {
+        GroupBy grouping = parseGroupBy(groupBy);
+        if (passScore < 0 || passScore > 100) {
+            throw new BusinessRuleException("Pass score must be between 0 and 100");
+        }
+        if (limit < 1 || limit > MAX_GROUPS) {
+            throw new BusinessRuleException("Limit must be between 1 and " + MAX_GROUPS);
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BusinessRuleException("'from' must not be after 'to'");
+        }
+
+        // Dates are UTC days; 'to' is inclusive.
+        AnalyticsQuery query = new AnalyticsQuery(grouping, courseId, studentId,
+                from == null ? null : from.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli(),
+                to == null ? null : to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli(),
+                passScore);
+        List<Group> groups = columns.aggregate(query);
+
+        long count = 0, sum = 0, passed = 0;
+        for (Group g : groups) {
+            count += g.count();
+            sum += g.scoreSum();
+            passed += g.passed();
+        }
+        List<GroupDto> content = groups.stream()
+                .limit(limit)
+                .map(g -> new GroupDto(g.key(), g.label(), g.count(),
+                        round(g.scoreSum(), g.count()), round(g.passed() * 100L, g.count())))
+                .toList();
+        return new AnalyticsDto(grouping.name().toLowerCase(Locale.ROOT), passScore, count,
+                count == 0 ? null : round(sum, count),
+                count == 0 ? null : round(passed * 100L, count),
+                content);
+    }
+
+    private static GroupBy parseGroupBy(String groupBy) {
+        try {
+            return GroupBy.valueOf(groupBy.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessRuleException("groupBy must be one of course, student, day, week, month");
+        }
+    }
+
+    private static double round(long numerator, long denominator) {
+        return Math.round(numerator * 100.0 / denominator) / 100.0;
+    }
+}
@@ -0,0 +1,75 @@
+package com.iqb.interviewpoc.service;
+
+import com.iqb.interviewpoc.dto.EstimatedPage;
+import com.iqb.interviewpoc.exception.BusinessRuleException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.Locale;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * How a list endpoint reports its size ({@code count} parameter):
+ * {@code exact} runs the COUNT query, {@code none} fetches one extra row to
+ * tell whether a next page exists and reports no total, and {@code estimate}
+ * does the same and fills the total in from maintained statistics.
+ */
+public enum CountMode {
+
+    NONE, EXACT, ESTIMATE;
+
+    // Rows a filtered estimate scans; the match ratio inside them is scaled to the table size.
+    static final int SAMPLE_ROWS = 1000;
+
+    public static CountMode parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessRuleException("count must be one of exact, none, estimate");
+        }
+    }
+
+    <T> Slice<T> fetch(Supplier<Page<T>> counted, Supplier<Slice<T>> uncounted, LongSupplier estimate) {
+        return switch (this) {
+            case EXACT -> counted.get();
+            case NONE -> uncounted.get();
+            case ESTIMATE -> estimated(uncounted.get(), estimate.getAsLong());
+        };
+    }
+
+    // For results that already carry an exact total at no extra cost.
+    <T> Slice<T> of(Page<T> page) {
+        return switch (this) {
+            case EXACT -> page;
+            case NONE -> new SliceImpl<>(page.getContent(), page.getPageable(), page.hasNext());
+            case ESTIMATE -> new EstimatedPage<>(page.getContent(), page.getPageable(), page.getTotalElements(), false);
+        };
+    }
+
+    // For results that carry an exact total when they are a page; a bare slice only ever comes back for NONE.
+    <T> Slice<T> of(Slice<T> slice) {
+        return slice instanceof Page<T> page ? of(page) : slice;
+    }
+
+    static long extrapolate(long sampleMatches, long total) {
+        long sampled = Math.min(SAMPLE_ROWS, total);
+        return sampled == 0 ? 0 : Math.round((double) sampleMatches * total / sampled);
+    }
+
+    // The rows seen so far bound the estimate: a next page means at least one more, none means it is exact.
+    private static <T> EstimatedPage<T> estimated(Slice<T> slice, long estimate) {
+        Pageable pageable = slice.getPageable();
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        long seen = offset + slice.getNumberOfElements();
+        if (slice.hasNext()) {
+            return new EstimatedPage<>(slice.getContent(), pageable, Math.max(estimate, seen + 1), true);
+        }
+        if (slice.getNumberOfElements() == 0 && offset > 0) {
+            return new EstimatedPage<>(slice.getContent(), pageable, Math.min(estimate, offset), true);
+        }
+        return new EstimatedPage<>(slice.getContent(), pageable, seen, false);
+    }
+}
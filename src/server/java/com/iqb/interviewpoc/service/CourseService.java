@@ -1,26 +1,75 @@
 package com.iqb.interviewpoc.service;
 
 import com.iqb.interviewpoc.entity.Course;
+import com.iqb.interviewpoc.event.ChangeType;
+import com.iqb.interviewpoc.event.ExamResultChangedEvent;
 import com.iqb.interviewpoc.exception.ResourceNotFoundException;
 import com.iqb.interviewpoc.repository.CourseRepository;
+import com.iqb.interviewpoc.repository.ExamResultRepository;
+import com.iqb.interviewpoc.store.SearchResultCache;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import java.util.Arrays;
+
 @Service
 public class CourseService {
 
     private final CourseRepository repository;
+    private final ExamResultRepository examResultRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RequestCoalescer coalescer;
+    private final FullTextSearch fullTextSearch;
+    private final SearchResultCache searchCache;
+    private final GroupCommitWriter writer;
 
-    public CourseService(CourseRepository repository) {
+    public CourseService(CourseRepository repository,
+                         ExamResultRepository examResultRepository,
+                         ApplicationEventPublisher eventPublisher,
+                         RequestCoalescer coalescer,
+                         FullTextSearch fullTextSearch,
+                         SearchResultCache searchCache,
+                         GroupCommitWriter writer) {
         this.repository = repository;
+        this.examResultRepository = examResultRepository;
+        this.eventPublisher = eventPublisher;
+        this.coalescer = coalescer;
+        this.fullTextSearch = fullTextSearch;
+        this.searchCache = searchCache;
+        this.writer = writer;
+    }
+
+    public Slice<Course> getAll(String search, Pageable pageable, CountMode count) {
+        return coalescer.execute("courses", Arrays.asList(search, pageable, count), () -> loadAll(search, pageable, count));
     }
 
-    public Page<Course> getAll(String search, Pageable pageable) {
+    private Slice<Course> loadAll(String search, Pageable pageable, CountMode count) {
+        if (search != null && !search.isBlank() && fullTextSearch.enabled()) {
+            String query = FullTextSearch.matchExpression(search);
+            Pageable byRank = FullTextSearch.byRank(pageable);
+            return query == null ? count.of(Page.empty(pageable)) : count.fetch(
+                    () -> FullTextSearch.inIdOrder(repository.matchIds(query, byRank), repository::findAllById, Course::getId),
+                    () -> FullTextSearch.inIdOrder(repository.matchIdSlice(query, byRank), repository::findAllById, Course::getId),
+                    () -> repository.countMatches(query));
+        }
         if (search != null && !search.isBlank()) {
-            return repository.search(search.trim(), pageable);
+            String term = search.trim();
+            Slice<Long> cached = searchCache.page(SearchResultCache.Entity.COURSE, term, pageable, count != CountMode.NONE,
+                    limit -> repository.searchIds(term, PageRequest.of(0, limit, pageable.getSort())));
+            return cached != null
+                    ? count.of(FullTextSearch.inIdOrder(cached, repository::findAllById, Course::getId))
+                    : count.fetch(() -> repository.search(term, pageable), () -> repository.searchSlice(term, pageable),
+                            () -> CountMode.extrapolate(repository.countSearchInSample(term, CountMode.SAMPLE_ROWS), totalCourses()));
         }
-        return repository.findAll(pageable);
+        return count.fetch(() -> repository.findAll(pageable), () -> repository.findSliceBy(pageable), this::totalCourses);
+    }
+
+    private long totalCourses() {
+        return examResultRepository.findDashboardRollup().getCourseCount();
     }
 
     public Course getById(Long id) {
@@ -29,21 +78,30 @@ public class CourseService {
     }
 
     public Course create(Course course) {
-        course.setId(null);
-        return repository.save(course);
+        return writer.execute(() -> {
+            course.setId(null);
+            return repository.save(course);
+        });
     }
 
     public Course update(Long id, Course course) {
-        Course existing = repository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Course not found"));
-        existing.setName(course.getName());
-        return repository.save(existing);
+        return writer.execute(() -> {
+            Course existing = repository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Course not found"));
+            existing.setName(course.getName());
+            return repository.save(existing);
+        });
     }
 
     public void delete(Long id) {
-        if (!repository.existsById(id)) {
-            throw new ResourceNotFoundException("Course not found");
-        }
-        repository.deleteById(id);
+        writer.run(() -> {
+            if (!repository.existsById(id)) {
+                throw new ResourceNotFoundException("Course not found");
+            }
+            // exam results go with the course via ON DELETE CASCADE, which JPA never sees
+            examResultRepository.findByCourseId(id)
+                    .forEach(er -> eventPublisher.publishEvent(ExamResultChangedEvent.of(ChangeType.DELETED, er)));
+            repository.deleteById(id);
+        });
     }
 }
@@ -2,10 +2,13 @@ package com.iqb.interviewpoc.service;
 
 import com.iqb.interviewpoc.dto.DashboardStatsDto;
 import com.iqb.interviewpoc.dto.DashboardStatsDto.*;
-import com.iqb.interviewpoc.repository.CourseRepository;
+import com.iqb.interviewpoc.event.DashboardRollupRebuiltEvent;
+import com.iqb.interviewpoc.repository.DashboardRollupProjection;
 import com.iqb.interviewpoc.repository.ExamResultRepository;
-import com.iqb.interviewpoc.repository.ScoreDistributionProjection;
-import com.iqb.interviewpoc.repository.StudentRepository;
+import com.iqb.interviewpoc.repository.StudentSummaryRepository;
+import com.iqb.interviewpoc.store.DataVersions;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -13,61 +16,74 @@ import java.util.List;
 @Service
 public class DashboardService {
 
-    private final StudentRepository studentRepository;
-    private final CourseRepository courseRepository;
     private final ExamResultRepository examResultRepository;
+    private final StudentSummaryRepository studentSummaryRepository;
+    private final LeaderboardService leaderboardService;
+    private final RecentResultService recentResultService;
+    private final DataVersions dataVersions;
+    private final RequestCoalescer coalescer;
+    private final GroupCommitWriter writer;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public DashboardService(StudentRepository studentRepository,
-                            CourseRepository courseRepository,
-                            ExamResultRepository examResultRepository) {
-        this.studentRepository = studentRepository;
-        this.courseRepository = courseRepository;
+    public DashboardService(ExamResultRepository examResultRepository,
+                            StudentSummaryRepository studentSummaryRepository,
+                            LeaderboardService leaderboardService,
+                            RecentResultService recentResultService,
+                            DataVersions dataVersions,
+                            RequestCoalescer coalescer,
+                            GroupCommitWriter writer,
+                            ApplicationEventPublisher eventPublisher) {
         this.examResultRepository = examResultRepository;
+        this.studentSummaryRepository = studentSummaryRepository;
+        this.leaderboardService = leaderboardService;
+        this.recentResultService = recentResultService;
+        this.dataVersions = dataVersions;
+        this.coalescer = coalescer;
+        this.writer = writer;
+        this.eventPublisher = eventPublisher;
     }
 
     public DashboardStatsDto getStats() {
-        long totalStudents = studentRepository.count();
-        long totalCourses = courseRepository.count();
-        long totalExamResults = examResultRepository.count();
-
-        Double avgScore = examResultRepository.averageScore();
-        double averageScore = avgScore != null ? Math.round(avgScore * 100.0) / 100.0 : 0.0;
+        return coalescer.execute("dashboard-stats", "all", this::loadStats);
+    }
 
-        long completedPairs = examResultRepository.countCompletedPairs();
-        long inProgressPairs = examResultRepository.countInProgressPairs();
+    // Uncoalesced; the stream flush must see every committed write it was notified about.
+    DashboardStatsDto loadStats() {
+        DashboardRollupProjection rollup = examResultRepository.findDashboardRollup();
 
-        List<TopStudentDto> topStudents = examResultRepository.findTopStudentsByAvgScore()
-                .stream()
-                .map(row -> new TopStudentDto(
-                        row.getId(),
-                        row.getFullName(),
-                        Math.round(row.getAvgScore() * 100.0) / 100.0
-                ))
-                .toList();
+        long totalExamResults = rollup.getExamResultCount();
+        double averageScore = totalExamResults > 0
+                ? Math.round(rollup.getScoreSum() * 100.0 / totalExamResults) / 100.0
+                : 0.0;
 
-        List<RecentResultDto> recentResults = examResultRepository.findRecentResults()
+        List<TopStudentDto> topStudents = leaderboardService.getLeaderboard(null, PageRequest.of(0, 5))
                 .stream()
-                .map(row -> new RecentResultDto(
-                        row.getId(),
-                        row.getFullName(),
-                        row.getName(),
-                        row.getScore(),
-                        row.getCreatedAt()
-                ))
+                .map(entry -> new TopStudentDto(entry.studentId(), entry.fullName(), entry.averageScore()))
                 .toList();
 
-        ScoreDistributionProjection dist = examResultRepository.findScoreDistribution();
-        int r0 = dist.getRange0to20() != null ? dist.getRange0to20() : 0;
-        int r1 = dist.getRange21to40() != null ? dist.getRange21to40() : 0;
-        int r2 = dist.getRange41to60() != null ? dist.getRange41to60() : 0;
-        int r3 = dist.getRange61to80() != null ? dist.getRange61to80() : 0;
-        int r4 = dist.getRange81to100() != null ? dist.getRange81to100() : 0;
+        List<RecentResultDto> recentResults = recentResultService.getFeed(null, 5).content();
 
         return new DashboardStatsDto(
-                totalStudents, totalCourses, totalExamResults,
-                averageScore, completedPairs, inProgressPairs,
+                rollup.getStudentCount(), rollup.getCourseCount(), totalExamResults,
+                averageScore, rollup.getCompletedPairs(), rollup.getInProgressPairs(),
                 topStudents, recentResults,
-                new ScoreDistributionDto(r0, r1, r2, r3, r4)
+                new ScoreDistributionDto(
+                        rollup.getRange0to20(), rollup.getRange21to40(), rollup.getRange41to60(),
+                        rollup.getRange61to80(), rollup.getRange81to100())
         );
     }
+
+    // The event lets the SSE streams pick up the rebuilt rollups; calling them directly would be a bean cycle.
+    public DashboardStatsDto rebuildRollup() {
+        writer.run(() -> {
+            examResultRepository.rebuildDashboardRollup();
+            examResultRepository.clearScoreTrend();
+            examResultRepository.fillScoreTrend();
+            studentSummaryRepository.clearAll();
+            studentSummaryRepository.fillAll();
+            dataVersions.invalidate();
+            eventPublisher.publishEvent(new DashboardRollupRebuiltEvent());
+        });
+        return loadStats();
+    }
 }
@@ -0,0 +1,180 @@
+package com.iqb.interviewpoc.service;
+
+import com.iqb.interviewpoc.dto.DashboardDeltaDto;
+import com.iqb.interviewpoc.dto.DashboardStatsDto;
+import com.iqb.interviewpoc.dto.DashboardStatsDto.ScoreDistributionDto;
+import com.iqb.interviewpoc.event.CourseChangedEvent;
+import com.iqb.interviewpoc.event.DashboardRollupRebuiltEvent;
+import com.iqb.interviewpoc.event.ExamResultChangedEvent;
+import com.iqb.interviewpoc.event.StudentBatchChangedEvent;
+import com.iqb.interviewpoc.event.StudentChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes dashboard changes to SSE subscribers. Committed writes only mark the
+ * stats dirty; a single scheduled flush recomputes them at most once per
+ * interval and fans the resulting delta out to every open stream.
+ */
+@Service
+public class DashboardStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardStreamService.class);
+
+    private final DashboardService dashboardService;
+    private final long emitterTimeout;
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean dirty = new AtomicBoolean(true);
+    private final Object flushLock = new Object();
+    private volatile DashboardStatsDto current;
+
+    public DashboardStreamService(DashboardService dashboardService,
+                                  @Value("${app.dashboard.stream.timeout-ms:1800000}") long emitterTimeout) {
+        this.dashboardService = dashboardService;
+        this.emitterTimeout = emitterTimeout;
+    }
+
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(emitterTimeout));
+    }
+
+    // The stats event is sent before the emitter is returned to MVC, so it is only buffered and never blocks the lock.
+    SseEmitter subscribe(SseEmitter emitter) {
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> emitters.remove(emitter));
+        synchronized (this) {
+            try {
+                emitter.send(SseEmitter.event().name("stats").data(snapshot()));
+                emitters.add(emitter);
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+        }
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return emitters.size();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onExamResultChanged(ExamResultChangedEvent event) {
+        dirty.set(true);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event) {
+        dirty.set(true);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onStudentsChanged(StudentBatchChangedEvent event) {
+        dirty.set(true);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        dirty.set(true);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onRollupRebuilt(DashboardRollupRebuiltEvent event) {
+        dirty.set(true);
+    }
+
+    // Subscribers registered after the copy already got the new stats from the snapshot, so they skip this delta.
+    // Sends happen outside the state lock, so a slow client holds up only the flush, not subscribe();
+    // flushes themselves stay serialized to keep every stream's deltas in order.
+    @Scheduled(fixedDelayString = "${app.dashboard.stream.interval-ms:1000}")
+    public void flush() {
+        synchronized (flushLock) {
+            DashboardDeltaDto delta;
+            List<SseEmitter> targets;
+            synchronized (this) {
+                if (emitters.isEmpty() || !dirty.compareAndSet(true, false)) {
+                    return;
+                }
+                DashboardStatsDto previous = current;
+                DashboardStatsDto next = dashboardService.loadStats();
+                current = next;
+                delta = diff(previous, next);
+                if (delta.isEmpty()) {
+                    return;
+                }
+                targets = List.copyOf(emitters);
+            }
+            for (SseEmitter emitter : targets) {
+                try {
+                    emitter.send(SseEmitter.event().name("delta").data(delta));
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Dropping dashboard subscriber: {}", e.getMessage());
+                    emitters.remove(emitter);
+                }
+            }
+        }
+    }
+
+    // While nobody is subscribed the flush is skipped, so a dirty snapshot may be arbitrarily old.
+    private DashboardStatsDto snapshot() {
+        if (current == null || dirty.get() && emitters.isEmpty()) {
+            dirty.set(false);
+            current = dashboardService.loadStats();
+        }
+        return current;
+    }
+
+    static DashboardDeltaDto diff(DashboardStatsDto previous, DashboardStatsDto next) {
+        if (previous == null) {
+            return new DashboardDeltaDto(counters(null, next), distribution(null, next.scoreDistribution()),
+                    next.topStudents(), next.recentResults());
+        }
+        return new DashboardDeltaDto(
+                counters(previous, next),
+                distribution(previous.scoreDistribution(), next.scoreDistribution()),
+                previous.topStudents().equals(next.topStudents()) ? null : next.topStudents(),
+                previous.recentResults().equals(next.recentResults()) ? null : next.recentResults()
+        );
+    }
+
+    private static Map<String, Number> counters(DashboardStatsDto previous, DashboardStatsDto next) {
+        Map<String, Number> changed = new LinkedHashMap<>();
+        putIfChanged(changed, "totalStudents", previous == null ? null : previous.totalStudents(), next.totalStudents());
+        putIfChanged(changed, "totalCourses", previous == null ? null : previous.totalCourses(), next.totalCourses());
+        putIfChanged(changed, "totalExamResults", previous == null ? null : previous.totalExamResults(), next.totalExamResults());
+        putIfChanged(changed, "averageScore", previous == null ? null : previous.averageScore(), next.averageScore());
+        putIfChanged(changed, "completedPairs", previous == null ? null : previous.completedPairs(), next.completedPairs());
+        putIfChanged(changed, "inProgressPairs", previous == null ? null : previous.inProgressPairs(), next.inProgressPairs());
+        return changed.isEmpty() ? null : changed;
+    }
+
+    private static Map<String, Integer> distribution(ScoreDistributionDto previous, ScoreDistributionDto next) {
+        Map<String, Integer> changed = new LinkedHashMap<>();
+        putIfChanged(changed, "range0to20", previous == null ? null : previous.range0to20(), next.range0to20());
+        putIfChanged(changed, "range21to40", previous == null ? null : previous.range21to40(), next.range21to40());
+        putIfChanged(changed, "range41to60", previous == null ? null : previous.range41to60(), next.range41to60());
+        putIfChanged(changed, "range61to80", previous == null ? null : previous.range61to80(), next.range61to80());
+        putIfChanged(changed, "range81to100", previous == null ? null : previous.range81to100(), next.range81to100());
+        return changed.isEmpty() ? null : changed;
+    }
+
+    private static <T> void putIfChanged(Map<String, ? super T> changed, String key, T previous, T next) {
+        if (!Objects.equals(previous, next)) {
+            changed.put(key, next);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.iqb.interviewpoc.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iqb.interviewpoc.dto.ImportReportDto;
+import com.iqb.interviewpoc.dto.ImportReportDto.RowErrorDto;
+import com.iqb.interviewpoc.event.ChangeType;
+import com.iqb.interviewpoc.event.ExamResultChangedEvent;
+import com.iqb.interviewpoc.exception.BusinessRuleException;
+import com.iqb.interviewpoc.exception.DataIntegrityMessages;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming bulk import of exam results. The body is read line by line;
+ * student numbers and course names resolve through maps loaded once per
+ * import, and valid rows are written in chunks, each in its own transaction
+ * as one multi-row insert that returns the new ids. A chunk the database
+ * rejects is retried one row per transaction, so only the failing lines are
+ * reported. Memory is bounded by the chunk size, the lookup maps and the
+ * capped error list, not by the size of the upload.
+ */
+@Service
+public class ExamResultImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final Logger log = LoggerFactory.getLogger(ExamResultImportService.class);
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_SCORES_PER_COURSE = 3;
+    private static final List<String> COLUMNS = List.of("studentnumber", "coursename", "score");
+    private static final String INSERT =
+            "INSERT INTO exam_result (student_id, course_id, score, created_at, updated_at) " +
+            "SELECT value ->> 0, value ->> 1, value ->> 2, ?, ? FROM json_each(?) " +
+            "RETURNING id, student_id, course_id, score";
+    private static final String COUNT_PAIRS =
+            "SELECT student_id, course_id, COUNT(*) FROM exam_result WHERE student_id IN (:studentIds) GROUP BY student_id, course_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate chunkTransaction;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    private record Fields(String studentNumber, String courseName, String score) {}
+
+    private record Row(long line, long studentId, long courseId, int score) {}
+
+    private record Pair(long studentId, long courseId) {}
+
+    public ExamResultImportService(JdbcTemplate jdbcTemplate,
+                                   NamedParameterJdbcTemplate namedJdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   ApplicationEventPublisher eventPublisher,
+                                   ObjectMapper objectMapper,
+                                   @Value("${app.import.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    public ImportReportDto importResults(InputStream body, Format format) throws IOException {
+        Map<Integer, Long> students = new HashMap<>();
+        jdbcTemplate.query("SELECT id, number FROM student", rs -> { students.put(rs.getInt(2), rs.getLong(1)); });
+        Map<String, Long> courses = new HashMap<>();
+        // names are not unique; the oldest course wins
+        jdbcTemplate.query("SELECT id, name FROM course ORDER BY id",
+                rs -> { courses.putIfAbsent(normalize(rs.getString(2)), rs.getLong(1)); });
+
+        Report report = new Report();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        int[] columns = null;
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) continue;
+            if (format == Format.CSV && columns == null) {
+                columns = header(line);
+                continue;
+            }
+            try {
+                Fields fields = format == Format.CSV ? csvFields(line, columns) : jsonFields(line);
+                chunk.add(resolve(lineNumber, fields, students, courses));
+            } catch (IllegalArgumentException e) {
+                report.reject(lineNumber, e.getMessage());
+            }
+            if (chunk.size() == chunkSize) {
+                write(chunk, report);
+                chunk.clear();
+            }
+        }
+        write(chunk, report);
+        return report.toDto();
+    }
+
+    private void write(List<Row> chunk, Report report) {
+        if (chunk.isEmpty()) return;
+        try {
+            report.add(chunkTransaction.execute(status -> insert(chunk)));
+        } catch (DataAccessException e) {
+            // a row the checks above let through failed in the database; retry alone so the rest still lands
+            for (Row row : chunk) {
+                try {
+                    report.add(chunkTransaction.execute(status -> insert(List.of(row))));
+                } catch (DataAccessException rowFailure) {
+                    log.warn("Import line {} could not be saved", row.line(), rowFailure);
+                    report.reject(row.line(), "Could not be saved: " + DataIntegrityMessages.describe(rowFailure));
+                }
+            }
+        }
+    }
+
+    // The max-3 rule is checked against counts read in the rows' own transaction, so earlier chunks count.
+    // The outcome is only merged into the import's report once the transaction has committed.
+    private Report insert(List<Row> rows) {
+        Report outcome = new Report();
+        Map<Pair, Integer> counts = new HashMap<>();
+        Set<Long> studentIds = rows.stream().map(Row::studentId).collect(Collectors.toSet());
+        namedJdbcTemplate.query(COUNT_PAIRS, Map.of("studentIds", studentIds),
+                rs -> { counts.put(new Pair(rs.getLong(1), rs.getLong(2)), rs.getInt(3)); });
+
+        StringBuilder accepted = new StringBuilder("[");
+        for (Row row : rows) {
+            Pair pair = new Pair(row.studentId(), row.courseId());
+            int count = counts.getOrDefault(pair, 0);
+            if (count >= MAX_SCORES_PER_COURSE) {
+                outcome.reject(row.line(), "Maximum 3 scores per student-course pair");
+            } else {
+                counts.put(pair, count + 1);
+                if (accepted.length() > 1) accepted.append(',');
+                accepted.append('[').append(row.studentId()).append(',').append(row.courseId())
+                        .append(',').append(row.score()).append(']');
+            }
+        }
+        if (accepted.length() == 1) return outcome;
+
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        jdbcTemplate.query(INSERT, rs -> {
+            // JDBC writes skip the entity listener, so the change events are published here
+            eventPublisher.publishEvent(new ExamResultChangedEvent(
+                    ChangeType.CREATED, rs.getLong(1), rs.getLong(2), rs.getLong(3), null, rs.getInt(4), now));
+            outcome.imported++;
+        }, timestamp, timestamp, accepted.append(']').toString());
+        return outcome;
+    }
+
+    private static Row resolve(long line, Fields fields, Map<Integer, Long> students, Map<String, Long> courses) {
+        Integer number = integer(fields.studentNumber(), "studentNumber");
+        Long studentId = students.get(number);
+        if (studentId == null) {
+            throw new IllegalArgumentException("Unknown student number " + number);
+        }
+        if (fields.courseName() == null || fields.courseName().isBlank()) {
+            throw new IllegalArgumentException("courseName is required");
+        }
+        Long courseId = courses.get(normalize(fields.courseName()));
+        if (courseId == null) {
+            throw new IllegalArgumentException("Unknown course '" + fields.courseName().trim() + "'");
+        }
+        int score = integer(fields.score(), "score");
+        if (score < 0 || score > 100) {
+            throw new IllegalArgumentException("score must be between 0 and 100");
+        }
+        return new Row(line, studentId, courseId, score);
+    }
+
+    private static int integer(String value, String name) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a whole number");
+        }
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Positions of studentNumber, courseName and score in the CSV header.
+    private static int[] header(String line) {
+        List<String> names = csvValues(line).stream().map(name -> name.trim().toLowerCase(Locale.ROOT)).toList();
+        int[] columns = new int[COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = names.indexOf(COLUMNS.get(i));
+            if (columns[i] < 0) {
+                throw new BusinessRuleException("CSV header must name the columns studentNumber, courseName and score");
+            }
+        }
+        return columns;
+    }
+
+    private static Fields csvFields(String line, int[] columns) {
+        List<String> values = csvValues(line);
+        String[] picked = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            picked[i] = columns[i] < values.size() ? values.get(columns[i]) : null;
+        }
+        return new Fields(picked[0], picked[1], picked[2]);
+    }
+
+    // One CSV record per line; double quotes wrap values containing commas, "" is a literal quote.
+    private static List<String> csvValues(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted value");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private Fields jsonFields(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON");
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        return new Fields(text(node, "studentNumber"), text(node, "courseName"), text(node, "score"));
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || !value.isValueNode() || value.isNull() ? null : value.asText();
+    }
+
+    private static final class Report {
+        private long imported;
+        private long rejected;
+        private final List<RowErrorDto> errors = new ArrayList<>();
+
+        void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowErrorDto(line, message));
+            }
+        }
+
+        void add(Report other) {
+            imported += other.imported;
+            rejected += other.rejected;
+            other.errors.stream().limit(MAX_REPORTED_ERRORS - errors.size()).forEach(errors::add);
+        }
+
+        ImportReportDto toDto() {
+            return new ImportReportDto(imported, rejected, errors, rejected > errors.size());
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.iqb.interviewpoc.service;
 
+import com.iqb.interviewpoc.dto.CursorPageDto;
 import com.iqb.interviewpoc.dto.ExamResultDto;
+import com.iqb.interviewpoc.dto.ExamResultFilter;
+import com.iqb.interviewpoc.dto.FieldSet;
 import com.iqb.interviewpoc.dto.SaveScoresRequest;
 import com.iqb.interviewpoc.dto.StudentScoresDto;
 import com.iqb.interviewpoc.dto.StudentScoresDto.CourseScoresDto;
@@ -8,62 +11,201 @@ import com.iqb.interviewpoc.dto.StudentScoresDto.ScoreEntryDto;
 import com.iqb.interviewpoc.entity.Course;
 import com.iqb.interviewpoc.entity.ExamResult;
 import com.iqb.interviewpoc.entity.Student;
+import com.iqb.interviewpoc.event.ChangeType;
+import com.iqb.interviewpoc.event.ExamResultChangedEvent;
 import com.iqb.interviewpoc.exception.BusinessRuleException;
 import com.iqb.interviewpoc.exception.ResourceNotFoundException;
 import com.iqb.interviewpoc.repository.CourseRepository;
 import com.iqb.interviewpoc.repository.ExamResultRepository;
+import com.iqb.interviewpoc.repository.ExamResultSpecifications;
 import com.iqb.interviewpoc.repository.StudentRepository;
+import com.iqb.interviewpoc.store.SearchResultCache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
 public class ExamResultService {
 
+    private static final Map<String, Class<?>> KEYSET_COLUMNS = Map.of("id", Long.class, "score", Integer.class);
+    private static final Pattern SCORE_TERM = Pattern.compile("\\d{1,3}");
+    private static final int MAX_SCORES_PER_COURSE = 3;
+    private static final ExamResultFilter NO_FILTER = new ExamResultFilter(null, null, null, null, null, null, null);
+
     private final ExamResultRepository examResultRepository;
     private final StudentRepository studentRepository;
     private final CourseRepository courseRepository;
+    private final RequestCoalescer coalescer;
+    private final FullTextSearch fullTextSearch;
+    private final KeysetCursors cursors;
+    private final SearchResultCache searchCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final GroupCommitWriter writer;
 
     public ExamResultService(ExamResultRepository examResultRepository,
                              StudentRepository studentRepository,
-                             CourseRepository courseRepository) {
+                             CourseRepository courseRepository,
+                             RequestCoalescer coalescer,
+                             FullTextSearch fullTextSearch,
+                             KeysetCursors cursors,
+                             SearchResultCache searchCache,
+                             ApplicationEventPublisher eventPublisher,
+                             GroupCommitWriter writer) {
         this.examResultRepository = examResultRepository;
         this.studentRepository = studentRepository;
         this.courseRepository = courseRepository;
+        this.coalescer = coalescer;
+        this.fullTextSearch = fullTextSearch;
+        this.cursors = cursors;
+        this.searchCache = searchCache;
+        this.eventPublisher = eventPublisher;
+        this.writer = writer;
+    }
+
+    public Slice<ExamResultDto> getAll(String search, ExamResultFilter filter, Pageable pageable, CountMode count, FieldSet fields) {
+        validate(filter);
+        return coalescer.execute("exam-results", Arrays.asList(search, filter, pageable, count, fields),
+                () -> loadAll(search, filter, pageable, count, fields));
     }
 
-    public Page<ExamResultDto> getAll(String search, Pageable pageable) {
-        Page<ExamResult> results;
-        if (search != null && !search.isBlank()) {
-            results = examResultRepository.searchWithDetails(search.trim(), pageable);
+    private Slice<ExamResultDto> loadAll(String search, ExamResultFilter filter, Pageable pageable, CountMode count, FieldSet fields) {
+        Slice<ExamResult> results;
+        String[] joins = joins(fields);
+        // Only ids are read from rows whose student and course are not fetched; the proxies answer getId().
+        Function<List<Long>, List<ExamResult>> loader = joins.length == 0
+                ? examResultRepository::findAllById : examResultRepository::findAllWithDetailsByIdIn;
+        if (!filter.isEmpty()) {
+            results = loadFiltered(search, filter, pageable, count, joins);
+        } else if (search != null && !search.isBlank() && fullTextSearch.enabled()) {
+            String query = FullTextSearch.matchExpression(search);
+            Pageable byRank = FullTextSearch.byRank(pageable);
+            results = query == null ? count.of(Page.empty(pageable)) : count.fetch(
+                    () -> FullTextSearch.inIdOrder(examResultRepository.matchIds(query, byRank),
+                            loader, ExamResult::getId),
+                    () -> FullTextSearch.inIdOrder(examResultRepository.matchIdSlice(query, byRank),
+                            loader, ExamResult::getId),
+                    () -> examResultRepository.countMatches(query));
+        } else if (search != null && !search.isBlank()) {
+            String term = search.trim();
+            Integer score = scoreOf(term);
+            Slice<Long> cached = searchCache.page(SearchResultCache.Entity.EXAM_RESULT, term, pageable, count != CountMode.NONE,
+                    limit -> examResultRepository.searchIds(term, score, PageRequest.of(0, limit, pageable.getSort())),
+                    ids -> examResultRepository.searchIdsIn(term, score, ids));
+            results = cached != null
+                    ? count.of(FullTextSearch.inIdOrder(cached, loader, ExamResult::getId))
+                    : count.fetch(() -> examResultRepository.searchWithDetails(term, score, pageable),
+                            () -> examResultRepository.searchSliceWithDetails(term, score, pageable),
+                            () -> CountMode.extrapolate(examResultRepository.countSearchInSample(term, score, CountMode.SAMPLE_ROWS), totalExamResults()));
+        } else if (joins.length < 2) {
+            Specification<ExamResult> all = ExamResultSpecifications.matching(NO_FILTER, null, null);
+            results = count.fetch(() -> examResultRepository.findBy(all, q -> q.project(joins).page(pageable)),
+                    () -> examResultRepository.findBy(all, q -> q.project(joins).slice(pageable)), this::totalExamResults);
         } else {
-            results = examResultRepository.findAllWithDetails(pageable);
+            results = count.fetch(() -> examResultRepository.findAllWithDetails(pageable),
+                    () -> examResultRepository.findSliceWithDetails(pageable), this::totalExamResults);
+        }
+        return results.map(er -> toDto(er, fields));
+    }
+
+    // Associations to fetch with the rows: only those behind a requested field.
+    private static String[] joins(FieldSet fields) {
+        List<String> joins = new ArrayList<>(2);
+        if (fields.includesAny("studentName", "studentNumber")) joins.add("student");
+        if (fields.includes("courseName")) joins.add("course");
+        return joins.toArray(String[]::new);
+    }
+
+    // Filters run as criteria queries so only the set ones reach the SQL; search then matches names with LIKE
+    // even in fts mode. The count uses the same indexes as the rows, so estimate reports it exactly.
+    private Slice<ExamResult> loadFiltered(String search, ExamResultFilter filter, Pageable pageable, CountMode count, String[] joins) {
+        String term = search == null || search.isBlank() ? null : search.trim();
+        Specification<ExamResult> spec = ExamResultSpecifications.matching(filter, term, scoreOf(term));
+        Pageable ordered = pageable.isPaged() && pageable.getSort().isUnsorted()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(Sort.Direction.DESC, "id"))
+                : pageable;
+        if (count == CountMode.NONE) {
+            return examResultRepository.findBy(spec, q -> q.project(joins).slice(ordered));
+        }
+        return count.of(examResultRepository.findBy(spec, q -> q.project(joins).page(ordered)));
+    }
+
+    private static void validate(ExamResultFilter filter) {
+        if (filter.minScore() != null && filter.maxScore() != null && filter.minScore() > filter.maxScore()) {
+            throw new BusinessRuleException("'minScore' must not be greater than 'maxScore'");
+        }
+        if (filter.createdFrom() != null && filter.createdTo() != null && filter.createdFrom().isAfter(filter.createdTo())) {
+            throw new BusinessRuleException("'createdFrom' must not be after 'createdTo'");
         }
-        return results.map(er -> new ExamResultDto(
+    }
+
+    // A number-only term matches that exact score rather than any score containing its digits.
+    private static Integer scoreOf(String term) {
+        return term != null && SCORE_TERM.matcher(term).matches() ? Integer.valueOf(term) : null;
+    }
+
+    private long totalExamResults() {
+        return examResultRepository.findDashboardRollup().getExamResultCount();
+    }
+
+    public CursorPageDto<ExamResultDto> getAfter(String after, int size, Sort sort, FieldSet fields) {
+        return coalescer.execute("exam-results", Arrays.asList("after", after, size, sort, fields), () -> loadAfter(after, size, sort, fields));
+    }
+
+    private CursorPageDto<ExamResultDto> loadAfter(String after, int size, Sort sort, FieldSet fields) {
+        Sort order = cursors.sort(sort, Sort.by(Sort.Direction.DESC, "id"), KEYSET_COLUMNS);
+        ScrollPosition position = cursors.position(after, order, KEYSET_COLUMNS, size);
+        String[] joins = joins(fields);
+        Window<ExamResult> window = joins.length == 2
+                ? examResultRepository.findAllBy(position, order, Limit.of(size))
+                : examResultRepository.findBy(ExamResultSpecifications.matching(NO_FILTER, null, null),
+                        q -> q.project(joins).sortBy(order).limit(size).scroll(position));
+        return cursors.page(window, window.getContent().stream().map(er -> toDto(er, fields)).toList());
+    }
+
+    // Leaves out the fields that were not requested, so an unfetched student or course is never loaded.
+    private static ExamResultDto toDto(ExamResult er, FieldSet fields) {
+        return new ExamResultDto(
                 er.getId(),
                 er.getStudent().getId(),
-                er.getStudent().getFullName(),
-                er.getStudent().getNumber(),
+                fields.includes("studentName") ? er.getStudent().getFullName() : null,
+                fields.includes("studentNumber") ? er.getStudent().getNumber() : null,
                 er.getCourse().getId(),
-                er.getCourse().getName(),
+                fields.includes("courseName") ? er.getCourse().getName() : null,
                 er.getScore()
-        ));
+        );
     }
 
     public StudentScoresDto getStudentScores(Long studentId) {
+        return coalescer.execute("student-scores", studentId, () -> loadStudentScores(studentId));
+    }
+
+    private StudentScoresDto loadStudentScores(Long studentId) {
         if (!studentRepository.existsById(studentId)) {
             throw new ResourceNotFoundException("Student not found");
         }
+        return toScoresDto(examResultRepository.findWithCourseByStudentIdOrderByCourseIdAscIdAsc(studentId));
+    }
 
-        List<ExamResult> results = examResultRepository.findByStudentIdOrderByCourseIdAscIdAsc(studentId);
-
+    // Rows in course id, then id order; every course is padded to 3 score slots.
+    private static StudentScoresDto toScoresDto(List<ExamResult> results) {
         Map<Long, List<ExamResult>> byCourse = results.stream()
                 .collect(Collectors.groupingBy(er -> er.getCourse().getId(), LinkedHashMap::new, Collectors.toList()));
 
@@ -74,7 +216,7 @@ public class ExamResultService {
                     List<ScoreEntryDto> scores = courseResults.stream()
                             .map(er -> new ScoreEntryDto(er.getId(), er.getScore()))
                             .collect(Collectors.toList());
-                    while (scores.size() < 3) {
+                    while (scores.size() < MAX_SCORES_PER_COURSE) {
                         scores.add(new ScoreEntryDto(null, null));
                     }
                     return new CourseScoresDto(course.getId(), course.getName(), scores);
@@ -84,42 +226,65 @@ public class ExamResultService {
         return new StudentScoresDto(courses);
     }
 
-    @Transactional
+    /**
+     * Applies a grade sheet as a diff against the student's current rows: the
+     * rows and the referenced courses are read once, only rows whose score
+     * changes are written, and the response is built from the resulting state.
+     * Ids that are not this student's rows and unknown courses are ignored.
+     */
     public StudentScoresDto saveStudentScores(Long studentId, SaveScoresRequest request) {
+        return writer.execute(() -> applyScores(studentId, request));
+    }
+
+    private StudentScoresDto applyScores(Long studentId, SaveScoresRequest request) {
         Student student = studentRepository.findById(studentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Student not found"));
+        Map<Long, ExamResult> existing = examResultRepository.findWithCourseByStudentIdOrderByCourseIdAscIdAsc(studentId).stream()
+                .collect(Collectors.toMap(ExamResult::getId, Function.identity(), (a, b) -> a, LinkedHashMap::new));
+        Map<Long, Course> courses = courseRepository.findAllById(
+                        request.courses().stream().map(SaveScoresRequest.CourseScoreEntry::courseId).distinct().toList()).stream()
+                .collect(Collectors.toMap(Course::getId, Function.identity()));
 
+        List<ExamResult> deleted = new ArrayList<>();
+        List<ExamResult> created = new ArrayList<>();
         for (SaveScoresRequest.CourseScoreEntry entry : request.courses()) {
-            Optional<Course> courseOpt = courseRepository.findById(entry.courseId());
-            if (courseOpt.isEmpty()) continue;
-            Course course = courseOpt.get();
-
+            Course course = courses.get(entry.courseId());
+            if (course == null) continue;
             for (SaveScoresRequest.ScoreValue sv : entry.scores()) {
+                ExamResult current = sv.id() == null ? null : existing.get(sv.id());
                 if (sv.score() == null) {
-                    if (sv.id() != null) {
-                        examResultRepository.deleteById(sv.id());
-                    }
-                    continue;
-                }
-                if (sv.id() != null) {
-                    examResultRepository.findById(sv.id()).ifPresent(er -> {
-                        er.setScore(sv.score());
-                        examResultRepository.save(er);
-                    });
-                } else {
-                    long count = examResultRepository.countByStudentIdAndCourseId(studentId, entry.courseId());
-                    if (count >= 3) {
-                        throw new BusinessRuleException("Maximum 3 scores per student-course pair");
-                    }
+                    if (current != null && !deleted.contains(current)) deleted.add(current);
+                } else if (current != null) {
+                    // managed entity: flushed as an update only when the score differs
+                    current.setScore(sv.score());
+                } else if (sv.id() == null) {
                     ExamResult er = new ExamResult();
                     er.setStudent(student);
                     er.setCourse(course);
                     er.setScore(sv.score());
-                    examResultRepository.save(er);
+                    created.add(er);
                 }
             }
         }
 
-        return getStudentScores(studentId);
+        List<ExamResult> result = new ArrayList<>(existing.values());
+        result.removeAll(deleted);
+        result.addAll(created);
+        // checked on the final state for a clear message; the slot index still rejects a 4th row a concurrent writer adds
+        Map<Long, Long> perCourse = result.stream()
+                .collect(Collectors.groupingBy(er -> er.getCourse().getId(), Collectors.counting()));
+        if (perCourse.values().stream().anyMatch(n -> n > MAX_SCORES_PER_COURSE)) {
+            throw new BusinessRuleException("Maximum 3 scores per student-course pair");
+        }
+
+        if (!deleted.isEmpty()) {
+            // one DELETE for all rows; it bypasses the entity listener, so the events go out here
+            examResultRepository.deleteAllInBatch(deleted);
+            deleted.forEach(er -> eventPublisher.publishEvent(ExamResultChangedEvent.of(ChangeType.DELETED, er)));
+        }
+        examResultRepository.saveAll(created);
+
+        result.sort(Comparator.comparing((ExamResult er) -> er.getCourse().getId()).thenComparing(ExamResult::getId));
+        return toScoresDto(result);
     }
 }
@@ -0,0 +1,73 @@
+package com.iqb.interviewpoc.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Search mode switch ({@code app.search.mode}): {@code like} keeps the
+ * substring queries, {@code fts} answers list searches from the FTS5 tables
+ * with prefix matching, ordered by relevance.
+ */
+@Component
+public class FullTextSearch {
+
+    private final boolean enabled;
+
+    public FullTextSearch(@Value("${app.search.mode:like}") String mode) {
+        this.enabled = switch (mode.trim().toLowerCase(Locale.ROOT)) {
+            case "fts" -> true;
+            case "like" -> false;
+            default -> throw new IllegalStateException("app.search.mode must be 'like' or 'fts', got '" + mode + "'");
+        };
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    // Every word of the term must prefix-match some token; null when the term has no words.
+    public static String matchExpression(String term) {
+        String expression = Arrays.stream(term.split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .map(word -> "\"" + word + "\"*")
+                .collect(Collectors.joining(" "));
+        return expression.isEmpty() ? null : expression;
+    }
+
+    // MATCH queries order by rank themselves, so any requested sort is dropped.
+    public static Pageable byRank(Pageable pageable) {
+        return pageable.isPaged() ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()) : pageable;
+    }
+
+    // Loads the rows for a page of ids and puts them back in id order; rows deleted since the lookup are left out.
+    static <T> Page<T> inIdOrder(Page<? extends Number> ids, Function<List<Long>, List<T>> loader, Function<T, Long> idOf) {
+        return new PageImpl<>(load(ids, loader, idOf), ids.getPageable(), ids.getTotalElements());
+    }
+
+    // A page stays a page, so its total survives the load.
+    static <T> Slice<T> inIdOrder(Slice<? extends Number> ids, Function<List<Long>, List<T>> loader, Function<T, Long> idOf) {
+        if (ids instanceof Page<? extends Number> page) return inIdOrder(page, loader, idOf);
+        return new SliceImpl<>(load(ids, loader, idOf), ids.getPageable(), ids.hasNext());
+    }
+
+    private static <T> List<T> load(Slice<? extends Number> ids, Function<List<Long>, List<T>> loader, Function<T, Long> idOf) {
+        List<Long> keys = ids.getContent().stream().map(Number::longValue).toList();
+        Map<Long, T> byId = keys.isEmpty() ? Map.of()
+                : loader.apply(keys).stream().collect(Collectors.toMap(idOf, Function.identity()));
+        return keys.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+}
@@ -0,0 +1,200 @@
+package com.iqb.interviewpoc.service;
+
+import com.iqb.interviewpoc.exception.WriteTimeoutException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Single writer for the SQLite database. Write commands queue up and one
+ * dedicated thread drains them, running everything queued (up to
+ * {@code app.writer.max-batch}) in one transaction, so concurrent writers
+ * share a commit instead of contending for the database lock. If any command
+ * in a group fails, the group is rolled back and its commands are rerun one
+ * transaction each, so every caller gets the result or exception it would
+ * have had alone. Callers already inside a transaction, including commands
+ * calling back into a service, run inline. A caller waits at most
+ * {@code app.writer.timeout-ms}; a command given up on before the writer
+ * reaches it is skipped.
+ */
+@Component
+public class GroupCommitWriter {
+
+    private record Command<T>(Supplier<T> work, CompletableFuture<T> result) {
+        Outcome<T> perform() {
+            return new Outcome<>(this, result.isCancelled() ? null : work.get());
+        }
+    }
+
+    // A command result to publish once its transaction has committed.
+    private record Outcome<T>(Command<T> command, T value) {
+        void publish() {
+            command.result().complete(value);
+        }
+    }
+
+    private final TransactionTemplate transaction;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final long timeoutMs;
+    private final BlockingQueue<Command<?>> queue;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "db-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final DistributionSummary batchSize;
+    private final Timer groupCommits;
+    private final Timer singleCommits;
+    private final Counter fallbacks;
+    private final Counter timeouts;
+
+    public GroupCommitWriter(PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.writer.enabled:true}") boolean enabled,
+                             @Value("${app.writer.max-batch:64}") int maxBatch,
+                             @Value("${app.writer.queue-capacity:10000}") int queueCapacity,
+                             @Value("${app.writer.timeout-ms:30000}") long timeoutMs) {
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.maxBatch = maxBatch;
+        this.timeoutMs = timeoutMs;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSize = DistributionSummary.builder("app.writer.batch.size")
+                .description("Write commands committed per transaction")
+                .register(meterRegistry);
+        Gauge.builder("app.writer.queue.depth", queue, BlockingQueue::size)
+                .description("Write commands waiting for the writer")
+                .register(meterRegistry);
+        this.groupCommits = commitTimer(meterRegistry, "group");
+        this.singleCommits = commitTimer(meterRegistry, "single");
+        this.fallbacks = Counter.builder("app.writer.fallbacks")
+                .description("Groups rolled back and rerun one command per transaction")
+                .register(meterRegistry);
+        this.timeouts = Counter.builder("app.writer.timeouts")
+                .description("Callers that stopped waiting for their write")
+                .register(meterRegistry);
+        if (enabled) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private static Timer commitTimer(MeterRegistry meterRegistry, String mode) {
+        return Timer.builder("app.writer.commit")
+                .description("Time to run and commit one writer transaction")
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(Supplier<T> work) {
+        if (!enabled || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return transaction.execute(status -> work.get());
+        }
+        Command<T> command = new Command<>(work, new CompletableFuture<>());
+        try {
+            queue.put(command);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing a write", e);
+        }
+        return await(command.result());
+    }
+
+    public void run(Runnable work) {
+        execute(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        List<Command<?>> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        pending.forEach(command -> command.result().completeExceptionally(new IllegalStateException("Writer stopped")));
+    }
+
+    private void drain() {
+        List<Command<?>> batch = new ArrayList<>(maxBatch);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, maxBatch - 1);
+            batchSize.record(batch.size());
+            if (batch.size() == 1 || !commitGroup(batch)) {
+                batch.forEach(this::commitSingle);
+            }
+            batch.clear();
+        }
+    }
+
+    // Results are held back until the commit succeeds; false means the group was rolled back.
+    private boolean commitGroup(List<Command<?>> batch) {
+        List<Outcome<?>> outcomes = new ArrayList<>(batch.size());
+        try {
+            groupCommits.record(() -> transaction.executeWithoutResult(status -> {
+                for (Command<?> command : batch) {
+                    outcomes.add(command.perform());
+                }
+            }));
+        } catch (RuntimeException | Error e) {
+            fallbacks.increment();
+            return false;
+        }
+        outcomes.forEach(Outcome::publish);
+        return true;
+    }
+
+    private void commitSingle(Command<?> command) {
+        Outcome<?> outcome;
+        try {
+            outcome = singleCommits.record(() -> transaction.execute(status -> command.perform()));
+        } catch (RuntimeException | Error e) {
+            command.result().completeExceptionally(e);
+            return;
+        }
+        outcome.publish();
+    }
+
+    private <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(false);
+            timeouts.increment();
+            throw new WriteTimeoutException("The database is busy; the write may not have been applied, please retry");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a write", e);
+        } catch (ExecutionException e) {
+            // rethrow the command's exception unchanged so it maps to the same response
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.iqb.interviewpoc.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iqb.interviewpoc.dto.CursorPageDto;
+import com.iqb.interviewpoc.exception.BusinessRuleException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Opaque cursors for keyset (seek) paging. A cursor is the base64url JSON of
+ * the last row's sort-column values; the next page continues strictly after
+ * them, so every page costs the same index seek however deep it is.
+ */
+@Component
+public class KeysetCursors {
+
+    public static final int MAX_SIZE = 100;
+
+    private final ObjectMapper objectMapper;
+
+    public KeysetCursors(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    // The requested sort restricted to keyset-safe columns, made unique by the id.
+    public Sort sort(Sort requested, Sort fallback, Map<String, Class<?>> columns) {
+        Sort sort = requested.isSorted() ? requested : fallback;
+        for (Sort.Order order : sort) {
+            if (!columns.containsKey(order.getProperty())) {
+                throw new BusinessRuleException("Cursor paging can only sort by " + String.join(", ", columns.keySet()));
+            }
+        }
+        return sort.getOrderFor("id") == null ? sort.and(Sort.by("id")) : sort;
+    }
+
+    public KeysetScrollPosition position(String cursor, Sort sort, Map<String, Class<?>> columns, int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new BusinessRuleException("Size must be between 1 and " + MAX_SIZE);
+        }
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, Object> raw;
+        try {
+            raw = objectMapper.readValue(Base64.getUrlDecoder().decode(cursor.trim()), new TypeReference<>() {});
+        } catch (IllegalArgumentException | IOException e) {
+            throw new BusinessRuleException("Invalid cursor");
+        }
+        List<String> properties = sort.stream().map(Sort.Order::getProperty).toList();
+        if (raw == null || !raw.keySet().equals(Set.copyOf(properties))) {
+            throw new BusinessRuleException("Cursor does not match the requested sort");
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (String property : properties) {
+            keys.put(property, coerce(raw.get(property), columns.get(property)));
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    public <E, T> CursorPageDto<T> page(Window<E> window, List<T> content) {
+        String next = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+            next = encode(last.getKeys());
+        }
+        return new CursorPageDto<>(content, content.size(), next != null, next);
+    }
+
+    private String encode(Map<String, ?> keys) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(keys));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode cursor", e);
+        }
+    }
+
+    private static Object coerce(Object value, Class<?> type) {
+        if (type == Long.class && value instanceof Number n) return n.longValue();
+        if (type == Integer.class && value instanceof Number n) return n.intValue();
+        if (type == String.class && value instanceof String s) return s;
+        throw new BusinessRuleException("Invalid cursor");
+    }
+}
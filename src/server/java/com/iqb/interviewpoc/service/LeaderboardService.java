@@ -0,0 +1,74 @@
+package com.iqb.interviewpoc.service;
+
+import com.iqb.interviewpoc.dto.LeaderboardEntryDto;
+import com.iqb.interviewpoc.entity.Student;
+import com.iqb.interviewpoc.exception.ResourceNotFoundException;
+import com.iqb.interviewpoc.repository.CourseRepository;
+import com.iqb.interviewpoc.repository.StudentRepository;
+import com.iqb.interviewpoc.store.Leaderboard.RankedStanding;
+import com.iqb.interviewpoc.store.Leaderboard.Slice;
+import com.iqb.interviewpoc.store.LeaderboardStore;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+public class LeaderboardService {
+
+    private final LeaderboardStore store;
+    private final StudentRepository studentRepository;
+    private final CourseRepository courseRepository;
+
+    public LeaderboardService(LeaderboardStore store,
+                              StudentRepository studentRepository,
+                              CourseRepository courseRepository) {
+        this.store = store;
+        this.studentRepository = studentRepository;
+        this.courseRepository = courseRepository;
+    }
+
+    public Page<LeaderboardEntryDto> getLeaderboard(Long courseId, Pageable pageable) {
+        requireCourse(courseId);
+        int offset = (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE);
+        Slice slice = store.slice(courseId, offset, pageable.getPageSize());
+
+        List<Long> studentIds = slice.entries().stream().map(e -> e.standing().studentId()).toList();
+        Map<Long, String> names = studentRepository.findAllById(studentIds).stream()
+                .collect(Collectors.toMap(Student::getId, Student::getFullName));
+
+        List<LeaderboardEntryDto> content = slice.entries().stream()
+                .map(e -> toDto(e, names.get(e.standing().studentId())))
+                .toList();
+        return new PageImpl<>(content, pageable, slice.total());
+    }
+
+    public LeaderboardEntryDto getStanding(Long studentId, Long courseId) {
+        Student student = studentRepository.findById(studentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Student not found"));
+        requireCourse(courseId);
+        RankedStanding standing = store.find(courseId, studentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Student has no scores"));
+        return toDto(standing, student.getFullName());
+    }
+
+    private void requireCourse(Long courseId) {
+        if (courseId != null && !courseRepository.existsById(courseId)) {
+            throw new ResourceNotFoundException("Course not found");
+        }
+    }
+
+    private LeaderboardEntryDto toDto(RankedStanding entry, String fullName) {
+        return new LeaderboardEntryDto(
+                entry.rank(),
+                entry.standing().studentId(),
+                fullName,
+                Math.round(entry.standing().average() * 100.0) / 100.0,
+                entry.standing().scoreCount()
+        );
+    }
+}
@@ -0,0 +1,58 @@
+package com.iqb.interviewpoc.service;
+
+import com.iqb.interviewpoc.dto.DashboardStatsDto.RecentResultDto;
+import com.iqb.interviewpoc.dto.RecentResultFeedDto;
+import com.iqb.interviewpoc.exception.BusinessRuleException;
+import com.iqb.interviewpoc.repository.ExamResultRepository;
+import com.iqb.interviewpoc.repository.RecentResultProjection;
+import com.iqb.interviewpoc.store.RecentResultBuffer;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@Service
+public class RecentResultService {
+
+    public static final int MAX_LIMIT = 100;
+
+    private final RecentResultBuffer buffer;
+    private final ExamResultRepository examResultRepository;
+
+    public RecentResultService(RecentResultBuffer buffer, ExamResultRepository examResultRepository) {
+        this.buffer = buffer;
+        this.examResultRepository = examResultRepository;
+    }
+
+    // Newest results first, keyed by id; pages past the buffer fall back to a primary-key range scan.
+    public RecentResultFeedDto getFeed(Long before, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BusinessRuleException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        List<RecentResultDto> content = new ArrayList<>();
+        long cursor = before == null ? Long.MAX_VALUE : before;
+        while (content.size() < limit) {
+            int remaining = limit - content.size();
+            List<Long> ids = Arrays.stream(buffer.idsBefore(cursor, remaining)).boxed().toList();
+            if (ids.isEmpty()) {
+                ids = examResultRepository.findIdsBefore(cursor, PageRequest.of(0, remaining));
+                if (ids.isEmpty()) break;
+            }
+            // Ids of deleted results drop out here, so loop until the page is full.
+            for (RecentResultProjection row : examResultRepository.findRecentResultsByIds(ids)) {
+                content.add(new RecentResultDto(
+                        row.getId(),
+                        row.getFullName(),
+                        row.getName(),
+                        row.getScore(),
+                        row.getCreatedAt()
+                ));
+            }
+            cursor = ids.get(ids.size() - 1);
+        }
+        Long nextCursor = content.size() == limit ? content.get(limit - 1).id() : null;
+        return new RecentResultFeedDto(content, nextCursor);
+    }
+}
@@ -0,0 +1,89 @@
+package com.iqb.interviewpoc.service;
+
+import com.iqb.interviewpoc.store.DataVersions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of identical concurrent reads: the first caller for
+ * a key runs the loader, callers arriving while it runs wait for and share its
+ * result. Keys include the current data version, so a caller never joins a
+ * computation that started before a write it has already observed.
+ */
+@Component
+public class RequestCoalescer {
+
+    private record FlightKey(String operation, Object key, long version) {}
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final DataVersions dataVersions;
+    private final boolean enabled;
+    private final Map<FlightKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> enabledByOperation = new ConcurrentHashMap<>();
+
+    public RequestCoalescer(Environment environment, MeterRegistry meterRegistry, DataVersions dataVersions) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.dataVersions = dataVersions;
+        this.enabled = environment.getProperty("app.coalescing.enabled", Boolean.class, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, Object key, Supplier<T> loader) {
+        if (!isEnabled(operation)) {
+            counter(operation, "bypassed").increment();
+            return loader.get();
+        }
+        FlightKey flightKey = new FlightKey(operation, key, dataVersions.global());
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            counter(operation, "joined").increment();
+            return (T) await(existing);
+        }
+        counter(operation, "executed").increment();
+        try {
+            T result = loader.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    private boolean isEnabled(String operation) {
+        return enabled && enabledByOperation.computeIfAbsent(operation, op ->
+                environment.getProperty("app.coalescing." + op + ".enabled", Boolean.class, true));
+    }
+
+    private Counter counter(String operation, String outcome) {
+        return Counter.builder("app.coalescing.calls")
+                .description("Coalesced read calls by outcome")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Object await(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            // rethrow the leader's exception unchanged so it maps to the same response
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+}
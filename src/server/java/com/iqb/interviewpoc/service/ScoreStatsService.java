@@ -0,0 +1,60 @@
+package com.iqb.interviewpoc.service;
+
+import com.iqb.interviewpoc.dto.ScoreStatsDto;
+import com.iqb.interviewpoc.dto.ScoreStatsDto.BucketDto;
+import com.iqb.interviewpoc.exception.BusinessRuleException;
+import com.iqb.interviewpoc.exception.ResourceNotFoundException;
+import com.iqb.interviewpoc.store.ScoreHistogram;
+import com.iqb.interviewpoc.store.ScoreHistogramStore;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class ScoreStatsService {
+
+    private final ScoreHistogramStore store;
+
+    public ScoreStatsService(ScoreHistogramStore store) {
+        this.store = store;
+    }
+
+    public ScoreStatsDto getCourseStats(Long courseId, int bucketWidth) {
+        validateBucketWidth(bucketWidth);
+        ScoreHistogram histogram = store.course(courseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Course not found"));
+        return toDto(histogram, bucketWidth);
+    }
+
+    public ScoreStatsDto getGlobalStats(int bucketWidth) {
+        validateBucketWidth(bucketWidth);
+        return toDto(store.global(), bucketWidth);
+    }
+
+    private void validateBucketWidth(int bucketWidth) {
+        if (bucketWidth < 1 || bucketWidth > ScoreHistogram.MAX_SCORE + 1) {
+            throw new BusinessRuleException("Bucket width must be between 1 and " + (ScoreHistogram.MAX_SCORE + 1));
+        }
+    }
+
+    private ScoreStatsDto toDto(ScoreHistogram histogram, int bucketWidth) {
+        List<BucketDto> buckets = new ArrayList<>();
+        for (int from = 0; from <= ScoreHistogram.MAX_SCORE; from += bucketWidth) {
+            int to = Math.min(from + bucketWidth - 1, ScoreHistogram.MAX_SCORE);
+            buckets.add(new BucketDto(from, to, histogram.countBetween(from, to)));
+        }
+        Double mean = histogram.mean();
+        return new ScoreStatsDto(
+                histogram.total(),
+                mean == null ? null : Math.round(mean * 100.0) / 100.0,
+                histogram.percentile(50),
+                histogram.percentile(90),
+                histogram.percentile(99),
+                histogram.min(),
+                histogram.max(),
+                bucketWidth,
+                buckets
+        );
+    }
+}
@@ -0,0 +1,92 @@
+package com.iqb.interviewpoc.service;
+
+import com.iqb.interviewpoc.dto.ScoreTrendDto;
+import com.iqb.interviewpoc.dto.ScoreTrendDto.PointDto;
+import com.iqb.interviewpoc.exception.BusinessRuleException;
+import com.iqb.interviewpoc.exception.ResourceNotFoundException;
+import com.iqb.interviewpoc.repository.CourseRepository;
+import com.iqb.interviewpoc.repository.ExamResultRepository;
+import com.iqb.interviewpoc.repository.ScoreTrendProjection;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Locale;
+
+@Service
+public class ScoreTrendService {
+
+    private static final List<String> BUCKETS = List.of("day", "week", "month");
+
+    private final ExamResultRepository examResultRepository;
+    private final CourseRepository courseRepository;
+
+    public ScoreTrendService(ExamResultRepository examResultRepository, CourseRepository courseRepository) {
+        this.examResultRepository = examResultRepository;
+        this.courseRepository = courseRepository;
+    }
+
+    public ScoreTrendDto getCourseTrend(Long courseId, String bucket, LocalDate from, LocalDate to) {
+        String b = parseBucket(bucket);
+        validateRange(from, to);
+        if (!courseRepository.existsById(courseId)) {
+            throw new ResourceNotFoundException("Course not found");
+        }
+        return toDto(b, examResultRepository.findCourseScoreTrend(courseId, b, lower(b, from), upper(to)));
+    }
+
+    public ScoreTrendDto getGlobalTrend(String bucket, LocalDate from, LocalDate to) {
+        String b = parseBucket(bucket);
+        validateRange(from, to);
+        return toDto(b, examResultRepository.findScoreTrend(b, lower(b, from), upper(to)));
+    }
+
+    private static String parseBucket(String bucket) {
+        String b = bucket.trim().toLowerCase(Locale.ROOT);
+        if (!BUCKETS.contains(b)) {
+            throw new BusinessRuleException("bucket must be one of day, week, month");
+        }
+        return b;
+    }
+
+    private static void validateRange(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BusinessRuleException("'from' must not be after 'to'");
+        }
+    }
+
+    // Rows are keyed by bucket start, so widen 'from' to the start of the bucket containing it.
+    private static String lower(String bucket, LocalDate from) {
+        if (from == null) {
+            return "0000-01-01";
+        }
+        return switch (bucket) {
+            case "week" -> from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).toString();
+            case "month" -> from.withDayOfMonth(1).toString();
+            default -> from.toString();
+        };
+    }
+
+    private static String upper(LocalDate to) {
+        return to == null ? "9999-12-31" : to.toString();
+    }
+
+    private ScoreTrendDto toDto(String bucket, List<ScoreTrendProjection> rows) {
+        long count = 0, sum = 0;
+        for (ScoreTrendProjection row : rows) {
+            count += row.getResultCount();
+            sum += row.getScoreSum();
+        }
+        List<PointDto> points = rows.stream()
+                .map(row -> new PointDto(row.getBucketStart(), row.getResultCount(),
+                        round(row.getScoreSum(), row.getResultCount())))
+                .toList();
+        return new ScoreTrendDto(bucket, count, count == 0 ? null : round(sum, count), points);
+    }
+
+    private static double round(long numerator, long denominator) {
+        return Math.round(numerator * 100.0 / denominator) / 100.0;
+    }
+}
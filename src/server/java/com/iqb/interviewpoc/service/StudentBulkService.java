@@ -0,0 +1,218 @@
+package com.iqb.interviewpoc.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iqb.interviewpoc.dto.StudentBulkResultDto;
+import com.iqb.interviewpoc.dto.StudentBulkResultDto.RowResultDto;
+import com.iqb.interviewpoc.dto.StudentBulkResultDto.Status;
+import com.iqb.interviewpoc.entity.Student;
+import com.iqb.interviewpoc.event.ChangeType;
+import com.iqb.interviewpoc.event.StudentBatchChangedEvent;
+import com.iqb.interviewpoc.event.StudentChangedEvent;
+import com.iqb.interviewpoc.exception.BusinessRuleException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk create-or-update of students keyed by their unique number. The
+ * request array is parsed one element at a time, checked against the
+ * {@link Student} bean constraints, and written in chunks, each one
+ * transaction running a single {@code INSERT ... SELECT FROM json_each(?)
+ * ON CONFLICT(number) DO UPDATE ... RETURNING} statement. Ids above the
+ * table's highest id before the chunk were created by it; rows whose values
+ * already match are left untouched, so they fire no triggers and no events.
+ * Listeners get one {@link StudentBatchChangedEvent} per chunk. In like
+ * search mode the chunk marks student_fts stale instead of paying for FTS5
+ * maintenance per row.
+ */
+@Service
+public class StudentBulkService {
+
+    private static final String UPSERT =
+            "INSERT INTO student (full_name, number, email, gsm_number, created_at, updated_at) " +
+            "SELECT value ->> 0, value ->> 1, value ->> 2, value ->> 3, ?, ? FROM json_each(?) WHERE true " +
+            "ON CONFLICT (number) DO UPDATE SET full_name = excluded.full_name, email = excluded.email, " +
+            "gsm_number = excluded.gsm_number, updated_at = excluded.updated_at " +
+            "WHERE full_name IS NOT excluded.full_name OR email IS NOT excluded.email OR gsm_number IS NOT excluded.gsm_number " +
+            "RETURNING id, number";
+    private static final String IDS_BY_NUMBER = "SELECT id, number FROM student WHERE number IN (SELECT value FROM json_each(?))";
+    private static final String MAX_ID = "SELECT COALESCE(MAX(id), 0) FROM student";
+    private static final String MARK_FTS_STALE = "INSERT OR IGNORE INTO fts_stale (table_name) VALUES ('student_fts')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate chunkTransaction;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final FullTextSearch fullTextSearch;
+    private final int chunkSize;
+
+    private record Row(int index, Student student) {}
+
+    public StudentBulkService(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              ApplicationEventPublisher eventPublisher,
+                              ObjectMapper objectMapper,
+                              Validator validator,
+                              FullTextSearch fullTextSearch,
+                              @Value("${app.import.student-chunk-size:5000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.fullTextSearch = fullTextSearch;
+        this.chunkSize = chunkSize;
+    }
+
+    public StudentBulkResultDto upsert(InputStream body) throws IOException {
+        List<RowResultDto> results = new ArrayList<>();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (firstToken(parser) != JsonToken.START_ARRAY) {
+                throw new BusinessRuleException("Body must be a JSON array of students");
+            }
+            try {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    // a whole element is read before mapping, so a bad one does not derail the parser
+                    JsonNode node = parser.readValueAsTree();
+                    String problem = null;
+                    Student student = null;
+                    try {
+                        student = objectMapper.treeToValue(node, Student.class);
+                        problem = violations(student);
+                    } catch (IOException | IllegalArgumentException e) {
+                        problem = "Not a valid student object";
+                    }
+                    if (problem == null) {
+                        chunk.add(new Row(index, student));
+                    } else {
+                        results.add(new RowResultDto(index, Status.REJECTED, null, problem));
+                    }
+                    index++;
+                    if (chunk.size() == chunkSize) {
+                        write(chunk, results);
+                        chunk.clear();
+                    }
+                }
+            } catch (JsonParseException e) {
+                // the elements before it stand; the report says where reading stopped
+                results.add(new RowResultDto(index, Status.REJECTED, null,
+                        "Malformed JSON, the rest of the body was not read: " + e.getOriginalMessage()));
+            }
+        }
+        write(chunk, results);
+
+        results.sort(Comparator.comparingInt(RowResultDto::index));
+        Map<Status, Long> counts = results.stream().collect(Collectors.groupingBy(RowResultDto::status, Collectors.counting()));
+        return new StudentBulkResultDto(counts.getOrDefault(Status.CREATED, 0L), counts.getOrDefault(Status.UPDATED, 0L),
+                counts.getOrDefault(Status.UNCHANGED, 0L), counts.getOrDefault(Status.REJECTED, 0L), results);
+    }
+
+    private static JsonToken firstToken(JsonParser parser) throws IOException {
+        try {
+            return parser.nextToken();
+        } catch (JsonParseException e) {
+            return null;
+        }
+    }
+
+    private String violations(Student student) {
+        Set<ConstraintViolation<Student>> violations = validator.validate(student);
+        if (violations.isEmpty()) return null;
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    // A number repeated within the chunk is created by its first row and updated by the later ones.
+    private void write(List<Row> chunk, List<RowResultDto> results) throws IOException {
+        if (chunk.isEmpty()) return;
+        String rows = rowsJson(chunk);
+        Map<Integer, Long> written = new HashMap<>();
+        Map<Integer, Long> unchanged = new HashMap<>();
+        long maxIdBefore = chunkTransaction.execute(status -> {
+            if (!fullTextSearch.enabled()) {
+                jdbcTemplate.update(MARK_FTS_STALE);
+            }
+            long maxId = jdbcTemplate.queryForObject(MAX_ID, Long.class);
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            jdbcTemplate.query(UPSERT, rs -> { written.put(rs.getInt(2), rs.getLong(1)); }, now, now, rows);
+            if (written.size() < chunk.size()) {
+                jdbcTemplate.query(IDS_BY_NUMBER, rs -> { unchanged.put(rs.getInt(2), rs.getLong(1)); }, numbersJson(chunk, written));
+            }
+            return maxId;
+        });
+
+        Set<Integer> seen = new HashSet<>();
+        List<StudentChangedEvent> changes = new ArrayList<>(written.size());
+        for (Row row : chunk) {
+            Student s = row.student();
+            Long id = written.get(s.getNumber());
+            if (id == null) {
+                results.add(new RowResultDto(row.index(), Status.UNCHANGED, unchanged.get(s.getNumber()), null));
+                continue;
+            }
+            boolean created = id > maxIdBefore && seen.add(s.getNumber());
+            results.add(new RowResultDto(row.index(), created ? Status.CREATED : Status.UPDATED, id, null));
+            changes.add(new StudentChangedEvent(created ? ChangeType.CREATED : ChangeType.UPDATED,
+                    id, s.getFullName(), s.getNumber(), s.getEmail(), s.getGsmNumber()));
+        }
+        // JDBC writes skip the entity listener, so the chunk's change event is published here, after commit
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new StudentBatchChangedEvent(changes));
+        }
+    }
+
+    private static String numbersJson(List<Row> chunk, Map<Integer, Long> written) {
+        return chunk.stream()
+                .map(row -> row.student().getNumber())
+                .filter(number -> !written.containsKey(number))
+                .map(String::valueOf)
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+
+    // The chunk as one JSON array of [full_name, number, email, gsm_number] rows for json_each.
+    private String rowsJson(List<Row> chunk) throws IOException {
+        StringWriter out = new StringWriter(chunk.size() * 80);
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartArray();
+            for (Row row : chunk) {
+                Student s = row.student();
+                json.writeStartArray();
+                json.writeString(s.getFullName());
+                json.writeNumber(s.getNumber());
+                json.writeString(s.getEmail());
+                json.writeString(s.getGsmNumber());
+                json.writeEndArray();
+            }
+            json.writeEndArray();
+        }
+        return out.toString();
+    }
+}
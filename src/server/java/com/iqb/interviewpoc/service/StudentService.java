@@ -1,16 +1,33 @@
 package com.iqb.interviewpoc.service;
 
+import com.iqb.interviewpoc.dto.CursorPageDto;
+import com.iqb.interviewpoc.dto.FieldSet;
 import com.iqb.interviewpoc.dto.StudentListDto;
 import com.iqb.interviewpoc.dto.StudentListDto.CourseAverageDto;
+import com.iqb.interviewpoc.dto.StudentSuggestionDto;
 import com.iqb.interviewpoc.entity.Student;
+import com.iqb.interviewpoc.event.ChangeType;
+import com.iqb.interviewpoc.event.ExamResultChangedEvent;
+import com.iqb.interviewpoc.exception.BusinessRuleException;
 import com.iqb.interviewpoc.exception.ResourceNotFoundException;
 import com.iqb.interviewpoc.repository.CompletedCourseProjection;
 import com.iqb.interviewpoc.repository.ExamResultRepository;
 import com.iqb.interviewpoc.repository.StudentRepository;
+import com.iqb.interviewpoc.store.SearchResultCache;
+import com.iqb.interviewpoc.store.StudentSearchIndex;
+import com.iqb.interviewpoc.store.StudentSuggestIndex;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -19,47 +36,149 @@ import java.util.stream.Collectors;
 @Service
 public class StudentService {
 
+    // Non-null columns only: a null sort key has no position to seek past.
+    private static final Map<String, Class<?>> KEYSET_COLUMNS =
+            Map.of("id", Long.class, "fullName", String.class, "number", Integer.class, "email", String.class);
+    private static final int MAX_SUGGESTIONS = 50;
+    // List sort keys answered from the student_summary table.
+    private static final Map<String, String> SUMMARY_SORTS = Map.of(
+            "overallAverage", "ss.completedAverage",
+            "completedCourses", "ss.completedCourses",
+            "lastActivity", "ss.lastActivity");
+
     private final StudentRepository repository;
     private final ExamResultRepository examResultRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RequestCoalescer coalescer;
+    private final StudentSearchIndex searchIndex;
+    private final StudentSuggestIndex suggestIndex;
+    private final SearchResultCache searchCache;
+    private final FullTextSearch fullTextSearch;
+    private final KeysetCursors cursors;
+    private final GroupCommitWriter writer;
 
-    public StudentService(StudentRepository repository, ExamResultRepository examResultRepository) {
+    public StudentService(StudentRepository repository,
+                          ExamResultRepository examResultRepository,
+                          ApplicationEventPublisher eventPublisher,
+                          RequestCoalescer coalescer,
+                          StudentSearchIndex searchIndex,
+                          StudentSuggestIndex suggestIndex,
+                          SearchResultCache searchCache,
+                          FullTextSearch fullTextSearch,
+                          KeysetCursors cursors,
+                          GroupCommitWriter writer) {
         this.repository = repository;
         this.examResultRepository = examResultRepository;
+        this.eventPublisher = eventPublisher;
+        this.coalescer = coalescer;
+        this.searchIndex = searchIndex;
+        this.suggestIndex = suggestIndex;
+        this.searchCache = searchCache;
+        this.fullTextSearch = fullTextSearch;
+        this.cursors = cursors;
+        this.writer = writer;
+    }
+
+    public Slice<StudentListDto> getAll(String search, Pageable pageable, CountMode count, FieldSet fields) {
+        return coalescer.execute("students", Arrays.asList(search, pageable, count, fields), () -> loadAll(search, pageable, count, fields));
     }
 
-    public Page<StudentListDto> getAll(String search, Pageable pageable) {
-        Page<Student> students;
-        if (search != null && !search.isBlank()) {
-            students = repository.search(search.trim(), pageable);
+    private Slice<StudentListDto> loadAll(String search, Pageable pageable, CountMode count, FieldSet fields) {
+        Slice<Student> students;
+        Sort summarySort = bySummary(pageable.getSort());
+        if (search != null && !search.isBlank() && fullTextSearch.enabled()) {
+            String query = FullTextSearch.matchExpression(search);
+            Pageable byRank = FullTextSearch.byRank(pageable);
+            students = query == null ? count.of(Page.empty(pageable)) : count.fetch(
+                    () -> FullTextSearch.inIdOrder(repository.matchIds(query, byRank), repository::findAllById, Student::getId),
+                    () -> FullTextSearch.inIdOrder(repository.matchIdSlice(query, byRank), repository::findAllById, Student::getId),
+                    () -> repository.countMatches(query));
+        } else if (search != null && !search.isBlank() && searchIndex.supports(pageable.getSort())) {
+            students = count.of(FullTextSearch.inIdOrder(searchIndex.search(search.trim(), pageable), repository::findAllById, Student::getId));
+        } else if (summarySort != null) {
+            Pageable sorted = pageable.isPaged()
+                    ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), summarySort)
+                    : Pageable.unpaged(summarySort);
+            students = search == null || search.isBlank()
+                    ? count.fetch(() -> repository.findAllWithSummary(sorted), () -> repository.findSliceWithSummary(sorted), this::totalStudents)
+                    : count.of(repository.searchWithSummary(search.trim(), sorted));
+        } else if (search != null && !search.isBlank()) {
+            String term = search.trim();
+            Slice<Long> cached = searchCache.page(SearchResultCache.Entity.STUDENT, term, pageable, count != CountMode.NONE,
+                    limit -> repository.searchIds(term, PageRequest.of(0, limit, pageable.getSort())));
+            students = cached != null
+                    ? count.of(FullTextSearch.inIdOrder(cached, repository::findAllById, Student::getId))
+                    : count.fetch(() -> repository.search(term, pageable), () -> repository.searchSlice(term, pageable),
+                            () -> CountMode.extrapolate(repository.countSearchInSample(term, CountMode.SAMPLE_ROWS), totalStudents()));
         } else {
-            students = repository.findAll(pageable);
+            students = count.fetch(() -> repository.findAll(pageable), () -> repository.findSliceBy(pageable), this::totalStudents);
         }
 
-        List<Long> studentIds = students.getContent().stream().map(Student::getId).toList();
+        Map<Long, List<CourseAverageDto>> courses = completedCourses(students.getContent(), fields);
+        return students.map(s -> toListDto(s, courses));
+    }
 
-        Map<Long, List<CourseAverageDto>> coursesByStudent;
-        if (studentIds.isEmpty()) {
-            coursesByStudent = Collections.emptyMap();
-        } else {
-            List<CompletedCourseProjection> projections = examResultRepository.findCompletedCourseAverages(studentIds);
-            coursesByStudent = projections.stream()
-                    .collect(Collectors.groupingBy(
-                            CompletedCourseProjection::getStudentId,
-                            Collectors.mapping(
-                                    p -> new CourseAverageDto(p.getCourseName(), Math.round(p.getAverage() * 100.0) / 100.0),
-                                    Collectors.toList()
-                            )
-                    ));
+    // Null unless the sort uses a summary key; summary keys sort missing values last, ties go by id.
+    private static Sort bySummary(Sort sort) {
+        if (sort.stream().noneMatch(order -> SUMMARY_SORTS.containsKey(order.getProperty()))) {
+            return null;
+        }
+        List<Sort.Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String column = SUMMARY_SORTS.get(order.getProperty());
+            orders.add(column == null ? order : order.withProperty(column).nullsLast());
         }
+        orders.add(Sort.Order.asc("id"));
+        return Sort.by(orders);
+    }
+
+    private long totalStudents() {
+        return examResultRepository.findDashboardRollup().getStudentCount();
+    }
+
+    public CursorPageDto<StudentListDto> getAfter(String after, int size, Sort sort, FieldSet fields) {
+        return coalescer.execute("students", Arrays.asList("after", after, size, sort, fields), () -> loadAfter(after, size, sort, fields));
+    }
 
-        return students.map(s -> new StudentListDto(
+    private CursorPageDto<StudentListDto> loadAfter(String after, int size, Sort sort, FieldSet fields) {
+        Sort order = cursors.sort(sort, Sort.by("id"), KEYSET_COLUMNS);
+        Window<Student> window = repository.findAllBy(cursors.position(after, order, KEYSET_COLUMNS, size), order, Limit.of(size));
+        Map<Long, List<CourseAverageDto>> courses = completedCourses(window.getContent(), fields);
+        return cursors.page(window, window.getContent().stream().map(s -> toListDto(s, courses)).toList());
+    }
+
+    public List<StudentSuggestionDto> suggest(String prefix, int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new BusinessRuleException("Limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        return suggestIndex.suggest(prefix, limit);
+    }
+
+    private Map<Long, List<CourseAverageDto>> completedCourses(List<Student> students, FieldSet fields) {
+        List<Long> studentIds = students.stream().map(Student::getId).toList();
+        if (studentIds.isEmpty() || !fields.includes("completedCourses")) {
+            return Collections.emptyMap();
+        }
+        List<CompletedCourseProjection> projections = examResultRepository.findCompletedCourseAverages(studentIds);
+        return projections.stream()
+                .collect(Collectors.groupingBy(
+                        CompletedCourseProjection::getStudentId,
+                        Collectors.mapping(
+                                p -> new CourseAverageDto(p.getCourseName(), Math.round(p.getAverage() * 100.0) / 100.0),
+                                Collectors.toList()
+                        )
+                ));
+    }
+
+    private static StudentListDto toListDto(Student s, Map<Long, List<CourseAverageDto>> courses) {
+        return new StudentListDto(
                 s.getId(),
                 s.getFullName(),
                 s.getNumber(),
                 s.getEmail(),
                 s.getGsmNumber(),
-                coursesByStudent.getOrDefault(s.getId(), Collections.emptyList())
-        ));
+                courses.getOrDefault(s.getId(), Collections.emptyList())
+        );
     }
 
     public Student getById(Long id) {
@@ -68,24 +187,33 @@ public class StudentService {
     }
 
     public Student create(Student student) {
-        student.setId(null);
-        return repository.save(student);
+        return writer.execute(() -> {
+            student.setId(null);
+            return repository.save(student);
+        });
     }
 
     public Student update(Long id, Student student) {
-        Student existing = repository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Student not found"));
-        existing.setFullName(student.getFullName());
-        existing.setNumber(student.getNumber());
-        existing.setEmail(student.getEmail());
-        existing.setGsmNumber(student.getGsmNumber());
-        return repository.save(existing);
+        return writer.execute(() -> {
+            Student existing = repository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Student not found"));
+            existing.setFullName(student.getFullName());
+            existing.setNumber(student.getNumber());
+            existing.setEmail(student.getEmail());
+            existing.setGsmNumber(student.getGsmNumber());
+            return repository.save(existing);
+        });
     }
 
     public void delete(Long id) {
-        if (!repository.existsById(id)) {
-            throw new ResourceNotFoundException("Student not found");
-        }
-        repository.deleteById(id);
+        writer.run(() -> {
+            if (!repository.existsById(id)) {
+                throw new ResourceNotFoundException("Student not found");
+            }
+            // exam results go with the student via ON DELETE CASCADE, which JPA never sees
+            examResultRepository.findByStudentIdOrderByCourseIdAscIdAsc(id)
+                    .forEach(er -> eventPublisher.publishEvent(ExamResultChangedEvent.of(ChangeType.DELETED, er)));
+            repository.deleteById(id);
+        });
     }
 }
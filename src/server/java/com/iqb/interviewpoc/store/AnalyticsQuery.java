@@ -0,0 +1,15 @@
+package com.iqb.interviewpoc.store;
+
+public record AnalyticsQuery(
+    GroupBy groupBy,
+    Long courseId,
+    Long studentId,
+    Long fromMillis,
+    Long toMillis,
+    int passScore
+) {
+    public enum GroupBy { COURSE, STUDENT, DAY, WEEK, MONTH }
+
+    /** One aggregated group; time buckets use their ISO start date (or yyyy-MM) as key and label. */
+    public record Group(String key, String label, long count, long scoreSum, long passed) {}
+}
@@ -0,0 +1,136 @@
+package com.iqb.interviewpoc.store;
+
+import java.util.Arrays;
+
+/**
+ * The columns behind {@link ColumnarExamResults}: parallel primitive arrays
+ * sorted by id, with deleted rows tombstoned until compaction.
+ * Not thread-safe.
+ */
+final class ColumnTable {
+
+    final NameDictionary students;
+    final NameDictionary courses;
+    long[] ids;
+    int[] studentCodes;
+    int[] courseCodes;
+    int[] scores;
+    long[] createdAt;
+    boolean[] deleted;
+    int rows;
+    int deletedRows;
+    long minDay = Long.MAX_VALUE;
+    long maxDay = Long.MIN_VALUE;
+
+    ColumnTable() {
+        this(1024);
+    }
+
+    ColumnTable(int capacity) {
+        this(capacity, new NameDictionary(), new NameDictionary());
+    }
+
+    private ColumnTable(int capacity, NameDictionary students, NameDictionary courses) {
+        this.students = students;
+        this.courses = courses;
+        capacity = Math.max(capacity, 1024);
+        ids = new long[capacity];
+        studentCodes = new int[capacity];
+        courseCodes = new int[capacity];
+        scores = new int[capacity];
+        createdAt = new long[capacity];
+        deleted = new boolean[capacity];
+    }
+
+    int find(long id) {
+        int row = Arrays.binarySearch(ids, 0, rows, id);
+        return row >= 0 && !deleted[row] ? row : -1;
+    }
+
+    void insert(long id, int studentCode, int courseCode, int score, long created) {
+        int row = Arrays.binarySearch(ids, 0, rows, id);
+        if (row >= 0) {
+            if (deleted[row]) {
+                deleted[row] = false;
+                deletedRows--;
+            }
+        } else {
+            row = -row - 1;
+            if (rows == ids.length) grow();
+            if (row < rows) shift(row);
+            rows++;
+        }
+        ids[row] = id;
+        studentCodes[row] = studentCode;
+        courseCodes[row] = courseCode;
+        scores[row] = score;
+        createdAt[row] = created;
+        deleted[row] = false;
+        long day = Math.floorDiv(created, ColumnarExamResults.DAY_MILLIS);
+        minDay = Math.min(minDay, day);
+        maxDay = Math.max(maxDay, day);
+    }
+
+    void delete(int row) {
+        if (!deleted[row]) {
+            deleted[row] = true;
+            deletedRows++;
+        }
+    }
+
+    void compactIfSparse() {
+        if (deletedRows < 1024 || deletedRows * 4 < rows) return;
+        int live = 0;
+        for (int row = 0; row < rows; row++) {
+            if (deleted[row]) continue;
+            ids[live] = ids[row];
+            studentCodes[live] = studentCodes[row];
+            courseCodes[live] = courseCodes[row];
+            scores[live] = scores[row];
+            createdAt[live] = createdAt[row];
+            deleted[live] = false;
+            live++;
+        }
+        rows = live;
+        deletedRows = 0;
+    }
+
+    // The live rows and both dictionaries, detached from this table, so a snapshot can be written without the store lock.
+    ColumnTable liveCopy() {
+        ColumnTable copy = new ColumnTable(rows - deletedRows, students.copy(), courses.copy());
+        int live = 0;
+        for (int row = 0; row < rows; row++) {
+            if (deleted[row]) continue;
+            copy.ids[live] = ids[row];
+            copy.studentCodes[live] = studentCodes[row];
+            copy.courseCodes[live] = courseCodes[row];
+            copy.scores[live] = scores[row];
+            copy.createdAt[live] = createdAt[row];
+            live++;
+        }
+        copy.rows = live;
+        copy.minDay = minDay;
+        copy.maxDay = maxDay;
+        return copy;
+    }
+
+    private void shift(int row) {
+        int n = rows - row;
+        System.arraycopy(ids, row, ids, row + 1, n);
+        System.arraycopy(studentCodes, row, studentCodes, row + 1, n);
+        System.arraycopy(courseCodes, row, courseCodes, row + 1, n);
+        System.arraycopy(scores, row, scores, row + 1, n);
+        System.arraycopy(createdAt, row, createdAt, row + 1, n);
+        System.arraycopy(deleted, row, deleted, row + 1, n);
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        studentCodes = Arrays.copyOf(studentCodes, capacity);
+        courseCodes = Arrays.copyOf(courseCodes, capacity);
+        scores = Arrays.copyOf(scores, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        deleted = Arrays.copyOf(deleted, capacity);
+    }
+}
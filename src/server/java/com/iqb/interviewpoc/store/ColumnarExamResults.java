@@ -0,0 +1,429 @@
+package com.iqb.interviewpoc.store;
+
+import com.iqb.interviewpoc.event.CourseChangedEvent;
+import com.iqb.interviewpoc.event.ExamResultChangedEvent;
+import com.iqb.interviewpoc.event.StudentBatchChangedEvent;
+import com.iqb.interviewpoc.event.StudentChangedEvent;
+import com.iqb.interviewpoc.store.AnalyticsQuery.GroupBy;
+import com.iqb.interviewpoc.store.AnalyticsQuery.Group;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Column-oriented copy of exam_result: one primitive array per column, rows
+ * sorted by id, student and course dictionary-encoded to dense codes.
+ * Aggregations scan the columns in parallel on the common fork-join pool.
+ * <p>
+ * The store follows the trigger-maintained change_log rather than the entity
+ * events: committed writes only prompt it to apply log entries past the last
+ * sequence it has seen, so it also picks up raw SQL and cascades and always
+ * knows exactly which log position it reflects. That position is stored with
+ * the {@link ColumnarSnapshot} written periodically and at shutdown; a restart
+ * maps the snapshot and replays only the log entries written after it. With
+ * snapshots off, a restart reloads the tables, so the log is pruned up to the
+ * applied position on the same schedule instead.
+ */
+@Component
+public class ColumnarExamResults {
+
+    private static final Logger log = LoggerFactory.getLogger(ColumnarExamResults.class);
+
+    static final long DAY_MILLIS = 86_400_000L;
+    private static final int MIN_CHUNK = 1 << 16;
+    private static final int WIDE_GROUPS = 4096;
+
+    private static final String CREATED_MILLIS =
+            "CASE WHEN typeof(created_at) = 'integer' THEN created_at " +
+            "ELSE CAST(strftime('%s', created_at) AS INTEGER) * 1000 END";
+    private static final String LOAD_ROWS =
+            "SELECT id, student_id, course_id, score, " + CREATED_MILLIS + " FROM exam_result ORDER BY id";
+    private static final String READ_LOG =
+            "SELECT seq, entity, op, entity_id, student_id, course_id, score, " + CREATED_MILLIS + ", name " +
+            "FROM change_log WHERE seq > ? ORDER BY seq LIMIT ?";
+    private static final int LOG_BATCH = 10_000;
+
+    private record LogEntry(long seq, String entity, String op, long id, long studentId, long courseId,
+                            int score, long createdAt, String name) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+    private final boolean snapshotEnabled;
+    private final Path snapshotPath;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private ColumnTable table = new ColumnTable();
+    // written under the write lock, read without it to start a catch-up
+    private volatile long appliedSeq;
+
+    public ColumnarExamResults(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.snapshot.enabled:true}") boolean snapshotEnabled,
+                               @Value("${app.snapshot.path:data/analytics.snapshot}") String snapshotPath) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.snapshotEnabled = snapshotEnabled;
+        this.snapshotPath = Path.of(snapshotPath);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmStart() {
+        if (snapshotEnabled) {
+            try {
+                long started = System.nanoTime();
+                ColumnarSnapshot.Restored restored = ColumnarSnapshot.read(snapshotPath);
+                if (restored.seq() > lastAssignedSeq()) {
+                    throw new IOException("snapshot is ahead of the change log, the database was replaced");
+                }
+                int restoredRows = restored.table().rows;
+                install(restored.table(), restored.seq());
+                log.info("Restored {} exam results from snapshot at seq {}, caught up to seq {} in {} ms",
+                        restoredRows, restored.seq(), appliedSeq, (System.nanoTime() - started) / 1_000_000);
+                return;
+            } catch (NoSuchFileException e) {
+                log.info("No analytics snapshot at {}, loading from the database", snapshotPath);
+            } catch (IOException e) {
+                log.warn("Ignoring unusable analytics snapshot {}: {}", snapshotPath, e.getMessage());
+            }
+        }
+        rebuild();
+    }
+
+    private long lastAssignedSeq() {
+        List<Long> seq = jdbcTemplate.queryForList(
+                "SELECT seq FROM sqlite_sequence WHERE name = 'change_log'", Long.class);
+        return seq.isEmpty() ? 0 : seq.get(0);
+    }
+
+    // Full reload from the tables; the log position is read in the same transaction.
+    public void rebuild() {
+        ColumnTable loaded = new ColumnTable();
+        Long seq = readTransaction.execute(status -> {
+            Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(seq), 0) FROM change_log", Long.class);
+            jdbcTemplate.query("SELECT id, full_name FROM student",
+                    rs -> { loaded.students.rename(rs.getLong(1), rs.getString(2)); });
+            jdbcTemplate.query("SELECT id, name FROM course",
+                    rs -> { loaded.courses.rename(rs.getLong(1), rs.getString(2)); });
+            // rows arrive in id order, so every insert is an append
+            jdbcTemplate.query(LOAD_ROWS, rs -> {
+                loaded.insert(rs.getLong(1),
+                        loaded.students.encode(rs.getLong(2)),
+                        loaded.courses.encode(rs.getLong(3)),
+                        rs.getInt(4),
+                        rs.getLong(5));
+            });
+            return max;
+        });
+        install(loaded, seq == null ? 0 : seq);
+    }
+
+    // Replays the backlog before the table is published; entries that land meanwhile are picked up by the catch-up after it.
+    private void install(ColumnTable loaded, long seq) {
+        long caughtUp = replay(loaded, seq);
+        lock.writeLock().lock();
+        try {
+            appliedSeq = caughtUp;
+            table = loaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        catchUp();
+    }
+
+    // One catch-up per transaction however many rows it wrote; the log already holds all of them at commit.
+    @EventListener(classes = {ExamResultChangedEvent.class, StudentChangedEvent.class, StudentBatchChangedEvent.class,
+            CourseChangedEvent.class})
+    public void onChange() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            catchUp();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                catchUp();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ColumnarExamResults.this);
+            }
+        });
+    }
+
+    // Also covers writes that raise no entity events, such as raw SQL.
+    // The log is read before taking the lock, so readers only wait for the entries to be applied.
+    @Scheduled(fixedDelayString = "${app.snapshot.catch-up-interval-ms:5000}")
+    public void catchUp() {
+        List<LogEntry> batch;
+        do {
+            batch = readLog(appliedSeq);
+            if (batch.isEmpty()) return;
+            lock.writeLock().lock();
+            try {
+                appliedSeq = apply(table, appliedSeq, batch);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } while (batch.size() == LOG_BATCH);
+    }
+
+    @Scheduled(fixedDelayString = "${app.snapshot.interval-ms:300000}", initialDelayString = "${app.snapshot.interval-ms:300000}")
+    public void snapshotPeriodically() {
+        if (snapshotEnabled) {
+            writeSnapshot();
+        } else {
+            pruneLog();
+        }
+    }
+
+    // Without snapshots a restart reloads the tables, so applied entries are never read again.
+    public int pruneLog() {
+        return jdbcTemplate.update("DELETE FROM change_log WHERE seq <= ?", appliedSeq);
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void snapshotOnShutdown() {
+        if (snapshotEnabled) {
+            catchUp();
+            writeSnapshot();
+        }
+    }
+
+    // Copies the live columns under the read lock and writes the file after releasing it,
+    // so catch-ups on the writer thread and analytics readers never wait for the disk.
+    public synchronized boolean writeSnapshot() {
+        ColumnTable image;
+        long seq;
+        lock.readLock().lock();
+        try {
+            seq = appliedSeq;
+            image = table.liveCopy();
+        } finally {
+            lock.readLock().unlock();
+        }
+        try {
+            ColumnarSnapshot.write(snapshotPath, image, seq);
+        } catch (IOException e) {
+            log.warn("Could not write analytics snapshot {}: {}", snapshotPath, e.getMessage());
+            return false;
+        }
+        // entries up to seq are now covered by the snapshot
+        jdbcTemplate.update("DELETE FROM change_log WHERE seq <= ?", seq);
+        return true;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return table.rows - table.deletedRows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Group> aggregate(AnalyticsQuery query) {
+        lock.readLock().lock();
+        try {
+            ColumnTable t = table;
+            int course = query.courseId() == null ? -1 : t.courses.find(query.courseId());
+            int student = query.studentId() == null ? -1 : t.students.find(query.studentId());
+            if (query.courseId() != null && course < 0 || query.studentId() != null && student < 0) {
+                return List.of();
+            }
+            int groups = switch (query.groupBy()) {
+                case COURSE -> t.courses.size();
+                case STUDENT -> t.students.size();
+                case DAY, WEEK, MONTH -> t.rows == 0 ? 0 : (int) (t.maxDay - t.minDay + 1);
+            };
+            if (groups == 0) {
+                return List.of();
+            }
+            int parallelism = ForkJoinPool.getCommonPoolParallelism() * (groups > WIDE_GROUPS ? 1 : 4);
+            int chunk = Math.max(MIN_CHUNK, (t.rows + parallelism - 1) / parallelism);
+            Scan scan = new Scan(t, query, course, student, groups, chunk, 0, t.rows);
+            Partial totals = ForkJoinPool.commonPool().invoke(scan);
+            return toGroups(t, query.groupBy(), totals);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<Group> toGroups(ColumnTable t, GroupBy groupBy, Partial totals) {
+        if (groupBy == GroupBy.COURSE || groupBy == GroupBy.STUDENT) {
+            NameDictionary names = groupBy == GroupBy.COURSE ? t.courses : t.students;
+            List<Group> groups = new ArrayList<>();
+            for (int g = 0; g < totals.count.length; g++) {
+                if (totals.count[g] > 0) {
+                    groups.add(new Group(String.valueOf(names.id(g)), names.name(g),
+                            totals.count[g], totals.sum[g], totals.passed[g]));
+                }
+            }
+            groups.sort((a, b) -> Long.compare(Long.parseLong(a.key()), Long.parseLong(b.key())));
+            return groups;
+        }
+        // Days ascend, so folding them into weeks or months keeps buckets in order.
+        Map<String, long[]> buckets = new LinkedHashMap<>();
+        for (int g = 0; g < totals.count.length; g++) {
+            if (totals.count[g] == 0) continue;
+            LocalDate day = LocalDate.ofEpochDay(t.minDay + g);
+            String key = switch (groupBy) {
+                case WEEK -> day.with(DayOfWeek.MONDAY).toString();
+                case MONTH -> YearMonth.from(day).toString();
+                default -> day.toString();
+            };
+            long[] bucket = buckets.computeIfAbsent(key, k -> new long[3]);
+            bucket[0] += totals.count[g];
+            bucket[1] += totals.sum[g];
+            bucket[2] += totals.passed[g];
+        }
+        List<Group> groups = new ArrayList<>();
+        buckets.forEach((key, b) -> groups.add(new Group(key, key, b[0], b[1], b[2])));
+        return groups;
+    }
+
+    // Brings a table that is not published yet up to the end of the log.
+    private long replay(ColumnTable t, long afterSeq) {
+        List<LogEntry> batch;
+        do {
+            batch = readLog(afterSeq);
+            afterSeq = apply(t, afterSeq, batch);
+        } while (batch.size() == LOG_BATCH);
+        return afterSeq;
+    }
+
+    private List<LogEntry> readLog(long afterSeq) {
+        return jdbcTemplate.query(READ_LOG, (rs, n) -> new LogEntry(rs.getLong(1), rs.getString(2), rs.getString(3),
+                rs.getLong(4), rs.getLong(5), rs.getLong(6), rs.getInt(7), rs.getLong(8), rs.getString(9)),
+                afterSeq, LOG_BATCH);
+    }
+
+    // Entries at or below appliedSeq were applied by a concurrent catch-up and are skipped.
+    private static long apply(ColumnTable t, long appliedSeq, List<LogEntry> entries) {
+        for (LogEntry e : entries) {
+            if (e.seq() <= appliedSeq) continue;
+            appliedSeq = e.seq();
+            switch (e.entity()) {
+                case "exam_result" -> {
+                    if ("D".equals(e.op())) {
+                        int row = t.find(e.id());
+                        if (row >= 0) t.delete(row);
+                    } else {
+                        t.insert(e.id(), t.students.encode(e.studentId()), t.courses.encode(e.courseId()),
+                                e.score(), e.createdAt());
+                    }
+                }
+                // deleted students and courses keep their dictionary entry; their results are logged one by one
+                case "student" -> { if (!"D".equals(e.op())) t.students.rename(e.id(), e.name()); }
+                case "course" -> { if (!"D".equals(e.op())) t.courses.rename(e.id(), e.name()); }
+                default -> { }
+            }
+        }
+        t.compactIfSparse();
+        return appliedSeq;
+    }
+
+    private static final class Partial {
+        final long[] count;
+        final long[] sum;
+        final long[] passed;
+
+        Partial(int groups) {
+            count = new long[groups];
+            sum = new long[groups];
+            passed = new long[groups];
+        }
+
+        Partial merge(Partial other) {
+            for (int g = 0; g < count.length; g++) {
+                count[g] += other.count[g];
+                sum[g] += other.sum[g];
+                passed[g] += other.passed[g];
+            }
+            return this;
+        }
+    }
+
+    private static final class Scan extends RecursiveTask<Partial> {
+        private final ColumnTable t;
+        private final AnalyticsQuery query;
+        private final int course;
+        private final int student;
+        private final int groups;
+        private final int chunk;
+        private final int from;
+        private final int to;
+
+        Scan(ColumnTable t, AnalyticsQuery query, int course, int student, int groups, int chunk, int from, int to) {
+            this.t = t;
+            this.query = query;
+            this.course = course;
+            this.student = student;
+            this.groups = groups;
+            this.chunk = chunk;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from > chunk) {
+                int mid = (from + to) >>> 1;
+                Scan left = new Scan(t, query, course, student, groups, chunk, from, mid);
+                left.fork();
+                Partial right = new Scan(t, query, course, student, groups, chunk, mid, to).compute();
+                return left.join().merge(right);
+            }
+            Partial partial = new Partial(groups);
+            long fromMillis = query.fromMillis() == null ? Long.MIN_VALUE : query.fromMillis();
+            long toMillis = query.toMillis() == null ? Long.MAX_VALUE : query.toMillis();
+            int passScore = query.passScore();
+            GroupBy groupBy = query.groupBy();
+            for (int row = from; row < to; row++) {
+                if (t.deleted[row]) continue;
+                if (course >= 0 && t.courseCodes[row] != course) continue;
+                if (student >= 0 && t.studentCodes[row] != student) continue;
+                long created = t.createdAt[row];
+                if (created < fromMillis || created >= toMillis) continue;
+                int g = switch (groupBy) {
+                    case COURSE -> t.courseCodes[row];
+                    case STUDENT -> t.studentCodes[row];
+                    default -> (int) (Math.floorDiv(created, DAY_MILLIS) - t.minDay);
+                };
+                int score = t.scores[row];
+                partial.count[g]++;
+                partial.sum[g] += score;
+                if (score >= passScore) partial.passed[g]++;
+            }
+            return partial;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.iqb.interviewpoc.store;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * On-disk image of a {@link ColumnTable}: a fixed header, the live rows
+ * column by column, both dictionaries in code order and a CRC32 of the
+ * payload. Files are streamed through a fixed-size buffer into a temp file
+ * and moved into place atomically; a restore checks the CRC in one
+ * sequential pass and then bulk-copies each column from a second one. No
+ * step maps or addresses the whole file at once, so snapshots are not
+ * limited to 2 GB.
+ */
+final class ColumnarSnapshot {
+
+    private static final int MAGIC = 0x49514243;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 4 + 4 + 8;
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    record Restored(ColumnTable table, long seq) {
+    }
+
+    private ColumnarSnapshot() {
+    }
+
+    static void write(Path path, ColumnTable table, long seq) throws IOException {
+        int live = table.rows - table.deletedRows;
+        byte[][] studentNames = encodeNames(table.students);
+        byte[][] courseNames = encodeNames(table.courses);
+        long payload = (long) live * (8 + 4 + 4 + 4 + 8)
+                + dictionaryBytes(studentNames) + dictionaryBytes(courseNames);
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Sink out = new Sink(channel);
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putLong(seq);
+            out.putInt(live);
+            out.putInt(studentNames.length);
+            out.putInt(courseNames.length);
+            out.putLong(payload);
+            out.startChecksum();
+            for (int row = 0; row < table.rows; row++) {
+                if (!table.deleted[row]) out.putLong(table.ids[row]);
+            }
+            for (int row = 0; row < table.rows; row++) {
+                if (!table.deleted[row]) out.putInt(table.studentCodes[row]);
+            }
+            for (int row = 0; row < table.rows; row++) {
+                if (!table.deleted[row]) out.putInt(table.courseCodes[row]);
+            }
+            for (int row = 0; row < table.rows; row++) {
+                if (!table.deleted[row]) out.putInt(table.scores[row]);
+            }
+            for (int row = 0; row < table.rows; row++) {
+                if (!table.deleted[row]) out.putLong(table.createdAt[row]);
+            }
+            putDictionary(out, table.students, studentNames);
+            putDictionary(out, table.courses, courseNames);
+            out.putLong(out.endChecksum());
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static Restored read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + 8) {
+                throw new IOException("snapshot truncated");
+            }
+            Source in = new Source(channel, 0);
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                throw new IOException("not a version " + VERSION + " snapshot");
+            }
+            long seq = in.getLong();
+            int rows = in.getInt();
+            int students = in.getInt();
+            int courses = in.getInt();
+            long payload = in.getLong();
+            if (rows < 0 || students < 0 || courses < 0 || HEADER_BYTES + payload + 8 != size) {
+                throw new IOException("snapshot header does not match file size");
+            }
+            if (checksum(channel, payload) != new Source(channel, HEADER_BYTES + payload).getLong()) {
+                throw new IOException("snapshot checksum mismatch");
+            }
+            try {
+                ColumnTable table = new ColumnTable(rows);
+                in.getLongs(table.ids, rows);
+                in.getInts(table.studentCodes, rows);
+                in.getInts(table.courseCodes, rows);
+                in.getInts(table.scores, rows);
+                in.getLongs(table.createdAt, rows);
+                table.rows = rows;
+                for (int row = 0; row < rows; row++) {
+                    long day = Math.floorDiv(table.createdAt[row], ColumnarExamResults.DAY_MILLIS);
+                    table.minDay = Math.min(table.minDay, day);
+                    table.maxDay = Math.max(table.maxDay, day);
+                }
+                getDictionary(in, table.students, students);
+                getDictionary(in, table.courses, courses);
+                return new Restored(table, seq);
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+                throw new IOException("snapshot payload is malformed", e);
+            }
+        }
+    }
+
+    private static byte[][] encodeNames(NameDictionary dictionary) {
+        byte[][] names = new byte[dictionary.size()][];
+        for (int code = 0; code < names.length; code++) {
+            String name = dictionary.name(code);
+            names[code] = name == null ? null : name.getBytes(StandardCharsets.UTF_8);
+        }
+        return names;
+    }
+
+    private static long dictionaryBytes(byte[][] names) {
+        long bytes = 0;
+        for (byte[] name : names) {
+            bytes += 8 + 4 + (name == null ? 0 : name.length);
+        }
+        return bytes;
+    }
+
+    private static void putDictionary(Sink out, NameDictionary dictionary, byte[][] names) throws IOException {
+        for (int code = 0; code < names.length; code++) {
+            out.putLong(dictionary.id(code));
+            if (names[code] == null) {
+                out.putInt(-1);
+            } else {
+                out.putInt(names[code].length);
+                out.put(names[code]);
+            }
+        }
+    }
+
+    // Codes are assigned in encounter order, so renaming in file order restores them unchanged.
+    private static void getDictionary(Source in, NameDictionary dictionary, int size) throws IOException {
+        for (int code = 0; code < size; code++) {
+            long id = in.getLong();
+            int length = in.getInt();
+            String name = null;
+            if (length >= 0) {
+                name = new String(in.getBytes(length), StandardCharsets.UTF_8);
+            }
+            dictionary.rename(id, name);
+        }
+    }
+
+    private static long checksum(FileChannel channel, long payload) throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        long position = HEADER_BYTES;
+        long end = HEADER_BYTES + payload;
+        while (position < end) {
+            buffer.clear().limit((int) Math.min(BUFFER_BYTES, end - position));
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("snapshot truncated");
+            }
+            position += read;
+            crc.update(buffer.flip());
+        }
+        return crc.getValue();
+    }
+
+    // Buffered writes to the channel; bytes between startChecksum and endChecksum are fed to a CRC32.
+    private static final class Sink {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private CRC32 crc;
+
+        Sink(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            room(4).putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            room(8).putLong(value);
+        }
+
+        void put(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                int n = Math.min(bytes.length - offset, room(1).remaining());
+                buffer.put(bytes, offset, n);
+                offset += n;
+            }
+        }
+
+        void startChecksum() throws IOException {
+            flush();
+            crc = new CRC32();
+        }
+
+        long endChecksum() throws IOException {
+            flush();
+            long value = crc.getValue();
+            crc = null;
+            return value;
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            if (crc != null) {
+                crc.update(buffer.duplicate());
+            }
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private ByteBuffer room(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+            return buffer;
+        }
+    }
+
+    // Buffered positional reads from the channel, starting at the given offset.
+    private static final class Source {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).limit(0);
+        private long position;
+
+        Source(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        int getInt() throws IOException {
+            return fill(4).getInt();
+        }
+
+        long getLong() throws IOException {
+            return fill(8).getLong();
+        }
+
+        byte[] getBytes(int length) throws IOException {
+            byte[] bytes = new byte[length];
+            int offset = 0;
+            while (offset < length) {
+                int n = Math.min(length - offset, fill(1).remaining());
+                buffer.get(bytes, offset, n);
+                offset += n;
+            }
+            return bytes;
+        }
+
+        void getLongs(long[] target, int count) throws IOException {
+            for (int offset = 0; offset < count; ) {
+                int n = Math.min(count - offset, fill(8).remaining() / 8);
+                buffer.asLongBuffer().get(target, offset, n);
+                buffer.position(buffer.position() + n * 8);
+                offset += n;
+            }
+        }
+
+        void getInts(int[] target, int count) throws IOException {
+            for (int offset = 0; offset < count; ) {
+                int n = Math.min(count - offset, fill(4).remaining() / 4);
+                buffer.asIntBuffer().get(target, offset, n);
+                buffer.position(buffer.position() + n * 4);
+                offset += n;
+            }
+        }
+
+        // Ensures at least the given number of bytes are buffered.
+        private ByteBuffer fill(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return buffer;
+            }
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new BufferUnderflowException();
+                }
+                position += read;
+            }
+            return buffer.flip();
+        }
+    }
+}
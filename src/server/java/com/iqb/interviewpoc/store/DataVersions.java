@@ -0,0 +1,108 @@
+package com.iqb.interviewpoc.store;
+
+import com.iqb.interviewpoc.event.CourseChangedEvent;
+import com.iqb.interviewpoc.event.ExamResultChangedEvent;
+import com.iqb.interviewpoc.event.StudentBatchChangedEvent;
+import com.iqb.interviewpoc.event.StudentChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic data versions, globally, per entity type and per student. Every
+ * bump draws from the global counter, so the newest of several versions
+ * identifies the combined state. Bumps run after transaction completion,
+ * i.e. after the in-memory stores have applied the same change, so a new
+ * version is never paired with stale data. The epoch keeps versions from
+ * colliding across restarts.
+ */
+@Component
+public class DataVersions {
+
+    public enum Scope { STUDENT, COURSE, EXAM_RESULT }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong global = new AtomicLong();
+    private final Map<Scope, AtomicLong> byScope = new EnumMap<>(Scope.class);
+    private final Map<Long, Long> byStudent = new ConcurrentHashMap<>();
+
+    public DataVersions() {
+        for (Scope scope : Scope.values()) {
+            byScope.put(scope, new AtomicLong());
+        }
+    }
+
+    public String epoch() {
+        return epoch;
+    }
+
+    public long global() {
+        return global.get();
+    }
+
+    public long scope(Scope scope) {
+        return byScope.get(scope).get();
+    }
+
+    public long student(long studentId) {
+        return byStudent.getOrDefault(studentId, 0L);
+    }
+
+    // For writes that bypass the entity events; applies once the current transaction completes.
+    public void invalidate() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bumpAll();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                bumpAll();
+            }
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onExamResultChanged(ExamResultChangedEvent event) {
+        long version = bump(Scope.EXAM_RESULT);
+        byStudent.merge(event.studentId(), version, Math::max);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event) {
+        long version = bump(Scope.STUDENT);
+        byStudent.merge(event.id(), version, Math::max);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onStudentsChanged(StudentBatchChangedEvent event) {
+        long version = bump(Scope.STUDENT);
+        for (StudentChangedEvent change : event.changes()) {
+            byStudent.merge(change.id(), version, Math::max);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        bump(Scope.COURSE);
+    }
+
+    private void bumpAll() {
+        for (Scope scope : Scope.values()) {
+            bump(scope);
+        }
+    }
+
+    private long bump(Scope scope) {
+        long version = global.incrementAndGet();
+        byScope.get(scope).accumulateAndGet(version, Math::max);
+        return version;
+    }
+}
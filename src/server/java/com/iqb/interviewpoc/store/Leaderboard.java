@@ -0,0 +1,84 @@
+package com.iqb.interviewpoc.store;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Students ordered by average score (highest first, ties by id). Ranks use
+ * competition ranking: students with equal averages share a rank.
+ * Not thread-safe; {@link LeaderboardStore} guards access.
+ */
+public class Leaderboard {
+
+    public record Standing(long studentId, long scoreSum, int scoreCount) {
+        public double average() {
+            return (double) scoreSum / scoreCount;
+        }
+    }
+
+    public record RankedStanding(int rank, Standing standing) {}
+
+    public record Slice(long total, List<RankedStanding> entries) {}
+
+    private static final Comparator<Standing> ORDER = Comparator
+            .comparingDouble(Standing::average).reversed()
+            .thenComparingLong(Standing::studentId);
+
+    private final Map<Long, Standing> byStudent = new HashMap<>();
+    private final OrderStatisticTree<Standing> ranking = new OrderStatisticTree<>(ORDER);
+
+    public void adjust(long studentId, long sumDelta, int countDelta) {
+        Standing current = byStudent.remove(studentId);
+        long sum = sumDelta;
+        int count = countDelta;
+        if (current != null) {
+            ranking.remove(current);
+            sum += current.scoreSum();
+            count += current.scoreCount();
+        }
+        if (count > 0) {
+            Standing updated = new Standing(studentId, sum, count);
+            byStudent.put(studentId, updated);
+            ranking.add(updated);
+        }
+    }
+
+    public void removeStudent(long studentId) {
+        Standing current = byStudent.remove(studentId);
+        if (current != null) {
+            ranking.remove(current);
+        }
+    }
+
+    public int size() {
+        return ranking.size();
+    }
+
+    public Collection<Standing> standings() {
+        return List.copyOf(byStudent.values());
+    }
+
+    public Optional<RankedStanding> find(long studentId) {
+        Standing standing = byStudent.get(studentId);
+        return standing == null ? Optional.empty() : Optional.of(new RankedStanding(rankOf(standing), standing));
+    }
+
+    public Slice slice(int offset, int limit) {
+        List<RankedStanding> entries = new ArrayList<>();
+        for (Standing standing : ranking.range(offset, limit)) {
+            entries.add(new RankedStanding(rankOf(standing), standing));
+        }
+        return new Slice(ranking.size(), entries);
+    }
+
+    private int rankOf(Standing standing) {
+        // Probe sorts before every student with the same average.
+        Standing probe = new Standing(Long.MIN_VALUE, standing.scoreSum(), standing.scoreCount());
+        return ranking.countBefore(probe) + 1;
+    }
+}
@@ -0,0 +1,126 @@
+package com.iqb.interviewpoc.store;
+
+import com.iqb.interviewpoc.event.ChangeType;
+import com.iqb.interviewpoc.event.CourseChangedEvent;
+import com.iqb.interviewpoc.event.ExamResultChangedEvent;
+import com.iqb.interviewpoc.event.StudentBatchChangedEvent;
+import com.iqb.interviewpoc.event.StudentChangedEvent;
+import com.iqb.interviewpoc.repository.ExamResultRepository;
+import com.iqb.interviewpoc.repository.StudentCourseTotalProjection;
+import com.iqb.interviewpoc.store.Leaderboard.RankedStanding;
+import com.iqb.interviewpoc.store.Leaderboard.Slice;
+import com.iqb.interviewpoc.store.Leaderboard.Standing;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Component
+public class LeaderboardStore {
+
+    private final ExamResultRepository examResultRepository;
+    private final PendingExamResults pending;
+
+    private Leaderboard global = new Leaderboard();
+    private Map<Long, Leaderboard> byCourse = new HashMap<>();
+
+    public LeaderboardStore(ExamResultRepository examResultRepository,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager) {
+        this.examResultRepository = examResultRepository;
+        this.pending = new PendingExamResults(jdbcTemplate, transactionManager);
+    }
+
+    // Writes keep arriving during the load; the ones it did not see are replayed onto the loaded boards.
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            pending.start();
+        }
+        while (true) {
+            Leaderboard all = new Leaderboard();
+            Map<Long, Leaderboard> courses = new HashMap<>();
+            long seq = pending.load(() -> {
+                for (StudentCourseTotalProjection row : examResultRepository.findStudentCourseTotals()) {
+                    courses.computeIfAbsent(row.getCourseId(), id -> new Leaderboard())
+                            .adjust(row.getStudentId(), row.getScoreSum(), row.getTotal());
+                    all.adjust(row.getStudentId(), row.getScoreSum(), row.getTotal());
+                }
+            });
+            synchronized (this) {
+                List<ExamResultChangedEvent> unseen = pending.unseen(seq);
+                if (unseen != null) {
+                    global = all;
+                    byCourse = courses;
+                    unseen.forEach(this::apply);
+                    return;
+                }
+            }
+        }
+    }
+
+    public synchronized Slice slice(Long courseId, int offset, int limit) {
+        Leaderboard board = board(courseId);
+        return board == null ? new Slice(0, List.of()) : board.slice(offset, limit);
+    }
+
+    public synchronized Optional<RankedStanding> find(Long courseId, long studentId) {
+        Leaderboard board = board(courseId);
+        return board == null ? Optional.empty() : board.find(studentId);
+    }
+
+    private Leaderboard board(Long courseId) {
+        return courseId == null ? global : byCourse.get(courseId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onExamResultChanged(ExamResultChangedEvent event) {
+        apply(event);
+        pending.hold(event);
+    }
+
+    private void apply(ExamResultChangedEvent event) {
+        long sumDelta = (event.newScore() == null ? 0 : event.newScore())
+                - (event.oldScore() == null ? 0 : event.oldScore());
+        int countDelta = switch (event.type()) {
+            case CREATED -> 1;
+            case DELETED -> -1;
+            case UPDATED -> 0;
+        };
+        global.adjust(event.studentId(), sumDelta, countDelta);
+        byCourse.computeIfAbsent(event.courseId(), id -> new Leaderboard())
+                .adjust(event.studentId(), sumDelta, countDelta);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStudentChanged(StudentChangedEvent event) {
+        if (event.type() == ChangeType.DELETED) {
+            global.removeStudent(event.id());
+            byCourse.values().forEach(board -> board.removeStudent(event.id()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStudentsChanged(StudentBatchChangedEvent event) {
+        event.changes().forEach(this::onStudentChanged);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCourseChanged(CourseChangedEvent event) {
+        if (event.type() == ChangeType.DELETED) {
+            Leaderboard removed = byCourse.remove(event.id());
+            if (removed != null) {
+                for (Standing standing : removed.standings()) {
+                    global.adjust(standing.studentId(), -standing.scoreSum(), -standing.scoreCount());
+                }
+            }
+        }
+    }
+}
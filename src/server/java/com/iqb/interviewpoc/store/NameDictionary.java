@@ -0,0 +1,64 @@
+package com.iqb.interviewpoc.store;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dictionary encoding for entity names: each entity id gets a dense int code
+ * so column scans can group into plain arrays instead of hash maps.
+ * Not thread-safe; {@link ColumnarExamResults} guards access.
+ */
+public class NameDictionary {
+
+    private final Map<Long, Integer> codes = new HashMap<>();
+    private long[] ids = new long[64];
+    private String[] names = new String[64];
+    private int size;
+
+    public int encode(long id) {
+        Integer code = codes.get(id);
+        if (code != null) {
+            return code;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            names = Arrays.copyOf(names, size * 2);
+        }
+        ids[size] = id;
+        codes.put(id, size);
+        return size++;
+    }
+
+    public void rename(long id, String name) {
+        // encode first: it may grow the array, and names[encode(id)] would write into the old one
+        int code = encode(id);
+        names[code] = name;
+    }
+
+    // -1 when the id has never been seen.
+    public int find(long id) {
+        return codes.getOrDefault(id, -1);
+    }
+
+    public long id(int code) {
+        return ids[code];
+    }
+
+    public String name(int code) {
+        return names[code];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public NameDictionary copy() {
+        NameDictionary copy = new NameDictionary();
+        copy.codes.putAll(codes);
+        copy.ids = Arrays.copyOf(ids, ids.length);
+        copy.names = Arrays.copyOf(names, names.length);
+        copy.size = size;
+        return copy;
+    }
+}
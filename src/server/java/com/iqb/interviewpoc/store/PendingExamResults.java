@@ -0,0 +1,95 @@
+package com.iqb.interviewpoc.store;
+
+import com.iqb.interviewpoc.event.ExamResultChangedEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exam result events a store receives while it reloads its totals from the
+ * database. The load runs in one read transaction together with the
+ * change_log position; a held event is newer than the load exactly when its
+ * write has a log entry past that position, so only those are replayed onto
+ * the loaded totals. If pruning has meanwhile removed log entries past the
+ * position, the store loads again, still holding every event. Not
+ * thread-safe: the owning store calls {@link #hold} and {@link #unseen}
+ * under its own lock, and {@code unseen} must run under that lock so no event
+ * is delivered between reading the log and the swap.
+ */
+final class PendingExamResults {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+    private List<ExamResultChangedEvent> held;
+
+    PendingExamResults(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    void start() {
+        held = new ArrayList<>();
+    }
+
+    void hold(ExamResultChangedEvent event) {
+        if (held != null) {
+            held.add(event);
+        }
+    }
+
+    // Runs the load and returns the log position it reflects.
+    long load(Runnable load) {
+        return readTransaction.execute(status -> {
+            long seq = lastAssignedSeq();
+            load.run();
+            return seq;
+        });
+    }
+
+    // The held events the load at seq did not see, in delivery order, and stops holding; null if the log was pruned past seq.
+    List<ExamResultChangedEvent> unseen(long seq) {
+        Map<String, Integer> newer = new HashMap<>();
+        long[] logged = new long[1];
+        jdbcTemplate.query("SELECT entity, op, entity_id FROM change_log WHERE seq > ?", rs -> {
+            logged[0]++;
+            if (rs.getString(1).equals("exam_result")) {
+                newer.merge(rs.getString(2) + rs.getLong(3), 1, Integer::sum);
+            }
+        }, seq);
+        // seq is never reused and pruning only removes a prefix, so a gap means entries past seq are gone
+        if (logged[0] < lastAssignedSeq() - seq) {
+            return null;
+        }
+        List<ExamResultChangedEvent> unseen = new ArrayList<>();
+        for (ExamResultChangedEvent event : held) {
+            String key = op(event) + event.id();
+            Integer entries = newer.get(key);
+            if (entries != null) {
+                unseen.add(event);
+                if (entries == 1) newer.remove(key); else newer.put(key, entries - 1);
+            }
+        }
+        held = null;
+        return unseen;
+    }
+
+    private long lastAssignedSeq() {
+        List<Long> seq = jdbcTemplate.queryForList(
+                "SELECT seq FROM sqlite_sequence WHERE name = 'change_log'", Long.class);
+        return seq.isEmpty() ? 0 : seq.get(0);
+    }
+
+    private static String op(ExamResultChangedEvent event) {
+        return switch (event.type()) {
+            case CREATED -> "I";
+            case UPDATED -> "U";
+            case DELETED -> "D";
+        };
+    }
+}
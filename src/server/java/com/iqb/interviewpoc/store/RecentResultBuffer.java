@@ -0,0 +1,91 @@
+package com.iqb.interviewpoc.store;
+
+import com.iqb.interviewpoc.event.ChangeType;
+import com.iqb.interviewpoc.event.ExamResultChangedEvent;
+import com.iqb.interviewpoc.repository.ExamResultRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ring of the most recently created exam result ids. Writers claim a slot
+ * with one atomic increment and overwrite the oldest id; readers scan the
+ * slots without locking. Writers only synchronize with the warm-up swap,
+ * which carries over ids created while it loaded. Ids of since-deleted
+ * results may linger until overwritten, so callers resolve ids against the
+ * database.
+ */
+@Component
+public class RecentResultBuffer {
+
+    private record Ring(AtomicLongArray slots, AtomicLong next) {}
+
+    private final ExamResultRepository examResultRepository;
+    private final int capacity;
+    private volatile Ring ring;
+
+    public RecentResultBuffer(ExamResultRepository examResultRepository,
+                              @Value("${app.recent-results.capacity:1000}") int capacity) {
+        this.examResultRepository = examResultRepository;
+        this.capacity = capacity;
+        this.ring = new Ring(new AtomicLongArray(capacity), new AtomicLong());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Ring warmed = new Ring(new AtomicLongArray(capacity), new AtomicLong());
+        List<Long> ids = examResultRepository.findIdsBefore(Long.MAX_VALUE, PageRequest.of(0, capacity));
+        for (int i = ids.size() - 1; i >= 0; i--) {
+            append(warmed, ids.get(i));
+        }
+        long loadedMax = ids.isEmpty() ? 0 : ids.get(0);
+        synchronized (this) {
+            // SQLite assigns ids in commit order, so results created during the load sort above loadedMax
+            long[] newer = Arrays.stream(idsBefore(Long.MAX_VALUE, capacity)).filter(id -> id > loadedMax).toArray();
+            for (int i = newer.length - 1; i >= 0; i--) {
+                append(warmed, newer[i]);
+            }
+            ring = warmed;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onExamResultChanged(ExamResultChangedEvent event) {
+        if (event.type() == ChangeType.CREATED) {
+            append(ring, event.id());
+        }
+    }
+
+    // Up to limit ids below the cursor, newest first.
+    public long[] idsBefore(long before, int limit) {
+        AtomicLongArray slots = ring.slots();
+        long[] ids = new long[slots.length()];
+        int n = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            long id = slots.get(i);
+            if (id > 0 && id < before) {
+                ids[n++] = id;
+            }
+        }
+        ids = Arrays.copyOf(ids, n);
+        Arrays.sort(ids);
+        long[] newest = new long[Math.min(limit, n)];
+        for (int i = 0; i < newest.length; i++) {
+            newest[i] = ids[n - 1 - i];
+        }
+        return newest;
+    }
+
+    private static void append(Ring ring, long id) {
+        int slot = (int) (ring.next().getAndIncrement() % ring.slots().length());
+        ring.slots().set(slot, id);
+    }
+}
@@ -0,0 +1,105 @@
+package com.iqb.interviewpoc.store;
+
+/**
+ * Exact score distribution: scores are constrained to 0..100, so one counter
+ * per possible value is enough to answer any percentile or bucket query.
+ * Not thread-safe; {@link ScoreHistogramStore} guards access and hands out copies.
+ */
+public class ScoreHistogram {
+
+    public static final int MAX_SCORE = 100;
+
+    private final int[] counts = new int[MAX_SCORE + 1];
+    private long total;
+    private long sum;
+
+    public void add(int score) {
+        counts[score]++;
+        total++;
+        sum += score;
+    }
+
+    public void add(int score, int times) {
+        counts[score] += times;
+        total += times;
+        sum += (long) score * times;
+    }
+
+    public void remove(int score) {
+        if (counts[score] == 0) {
+            return;
+        }
+        counts[score]--;
+        total--;
+        sum -= score;
+    }
+
+    public void subtract(ScoreHistogram other) {
+        for (int score = 0; score <= MAX_SCORE; score++) {
+            int removed = Math.min(counts[score], other.counts[score]);
+            counts[score] -= removed;
+            total -= removed;
+            sum -= (long) score * removed;
+        }
+    }
+
+    public ScoreHistogram copy() {
+        ScoreHistogram copy = new ScoreHistogram();
+        System.arraycopy(counts, 0, copy.counts, 0, counts.length);
+        copy.total = total;
+        copy.sum = sum;
+        return copy;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    public long sum() {
+        return sum;
+    }
+
+    public int count(int score) {
+        return counts[score];
+    }
+
+    public Double mean() {
+        return total == 0 ? null : (double) sum / total;
+    }
+
+    public Integer min() {
+        for (int score = 0; score <= MAX_SCORE; score++) {
+            if (counts[score] > 0) return score;
+        }
+        return null;
+    }
+
+    public Integer max() {
+        for (int score = MAX_SCORE; score >= 0; score--) {
+            if (counts[score] > 0) return score;
+        }
+        return null;
+    }
+
+    // Nearest-rank percentile: the smallest score with at least p% of results at or below it.
+    public Integer percentile(double p) {
+        if (total == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(p / 100.0 * total));
+        long seen = 0;
+        for (int score = 0; score <= MAX_SCORE; score++) {
+            seen += counts[score];
+            if (seen >= rank) return score;
+        }
+        return MAX_SCORE;
+    }
+
+    public long countBetween(int from, int to) {
+        long n = 0;
+        for (int score = Math.max(0, from); score <= Math.min(MAX_SCORE, to); score++) {
+            n += counts[score];
+        }
+        return n;
+    }
+}
@@ -0,0 +1,111 @@
+package com.iqb.interviewpoc.store;
+
+import com.iqb.interviewpoc.event.ChangeType;
+import com.iqb.interviewpoc.event.CourseChangedEvent;
+import com.iqb.interviewpoc.event.ExamResultChangedEvent;
+import com.iqb.interviewpoc.repository.CourseRepository;
+import com.iqb.interviewpoc.repository.ExamResultRepository;
+import com.iqb.interviewpoc.repository.ScoreCountProjection;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Component
+public class ScoreHistogramStore {
+
+    private final ExamResultRepository examResultRepository;
+    private final CourseRepository courseRepository;
+    private final PendingExamResults pending;
+
+    private Map<Long, ScoreHistogram> byCourse = new HashMap<>();
+    private ScoreHistogram global = new ScoreHistogram();
+
+    public ScoreHistogramStore(ExamResultRepository examResultRepository,
+                               CourseRepository courseRepository,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager) {
+        this.examResultRepository = examResultRepository;
+        this.courseRepository = courseRepository;
+        this.pending = new PendingExamResults(jdbcTemplate, transactionManager);
+    }
+
+    // Writes keep arriving during the load; the ones it did not see are replayed onto the loaded histograms.
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            pending.start();
+        }
+        while (true) {
+            Map<Long, ScoreHistogram> courses = new HashMap<>();
+            ScoreHistogram all = new ScoreHistogram();
+            long seq = pending.load(() -> load(courses, all));
+            synchronized (this) {
+                List<ExamResultChangedEvent> unseen = pending.unseen(seq);
+                if (unseen != null) {
+                    byCourse = courses;
+                    global = all;
+                    unseen.forEach(this::apply);
+                    return;
+                }
+            }
+        }
+    }
+
+    void load(Map<Long, ScoreHistogram> courses, ScoreHistogram all) {
+        for (Long courseId : courseRepository.findAllIds()) {
+            courses.put(courseId, new ScoreHistogram());
+        }
+        for (ScoreCountProjection row : examResultRepository.countScoresByCourse()) {
+            courses.computeIfAbsent(row.getCourseId(), id -> new ScoreHistogram())
+                    .add(row.getScore(), row.getTotal());
+            all.add(row.getScore(), row.getTotal());
+        }
+    }
+
+    public synchronized Optional<ScoreHistogram> course(long courseId) {
+        ScoreHistogram histogram = byCourse.get(courseId);
+        return histogram == null ? Optional.empty() : Optional.of(histogram.copy());
+    }
+
+    public synchronized ScoreHistogram global() {
+        return global.copy();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onExamResultChanged(ExamResultChangedEvent event) {
+        apply(event);
+        pending.hold(event);
+    }
+
+    private void apply(ExamResultChangedEvent event) {
+        ScoreHistogram course = byCourse.computeIfAbsent(event.courseId(), id -> new ScoreHistogram());
+        if (event.oldScore() != null) {
+            course.remove(event.oldScore());
+            global.remove(event.oldScore());
+        }
+        if (event.newScore() != null) {
+            course.add(event.newScore());
+            global.add(event.newScore());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCourseChanged(CourseChangedEvent event) {
+        if (event.type() == ChangeType.CREATED) {
+            byCourse.putIfAbsent(event.id(), new ScoreHistogram());
+        } else if (event.type() == ChangeType.DELETED) {
+            ScoreHistogram removed = byCourse.remove(event.id());
+            if (removed != null) {
+                global.subtract(removed);
+            }
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.iqb.interviewpoc.store;
+
+import com.iqb.interviewpoc.event.ChangeType;
+import com.iqb.interviewpoc.event.CourseChangedEvent;
+import com.iqb.interviewpoc.event.ExamResultChangedEvent;
+import com.iqb.interviewpoc.event.StudentBatchChangedEvent;
+import com.iqb.interviewpoc.event.StudentChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+
+/**
+ * LRU cache of search result id lists, keyed by entity, normalized term and
+ * sort; list pages are sliced out of the cached list. Only the first
+ * {@code app.search.cache.max-list-ids} ids of a result are kept, so a broad
+ * term costs a bounded read, and terms shorter than
+ * {@code app.search.cache.min-term-length} are not cached at all. A page the
+ * cached ids cannot answer, or whose total they do not know, is left to the
+ * caller's paged query. The cache is bounded by the total number of ids held
+ * rather than by entry count. A committed student or course write drops the
+ * entries of every entity whose search can match the changed row; exam result
+ * writes are applied to the cached lists instead (see
+ * {@link #onExamResultChanged}). Every write bumps a generation so a search
+ * that was already running when the write landed does not store its result.
+ */
+@Component
+public class SearchResultCache {
+
+    public enum Entity { STUDENT, COURSE, EXAM_RESULT }
+
+    // Exam result searches match student and course names, so those writes reach them too.
+    private static final Map<Entity, Set<Entity>> AFFECTED = Map.of(
+            Entity.STUDENT, Set.of(Entity.STUDENT, Entity.EXAM_RESULT),
+            Entity.COURSE, Set.of(Entity.COURSE, Entity.EXAM_RESULT));
+    // Per-entry bookkeeping charged on top of the ids, so many tiny lists still count.
+    private static final int ENTRY_WEIGHT = 16;
+    // Exam results created since an entry was loaded that it still has to check; past this it is dropped.
+    private static final int MAX_CREATED = 256;
+    private static final Pattern DIGITS = Pattern.compile("\\d+");
+
+    private record Key(Entity entity, String term, Sort sort) {}
+
+    // The first ids of a result in result order; complete when nothing was left out.
+    private static final class Entry {
+        final long[] ids;
+        final boolean complete;
+        final List<Long> created = new ArrayList<>();
+
+        Entry(long[] ids, boolean complete) {
+            this.ids = ids;
+            this.complete = complete;
+        }
+
+        long weight() {
+            return ids.length + ENTRY_WEIGHT;
+        }
+    }
+
+    private final boolean enabled;
+    private final long maxWeight;
+    private final int maxListIds;
+    private final int minTermLength;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Entity, Long> generations = new EnumMap<>(Entity.class);
+    private long weight;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bypasses;
+    private final Counter evictions;
+    private final Counter invalidations;
+    private final MeterRegistry meterRegistry;
+
+    public SearchResultCache(@Value("${app.search.cache.enabled:true}") boolean enabled,
+                             @Value("${app.search.cache.max-ids:200000}") long maxWeight,
+                             @Value("${app.search.cache.max-list-ids:1000}") int maxListIds,
+                             @Value("${app.search.cache.min-term-length:3}") int minTermLength,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxWeight = maxWeight;
+        this.maxListIds = maxListIds;
+        this.minTermLength = minTermLength;
+        for (Entity entity : Entity.values()) generations.put(entity, 0L);
+        this.hits = counter(meterRegistry, "hit");
+        this.misses = counter(meterRegistry, "miss");
+        this.bypasses = counter(meterRegistry, "bypass");
+        this.evictions = counter(meterRegistry, "eviction");
+        this.invalidations = counter(meterRegistry, "invalidation");
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Registered once constructed, so the gauge never sees a partly initialized cache.
+    @PostConstruct
+    void registerGauge() {
+        Gauge.builder("app.search.cache.ids", this, SearchResultCache::weight)
+                .description("Ids held by the search result cache, including per-entry overhead")
+                .register(meterRegistry);
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * The requested page of ids, or null when the caller has to run its own
+     * query: the cache is off, the term is too short, the page lies past the
+     * cached ids, or a total is needed and the result was longer than the
+     * cached ids. A returned {@link Page} carries the exact total; a bare
+     * slice is only handed out when {@code needsTotal} is false.
+     * {@code loader} reads up to the given number of ids in result order.
+     */
+    public Slice<Long> page(Entity entity, String term, Pageable pageable, boolean needsTotal, IntFunction<List<Long>> loader) {
+        return page(entity, term, pageable, needsTotal, loader, null);
+    }
+
+    /**
+     * As above for exam results, whose cached lists take in rows created after
+     * the load: {@code matching} returns which of the given new ids the term
+     * matches.
+     */
+    public Slice<Long> page(Entity entity, String term, Pageable pageable, boolean needsTotal,
+                            IntFunction<List<Long>> loader, UnaryOperator<List<Long>> matching) {
+        String normalized = term.trim().toLowerCase(Locale.ROOT);
+        if (!enabled || normalized.length() < minTermLength) {
+            bypasses.increment();
+            return null;
+        }
+        Key key = new Key(entity, normalized, pageable.getSort());
+        Entry entry;
+        List<Long> created;
+        long generation;
+        synchronized (this) {
+            entry = entries.get(key);
+            created = entry == null ? List.of() : List.copyOf(entry.created);
+            generation = generations.get(entity);
+        }
+        if (entry != null && !created.isEmpty()) {
+            entry = withCreated(entry, matching.apply(created));
+            store(key, entry, generation);
+        }
+        if (entry != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            List<Long> loaded = loader.apply(maxListIds + 1);
+            boolean complete = loaded.size() <= maxListIds;
+            entry = new Entry(loaded.stream().limit(maxListIds).mapToLong(Long::longValue).toArray(), complete);
+            store(key, entry, generation);
+        }
+        return slice(entry, pageable, needsTotal);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event) {
+        invalidate(Entity.STUDENT);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentsChanged(StudentBatchChangedEvent event) {
+        invalidate(Entity.STUDENT);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        invalidate(Entity.COURSE);
+    }
+
+    /**
+     * Exam result searches match the student name, the course name or the
+     * score, and a write only ever changes the score. So a deleted row is
+     * taken out of the lists holding it, a score change drops only the
+     * entries of numeric terms, and a created row is queued on every entry to
+     * be matched against its term on the next lookup.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onExamResultChanged(ExamResultChangedEvent event) {
+        generations.merge(Entity.EXAM_RESULT, 1L, Long::sum);
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> cached = it.next();
+            if (cached.getKey().entity() != Entity.EXAM_RESULT) continue;
+            Entry entry = cached.getValue();
+            boolean drop = switch (event.type()) {
+                case DELETED -> false;
+                case UPDATED -> DIGITS.matcher(cached.getKey().term()).matches();
+                case CREATED -> entry.created.size() >= MAX_CREATED;
+            };
+            if (drop) {
+                weight -= entry.weight();
+                it.remove();
+                invalidations.increment();
+            } else if (event.type() == ChangeType.DELETED) {
+                cached.setValue(without(entry, event.id()));
+                weight -= entry.weight() - cached.getValue().weight();
+            } else if (event.type() == ChangeType.CREATED) {
+                entry.created.add(event.id());
+            }
+        }
+    }
+
+    public synchronized long weight() {
+        return weight;
+    }
+
+    private synchronized void store(Key key, Entry entry, long generation) {
+        if (generations.get(key.entity()) != generation || entry.weight() > maxWeight) {
+            return;
+        }
+        Entry previous = entries.put(key, entry);
+        if (previous != null) weight -= previous.weight();
+        weight += entry.weight();
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            weight -= eldest.next().getValue().weight();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private synchronized void invalidate(Entity changed) {
+        Set<Entity> affected = AFFECTED.get(changed);
+        affected.forEach(entity -> generations.merge(entity, 1L, Long::sum));
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> entry = it.next();
+            if (affected.contains(entry.getKey().entity())) {
+                weight -= entry.getValue().weight();
+                it.remove();
+                invalidations.increment();
+            }
+        }
+    }
+
+    // Exam result lists run newest id first, so matching new rows go in front; the cap still holds.
+    private Entry withCreated(Entry entry, List<Long> matched) {
+        long[] ids = LongStream.concat(matched.stream().mapToLong(Long::longValue), Arrays.stream(entry.ids))
+                .map(id -> -id).sorted().map(id -> -id).distinct().toArray();
+        boolean complete = entry.complete && ids.length <= maxListIds;
+        return new Entry(ids.length > maxListIds ? Arrays.copyOf(ids, maxListIds) : ids, complete);
+    }
+
+    // Dropping an id from a truncated list still leaves a prefix of the result.
+    private static Entry without(Entry entry, long id) {
+        long[] ids = Arrays.stream(entry.ids).filter(kept -> kept != id).toArray();
+        if (ids.length == entry.ids.length) return entry;
+        Entry shorter = new Entry(ids, entry.complete);
+        shorter.created.addAll(entry.created);
+        return shorter;
+    }
+
+    private static Slice<Long> slice(Entry entry, Pageable pageable, boolean needsTotal) {
+        long[] ids = entry.ids;
+        if (pageable.isUnpaged()) {
+            return entry.complete ? new PageImpl<>(Arrays.stream(ids).boxed().toList(), pageable, ids.length) : null;
+        }
+        if (!entry.complete && (needsTotal || pageable.getOffset() + pageable.getPageSize() > ids.length)) {
+            return null;
+        }
+        int from = (int) Math.min(pageable.getOffset(), ids.length);
+        int to = Math.min(from + pageable.getPageSize(), ids.length);
+        List<Long> content = Arrays.stream(ids, from, to).boxed().toList();
+        return entry.complete ? new PageImpl<>(content, pageable, ids.length) : new SliceImpl<>(content, pageable, true);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("app.search.cache.calls")
+                .description("Search result cache lookups and removals by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
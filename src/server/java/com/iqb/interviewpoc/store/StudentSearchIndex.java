@@ -0,0 +1,423 @@
+package com.iqb.interviewpoc.store;
+
+import com.iqb.interviewpoc.entity.Student;
+import com.iqb.interviewpoc.event.ChangeType;
+import com.iqb.interviewpoc.event.StudentBatchChangedEvent;
+import com.iqb.interviewpoc.event.StudentChangedEvent;
+import com.iqb.interviewpoc.repository.StudentRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+/**
+ * Trigram inverted index over the student fields the search box matches:
+ * full name, number, email and GSM number. A term of three or more
+ * characters is looked up by intersecting the posting lists of its trigrams,
+ * so only students sharing every trigram are checked for a real substring
+ * match. Fields are indexed with two trailing padding characters, so every
+ * one- or two-character substring starts some trigram; shorter terms are
+ * answered from the union of the grams they prefix, found in the sorted gram
+ * map. Matches arrive in id order and only the requested page is kept, in a
+ * bounded heap for other sorts. Matching is case-insensitive and within a
+ * single field, like the LIKE query it replaces.
+ */
+@Component
+public class StudentSearchIndex {
+
+    private static final int GRAM = 3;
+    // Never typed into a search, so the padded grams only ever match as prefixes.
+    private static final String PADDING = "\0\0";
+    private static final Set<String> SORTABLE = Set.of("id", "fullName", "number", "email", "gsmNumber");
+
+    private final StudentRepository studentRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Long, Doc> docs = new HashMap<>();
+    private NavigableMap<String, Postings> postings = new TreeMap<>();
+    // Changes delivered while a rebuild loads, replayed onto the loaded index; null when none is running.
+    private List<StudentChangedEvent> arrived;
+
+    private record Doc(long id, String fullName, Integer number, String email, String gsmNumber, String[] fields) {
+
+        static Doc of(long id, String fullName, Integer number, String email, String gsmNumber) {
+            return new Doc(id, fullName, number, email, gsmNumber, new String[]{
+                    lower(fullName), number == null ? null : number.toString(), lower(email), lower(gsmNumber)});
+        }
+
+        boolean contains(String term) {
+            for (String field : fields) {
+                if (field != null && field.contains(term)) return true;
+            }
+            return false;
+        }
+    }
+
+    public StudentSearchIndex(StudentRepository studentRepository) {
+        this.studentRepository = studentRepository;
+    }
+
+    // Events carry the full row, so replaying one the load already saw leaves the same document.
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            arrived = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Map<Long, Doc> loadedDocs = new HashMap<>();
+        Map<String, Postings> loadedPostings = new HashMap<>();
+        try {
+            for (Student s : studentRepository.findAll(Sort.by("id"))) {
+                Doc doc = Doc.of(s.getId(), s.getFullName(), s.getNumber(), s.getEmail(), s.getGsmNumber());
+                loadedDocs.put(doc.id(), doc);
+                for (String gram : grams(doc)) {
+                    loadedPostings.computeIfAbsent(gram, g -> new Postings()).add(doc.id());
+                }
+            }
+        } catch (RuntimeException e) {
+            // the live index stays as it was, already carrying every delivered change
+            lock.writeLock().lock();
+            try {
+                arrived = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            docs = loadedDocs;
+            postings = new TreeMap<>(loadedPostings);
+            merge(arrived);
+            arrived = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event) {
+        apply(List.of(event));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentsChanged(StudentBatchChangedEvent event) {
+        apply(event.changes());
+    }
+
+    private void apply(List<StudentChangedEvent> changes) {
+        lock.writeLock().lock();
+        try {
+            if (arrived != null) arrived.addAll(changes);
+            merge(changes);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Each gram's posting list is merged once per batch with the ids that gained or lost it. Caller holds the write lock.
+    private void merge(List<StudentChangedEvent> changes) {
+        Map<Long, Doc> before = new HashMap<>();
+        for (StudentChangedEvent event : changes) {
+            Doc previous = event.type() == ChangeType.DELETED ? docs.remove(event.id())
+                    : docs.put(event.id(), Doc.of(event.id(), event.fullName(), event.number(), event.email(), event.gsmNumber()));
+            if (!before.containsKey(event.id())) before.put(event.id(), previous);
+        }
+        Map<String, Postings> removed = new HashMap<>();
+        Map<String, Postings> added = new HashMap<>();
+        for (long id : before.keySet().stream().mapToLong(Long::longValue).sorted().toArray()) {
+            Set<String> was = grams(before.get(id));
+            Set<String> is = grams(docs.get(id));
+            for (String gram : was) {
+                if (!is.contains(gram)) removed.computeIfAbsent(gram, g -> new Postings()).add(id);
+            }
+            for (String gram : is) {
+                if (was.contains(gram)) continue;
+                // ids are visited in ascending order, so a new highest id can be appended in place
+                Postings list = postings.get(gram);
+                if (list == null || list.last() < id) {
+                    postings.computeIfAbsent(gram, g -> new Postings()).add(id);
+                } else {
+                    added.computeIfAbsent(gram, g -> new Postings()).add(id);
+                }
+            }
+        }
+        removed.forEach((gram, ids) -> {
+            Postings list = postings.get(gram);
+            if (list != null && list.removeAll(ids) == 0) postings.remove(gram);
+        });
+        added.forEach((gram, ids) -> postings.computeIfAbsent(gram, g -> new Postings()).addAll(ids));
+    }
+
+    // Sorting is done in memory, so only the indexed columns qualify.
+    public boolean supports(Sort sort) {
+        return sort.stream().allMatch(order -> SORTABLE.contains(order.getProperty()));
+    }
+
+    public Page<Long> search(String term, Pageable pageable) {
+        String needle = lower(term);
+        lock.readLock().lock();
+        try {
+            Matches matches = new Matches(pageable);
+            if (needle.length() < GRAM) {
+                List<Postings> lists = new ArrayList<>();
+                for (Map.Entry<String, Postings> entry : postings.tailMap(needle, true).entrySet()) {
+                    if (!entry.getKey().startsWith(needle)) break;
+                    lists.add(entry.getValue());
+                }
+                union(lists, id -> matches.add(docs.get(id)));
+            } else {
+                Postings[] lists = candidates(needle);
+                if (lists != null) {
+                    Postings shortest = lists[0];
+                    for (int i = 0; i < shortest.size; i++) {
+                        long id = shortest.ids[i];
+                        if (inAll(lists, id)) {
+                            Doc doc = docs.get(id);
+                            if (doc.contains(needle)) matches.add(doc);
+                        }
+                    }
+                }
+            }
+            return matches.page();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Posting lists for every trigram of the term, shortest first; null when one is missing.
+    private Postings[] candidates(String needle) {
+        Set<String> grams = new LinkedHashSet<>();
+        addGrams(needle, grams);
+        Postings[] lists = new Postings[grams.size()];
+        int i = 0;
+        for (String gram : grams) {
+            Postings list = postings.get(gram);
+            if (list == null) return null;
+            lists[i++] = list;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(p -> p.size));
+        return lists;
+    }
+
+    // Visits every id of the lists once, in ascending order.
+    private static void union(List<Postings> lists, LongConsumer action) {
+        PriorityQueue<Cursor> heap = new PriorityQueue<>(Math.max(1, lists.size()), Comparator.comparingLong(Cursor::current));
+        for (Postings list : lists) {
+            if (list.size > 0) heap.add(new Cursor(list));
+        }
+        long last = Long.MIN_VALUE;
+        while (!heap.isEmpty()) {
+            Cursor cursor = heap.poll();
+            long id = cursor.current();
+            if (id != last) action.accept(id);
+            last = id;
+            if (cursor.advance()) heap.add(cursor);
+        }
+    }
+
+    private static boolean inAll(Postings[] lists, long id) {
+        for (int i = 1; i < lists.length; i++) {
+            if (!lists[i].contains(id)) return false;
+        }
+        return true;
+    }
+
+    private static Set<String> grams(Doc doc) {
+        Set<String> grams = new LinkedHashSet<>();
+        if (doc == null) return grams;
+        for (String field : doc.fields()) {
+            if (field != null) addGrams(field + PADDING, grams);
+        }
+        return grams;
+    }
+
+    private static void addGrams(String text, Set<String> grams) {
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+    }
+
+    private static String lower(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static Comparator<Doc> comparator(Sort sort) {
+        Comparator<Doc> result = null;
+        for (Sort.Order order : sort) {
+            Comparator<Doc> next = switch (order.getProperty()) {
+                case "fullName" -> strings(Doc::fullName, order);
+                case "email" -> strings(Doc::email, order);
+                case "gsmNumber" -> strings(Doc::gsmNumber, order);
+                case "number" -> Comparator.comparing(Doc::number, Comparator.nullsFirst(Comparator.<Integer>naturalOrder()));
+                default -> Comparator.comparingLong(Doc::id);
+            };
+            if (order.isDescending()) next = next.reversed();
+            result = result == null ? next : result.thenComparing(next);
+        }
+        Comparator<Doc> byId = Comparator.comparingLong(Doc::id);
+        return result == null ? byId : result.thenComparing(byId);
+    }
+
+    private static Comparator<Doc> strings(Function<Doc, String> key, Sort.Order order) {
+        Comparator<String> natural = order.isIgnoreCase() ? String.CASE_INSENSITIVE_ORDER : Comparator.naturalOrder();
+        return Comparator.comparing(key, Comparator.nullsFirst(natural));
+    }
+
+    /**
+     * Collects matches arriving in ascending id order into one page. In id
+     * order the page is just a window of the stream; other sorts keep the
+     * best offset + size matches in a heap whose top is the worst of them.
+     */
+    private static final class Matches {
+
+        private final Pageable pageable;
+        private final Comparator<Doc> order;
+        private final boolean byIdAscending;
+        private final int keep;
+        private final List<Long> window = new ArrayList<>();
+        private final PriorityQueue<Doc> best;
+        private int total;
+
+        Matches(Pageable pageable) {
+            this.pageable = pageable;
+            this.order = comparator(pageable.getSort());
+            this.byIdAscending = pageable.getSort().stream()
+                    .allMatch(o -> o.getProperty().equals("id") && o.isAscending());
+            this.keep = pageable.isUnpaged() ? Integer.MAX_VALUE
+                    : (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+            this.best = byIdAscending ? null : new PriorityQueue<>(order.reversed());
+        }
+
+        void add(Doc doc) {
+            total++;
+            if (byIdAscending) {
+                if (pageable.isUnpaged() || (total > pageable.getOffset() && window.size() < pageable.getPageSize())) {
+                    window.add(doc.id());
+                }
+            } else if (best.size() < keep) {
+                best.add(doc);
+            } else if (order.compare(doc, best.peek()) < 0) {
+                best.poll();
+                best.add(doc);
+            }
+        }
+
+        Page<Long> page() {
+            List<Long> ids = window;
+            if (!byIdAscending) {
+                List<Doc> sorted = new ArrayList<>(best);
+                sorted.sort(order);
+                int from = pageable.isUnpaged() ? 0 : (int) Math.min(pageable.getOffset(), sorted.size());
+                ids = sorted.subList(from, sorted.size()).stream().map(Doc::id).toList();
+            }
+            return new PageImpl<>(ids, pageable, total);
+        }
+    }
+
+    private static final class Cursor {
+        private final Postings list;
+        private int at;
+
+        Cursor(Postings list) {
+            this.list = list;
+        }
+
+        long current() {
+            return list.ids[at];
+        }
+
+        boolean advance() {
+            return ++at < list.size;
+        }
+    }
+
+    // Sorted, growable id list; ids arrive mostly in increasing order, so adds are usually appends.
+    private static final class Postings {
+
+        long[] ids = new long[4];
+        int size;
+
+        void add(long id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int at = Arrays.binarySearch(ids, 0, size, id);
+                if (at >= 0) return;
+                insert(-at - 1, id);
+                return;
+            }
+            insert(size, id);
+        }
+
+        // Merges in another sorted list in one pass.
+        void addAll(Postings other) {
+            long[] merged = new long[size + other.size];
+            int i = 0, j = 0, n = 0;
+            while (i < size || j < other.size) {
+                if (j == other.size || (i < size && ids[i] < other.ids[j])) {
+                    merged[n++] = ids[i++];
+                } else {
+                    if (i < size && ids[i] == other.ids[j]) i++;
+                    merged[n++] = other.ids[j++];
+                }
+            }
+            ids = merged;
+            size = n;
+        }
+
+        // Drops every id of another sorted list in one pass; returns the size left.
+        int removeAll(Postings other) {
+            int n = 0;
+            for (int i = 0, j = 0; i < size; i++) {
+                while (j < other.size && other.ids[j] < ids[i]) j++;
+                if (j == other.size || other.ids[j] != ids[i]) ids[n++] = ids[i];
+            }
+            size = n;
+            return size;
+        }
+
+        long last() {
+            return size == 0 ? Long.MIN_VALUE : ids[size - 1];
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        private void insert(int at, long id) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+    }
+}
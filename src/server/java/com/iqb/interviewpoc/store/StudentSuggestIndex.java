@@ -0,0 +1,139 @@
+package com.iqb.interviewpoc.store;
+
+import com.iqb.interviewpoc.dto.StudentSuggestionDto;
+import com.iqb.interviewpoc.entity.Student;
+import com.iqb.interviewpoc.event.ChangeType;
+import com.iqb.interviewpoc.event.StudentBatchChangedEvent;
+import com.iqb.interviewpoc.event.StudentChangedEvent;
+import com.iqb.interviewpoc.repository.StudentRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * Sorted prefix index for the student picker. Every student is filed under
+ * its normalized full name, the rest of the name from each later word, its
+ * number and its email; a prefix lookup is one range scan over the sorted
+ * keys. Keys are lower-cased with diacritics stripped, so "ozt" finds
+ * "Öztürk". Reads take no lock; writers are serialized.
+ */
+@Component
+public class StudentSuggestIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    // Sorts below every character a key can contain, so all ids of one key sit together.
+    private static final char ID_SEPARATOR = '\u0000';
+
+    private final StudentRepository studentRepository;
+    private volatile ConcurrentSkipListMap<String, Long> keys = new ConcurrentSkipListMap<>();
+    private volatile Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    private record Entry(StudentSuggestionDto suggestion, List<String> keys) {
+    }
+
+    public StudentSuggestIndex(StudentRepository studentRepository) {
+        this.studentRepository = studentRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        ConcurrentSkipListMap<String, Long> loadedKeys = new ConcurrentSkipListMap<>();
+        Map<Long, Entry> loadedEntries = new ConcurrentHashMap<>();
+        for (Student s : studentRepository.findAll()) {
+            Entry entry = entry(s.getId(), s.getFullName(), s.getNumber(), s.getEmail());
+            loadedEntries.put(s.getId(), entry);
+            entry.keys().forEach(key -> loadedKeys.put(key, s.getId()));
+        }
+        keys = loadedKeys;
+        entries = loadedEntries;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStudentsChanged(StudentBatchChangedEvent event) {
+        event.changes().forEach(this::onStudentChanged);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStudentChanged(StudentChangedEvent event) {
+        if (event.type() == ChangeType.DELETED) {
+            Entry previous = entries.remove(event.id());
+            if (previous != null) {
+                previous.keys().forEach(keys::remove);
+            }
+            return;
+        }
+        // only keys that changed touch the sorted map; an unchanged row just swaps its entry
+        Entry entry = entry(event.id(), event.fullName(), event.number(), event.email());
+        Entry previous = entries.put(event.id(), entry);
+        List<String> stale = previous == null ? List.of() : previous.keys();
+        for (String key : stale) {
+            if (!entry.keys().contains(key)) keys.remove(key);
+        }
+        for (String key : entry.keys()) {
+            if (!stale.contains(key)) keys.put(key, event.id());
+        }
+    }
+
+    // Matches in key order; a student reached through several keys is listed once.
+    public List<StudentSuggestionDto> suggest(String prefix, int limit) {
+        String from = normalize(prefix);
+        List<StudentSuggestionDto> result = new ArrayList<>(limit);
+        if (from.isEmpty()) {
+            return result;
+        }
+        Set<Long> seen = new LinkedHashSet<>();
+        Map<Long, Entry> current = entries;
+        for (Long id : keys.subMap(from, from + Character.MAX_VALUE).values()) {
+            Entry entry = current.get(id);
+            if (entry != null && seen.add(id)) {
+                result.add(entry.suggestion());
+                if (result.size() == limit) break;
+            }
+        }
+        return result;
+    }
+
+    private static Entry entry(long id, String fullName, Integer number, String email) {
+        Set<String> terms = new LinkedHashSet<>();
+        String name = normalize(fullName);
+        if (!name.isEmpty()) {
+            terms.add(name);
+            for (int i = name.indexOf(' '); i >= 0; i = name.indexOf(' ', i + 1)) {
+                terms.add(name.substring(i + 1));
+            }
+        }
+        if (number != null) terms.add(number.toString());
+        String mail = normalize(email);
+        if (!mail.isEmpty()) terms.add(mail);
+
+        List<String> keys = terms.stream().map(term -> term + ID_SEPARATOR + id).toList();
+        return new Entry(new StudentSuggestionDto(id, fullName, number), keys);
+    }
+
+    static String normalize(String value) {
+        if (value == null) return "";
+        // ASCII has no combining marks, so only other text pays for the decomposition
+        String stripped = isAscii(value) ? value : MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(stripped.toLowerCase(Locale.ROOT).replace('ı', 'i')).replaceAll(" ").trim();
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) return false;
+        }
+        return true;
+    }
+}
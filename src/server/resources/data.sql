@@ -55,7 +55,7 @@ SELECT * FROM (VALUES
   ('Berke Oztürk',       1048, 'berke.ozturk@university.edu',       '+905301001048', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
   ('Yagmur Senturk',     1049, 'yagmur.senturk@university.edu',     '+905301001049', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
   ('Arda Duman',         1050, 'arda.duman@university.edu',         '+905301001050', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
-) WHERE NOT EXISTS (SELECT 1 FROM student LIMIT 1);
+) WHERE NOT EXISTS (SELECT 1 FROM student LIMIT 1)^;
 
 -- =============================================================================
 -- Seed Data: 8 Courses
@@ -71,7 +71,7 @@ SELECT * FROM (VALUES
   ('English Literature',   CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
   ('History',              CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
   ('Economics',            CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
-) WHERE NOT EXISTS (SELECT 1 FROM course LIMIT 1);
+) WHERE NOT EXISTS (SELECT 1 FROM course LIMIT 1)^;
 
 -- =============================================================================
 -- Seed Data: Exam Results
@@ -331,4 +331,4 @@ SELECT * FROM (VALUES
   (49, 5, 76, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
   (50, 2, 83, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
   (50, 7, 71, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
-) WHERE NOT EXISTS (SELECT 1 FROM exam_result LIMIT 1);
+) WHERE NOT EXISTS (SELECT 1 FROM exam_result LIMIT 1)^;
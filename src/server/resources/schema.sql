@@ -6,6 +6,15 @@
 --   student      - Student personal information
 --   course       - Course names
 --   exam_result  - Exam scores per student/course (max 3 per pair = completed)
+--   dashboard_rollup - Single-row dashboard counters, maintained by triggers
+--   score_trend  - Per-course count/score sum per day, week and month,
+--                  maintained by triggers
+--   *_fts        - FTS5 search indexes over student, course and exam_result,
+--                  maintained by triggers
+--   change_log   - Append-only write log, maintained by triggers, replayed on
+--                  top of the in-memory analytics snapshot at startup
+--   student_summary - Per-student completed course count, average and last
+--                  activity, maintained by triggers; list sort keys
 --
 -- Relationships:
 --   exam_result.student_id -> student.id (CASCADE delete)
@@ -14,16 +23,26 @@
 -- Constraints:
 --   student.number  - unique registration number
 --   exam_result.score - CHECK 0-100
+--   exam_result.slot  - 1-3, unique per (student_id, course_id); a 4th score
+--                       for a pair fails at this index. Scores past the third
+--                       from before the rule are moved to exam_result_archive
+--                       when the column is added
 --
 -- Indexes:
 --   student:     number, email, full_name (search across all fields)
 --   course:      name
---   exam_result: student_id, course_id, composite(student_id, course_id)
+--   exam_result: student_id, course_id, composite(student_id, course_id),
+--                (score, id) for keyset paging by score, (course_id, score),
+--                (course_id, created_at) and created_at for the list filters,
+--                unique (student_id, course_id, slot)
 --
 -- Notes:
 --   - Foreign keys enforced via PRAGMA foreign_keys = ON (per-connection)
 --   - Timestamps managed by JPA @PrePersist / @PreUpdate
---   - All CREATE statements are idempotent (IF NOT EXISTS)
+--   - All CREATE statements are idempotent (IF NOT EXISTS); columns added to
+--     existing tables are added before this file runs (DatabaseInitializerConfig)
+--   - Triggers are dropped and recreated on every start so they always match
+--     this file; statements are separated by ^; (spring.sql.init.separator)
 -- =============================================================================
 
 CREATE TABLE IF NOT EXISTS student (
@@ -34,30 +53,597 @@ CREATE TABLE IF NOT EXISTS student (
     gsm_number VARCHAR(255),
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
-);
+)^;
 
 CREATE TABLE IF NOT EXISTS course (
     id INTEGER PRIMARY KEY AUTOINCREMENT,
     name VARCHAR(255) NOT NULL,
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
-);
+)^;
 
 CREATE TABLE IF NOT EXISTS exam_result (
     id INTEGER PRIMARY KEY AUTOINCREMENT,
     student_id INTEGER NOT NULL,
     course_id INTEGER NOT NULL,
     score INTEGER NOT NULL CHECK (score >= 0 AND score <= 100),
+    slot INTEGER CHECK (slot BETWEEN 1 AND 3),
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (student_id) REFERENCES student(id) ON DELETE CASCADE,
     FOREIGN KEY (course_id) REFERENCES course(id) ON DELETE CASCADE
-);
-
-CREATE INDEX IF NOT EXISTS idx_student_number ON student(number);
-CREATE INDEX IF NOT EXISTS idx_student_email ON student(email);
-CREATE INDEX IF NOT EXISTS idx_student_full_name ON student(full_name);
-CREATE INDEX IF NOT EXISTS idx_course_name ON course(name);
-CREATE INDEX IF NOT EXISTS idx_exam_result_student_id ON exam_result(student_id);
-CREATE INDEX IF NOT EXISTS idx_exam_result_course_id ON exam_result(course_id);
-CREATE INDEX IF NOT EXISTS idx_exam_result_student_course ON exam_result(student_id, course_id);
+)^;
+
+CREATE INDEX IF NOT EXISTS idx_student_number ON student(number)^;
+CREATE INDEX IF NOT EXISTS idx_student_email ON student(email)^;
+CREATE INDEX IF NOT EXISTS idx_student_full_name ON student(full_name)^;
+CREATE INDEX IF NOT EXISTS idx_course_name ON course(name)^;
+CREATE INDEX IF NOT EXISTS idx_exam_result_student_id ON exam_result(student_id)^;
+CREATE INDEX IF NOT EXISTS idx_exam_result_course_id ON exam_result(course_id)^;
+CREATE INDEX IF NOT EXISTS idx_exam_result_student_course ON exam_result(student_id, course_id)^;
+CREATE INDEX IF NOT EXISTS idx_exam_result_score ON exam_result(score, id)^;
+CREATE INDEX IF NOT EXISTS idx_exam_result_course_score ON exam_result(course_id, score)^;
+CREATE INDEX IF NOT EXISTS idx_exam_result_course_created ON exam_result(course_id, created_at)^;
+CREATE INDEX IF NOT EXISTS idx_exam_result_created_at ON exam_result(created_at)^;
+CREATE UNIQUE INDEX IF NOT EXISTS idx_exam_result_slot ON exam_result(student_id, course_id, slot)^;
+
+-- =============================================================================
+-- Exam result timestamps
+--   JPA stores created_at as epoch millis; rows inserted by SQL get a text
+--   CURRENT_TIMESTAMP. A text value sorts after every number, so a range on
+--   created_at is only sargable with one storage type: text values are
+--   rewritten to millis by the trigger below, and existing ones once at
+--   startup by DatabaseInitializerConfig.
+-- =============================================================================
+
+DROP TRIGGER IF EXISTS trg_exam_result_created_at_millis^;
+CREATE TRIGGER trg_exam_result_created_at_millis AFTER INSERT ON exam_result
+WHEN typeof(NEW.created_at) = 'text'
+BEGIN
+    UPDATE exam_result SET created_at = CAST(strftime('%s', NEW.created_at) AS INTEGER) * 1000 WHERE id = NEW.id;
+END^;
+
+-- =============================================================================
+-- Exam result slots
+--   Each score of a student/course pair holds one of the slots 1-3. Writers
+--   leave slot null and the insert trigger takes the lowest free slot; with
+--   all three taken it picks 3 again, so the insert fails at the unique index.
+--   Deletes move the pair's later scores down, keeping the slots dense: a pair
+--   is completed exactly when its slot 3 exists. Rows are never moved between
+--   pairs by the application, so a pair change keeps its slot.
+-- =============================================================================
+
+DROP TRIGGER IF EXISTS trg_exam_result_slot_insert^;
+CREATE TRIGGER trg_exam_result_slot_insert AFTER INSERT ON exam_result
+WHEN NEW.slot IS NULL
+BEGIN
+    UPDATE exam_result SET slot = (
+        SELECT COALESCE(MIN(free.n), 3)
+        FROM (SELECT 1 AS n UNION ALL SELECT 2 UNION ALL SELECT 3) AS free
+        WHERE free.n NOT IN (SELECT slot FROM exam_result
+                             WHERE student_id = NEW.student_id AND course_id = NEW.course_id AND slot IS NOT NULL))
+    WHERE id = NEW.id;
+END^;
+
+-- One step at a time, lowest first, so no step collides with a slot still in use.
+DROP TRIGGER IF EXISTS trg_exam_result_slot_delete^;
+CREATE TRIGGER trg_exam_result_slot_delete AFTER DELETE ON exam_result
+WHEN OLD.slot < 3
+BEGIN
+    UPDATE exam_result SET slot = slot - 1
+    WHERE student_id = OLD.student_id AND course_id = OLD.course_id AND slot = OLD.slot + 1;
+    UPDATE exam_result SET slot = slot - 1
+    WHERE student_id = OLD.student_id AND course_id = OLD.course_id AND slot = OLD.slot + 2;
+END^;
+
+-- =============================================================================
+-- Dashboard rollup
+--   One row (id = 1) holding the counters behind /api/dashboard/stats. The row
+--   is backfilled from existing data the first time it is created and kept
+--   current by the triggers below, inside the transaction of every write.
+--   A pair is completed with exactly 3 scores and in progress with 1-2.
+-- =============================================================================
+
+CREATE TABLE IF NOT EXISTS dashboard_rollup (
+    id INTEGER PRIMARY KEY CHECK (id = 1),
+    student_count INTEGER NOT NULL DEFAULT 0,
+    course_count INTEGER NOT NULL DEFAULT 0,
+    exam_result_count INTEGER NOT NULL DEFAULT 0,
+    score_sum INTEGER NOT NULL DEFAULT 0,
+    completed_pairs INTEGER NOT NULL DEFAULT 0,
+    in_progress_pairs INTEGER NOT NULL DEFAULT 0,
+    range_0_20 INTEGER NOT NULL DEFAULT 0,
+    range_21_40 INTEGER NOT NULL DEFAULT 0,
+    range_41_60 INTEGER NOT NULL DEFAULT 0,
+    range_61_80 INTEGER NOT NULL DEFAULT 0,
+    range_81_100 INTEGER NOT NULL DEFAULT 0
+)^;
+
+INSERT INTO dashboard_rollup (id, student_count, course_count, exam_result_count, score_sum,
+                              completed_pairs, in_progress_pairs,
+                              range_0_20, range_21_40, range_41_60, range_61_80, range_81_100)
+SELECT 1,
+       (SELECT COUNT(*) FROM student),
+       (SELECT COUNT(*) FROM course),
+       (SELECT COUNT(*) FROM exam_result),
+       (SELECT COALESCE(SUM(score), 0) FROM exam_result),
+       (SELECT COUNT(*) FROM exam_result WHERE slot = 3),
+       (SELECT COUNT(*) FROM exam_result WHERE slot = 1) - (SELECT COUNT(*) FROM exam_result WHERE slot = 3),
+       (SELECT COUNT(*) FROM exam_result WHERE score <= 20),
+       (SELECT COUNT(*) FROM exam_result WHERE score > 20 AND score <= 40),
+       (SELECT COUNT(*) FROM exam_result WHERE score > 40 AND score <= 60),
+       (SELECT COUNT(*) FROM exam_result WHERE score > 60 AND score <= 80),
+       (SELECT COUNT(*) FROM exam_result WHERE score > 80)
+WHERE NOT EXISTS (SELECT 1 FROM dashboard_rollup)^;
+
+DROP TRIGGER IF EXISTS trg_rollup_student_insert^;
+CREATE TRIGGER trg_rollup_student_insert AFTER INSERT ON student
+BEGIN
+    UPDATE dashboard_rollup SET student_count = student_count + 1 WHERE id = 1;
+END^;
+
+DROP TRIGGER IF EXISTS trg_rollup_student_delete^;
+CREATE TRIGGER trg_rollup_student_delete AFTER DELETE ON student
+BEGIN
+    UPDATE dashboard_rollup SET student_count = student_count - 1 WHERE id = 1;
+END^;
+
+DROP TRIGGER IF EXISTS trg_rollup_course_insert^;
+CREATE TRIGGER trg_rollup_course_insert AFTER INSERT ON course
+BEGIN
+    UPDATE dashboard_rollup SET course_count = course_count + 1 WHERE id = 1;
+END^;
+
+DROP TRIGGER IF EXISTS trg_rollup_course_delete^;
+CREATE TRIGGER trg_rollup_course_delete AFTER DELETE ON course
+BEGIN
+    UPDATE dashboard_rollup SET course_count = course_count - 1 WHERE id = 1;
+END^;
+
+-- n is the pair's row count after the change: inserting the 3rd row completes
+-- a pair and deleting one of three moves it back to in progress. A pair never
+-- holds a 4th row (the slot index rejects it and the statement rolls back), so
+-- the n = 4 term on insert and the n = 3 term on delete never fire.
+DROP TRIGGER IF EXISTS trg_rollup_exam_result_insert^;
+CREATE TRIGGER trg_rollup_exam_result_insert AFTER INSERT ON exam_result
+BEGIN
+    UPDATE dashboard_rollup SET
+        exam_result_count = exam_result_count + 1,
+        score_sum = score_sum + NEW.score,
+        range_0_20 = range_0_20 + (NEW.score <= 20),
+        range_21_40 = range_21_40 + (NEW.score > 20 AND NEW.score <= 40),
+        range_41_60 = range_41_60 + (NEW.score > 40 AND NEW.score <= 60),
+        range_61_80 = range_61_80 + (NEW.score > 60 AND NEW.score <= 80),
+        range_81_100 = range_81_100 + (NEW.score > 80),
+        completed_pairs = completed_pairs + (pair.n = 3) - (pair.n = 4),
+        in_progress_pairs = in_progress_pairs + (pair.n = 1) - (pair.n = 3)
+    FROM (SELECT COUNT(*) AS n FROM exam_result
+          WHERE student_id = NEW.student_id AND course_id = NEW.course_id) AS pair
+    WHERE id = 1;
+END^;
+
+DROP TRIGGER IF EXISTS trg_rollup_exam_result_delete^;
+CREATE TRIGGER trg_rollup_exam_result_delete AFTER DELETE ON exam_result
+BEGIN
+    UPDATE dashboard_rollup SET
+        exam_result_count = exam_result_count - 1,
+        score_sum = score_sum - OLD.score,
+        range_0_20 = range_0_20 - (OLD.score <= 20),
+        range_21_40 = range_21_40 - (OLD.score > 20 AND OLD.score <= 40),
+        range_41_60 = range_41_60 - (OLD.score > 40 AND OLD.score <= 60),
+        range_61_80 = range_61_80 - (OLD.score > 60 AND OLD.score <= 80),
+        range_81_100 = range_81_100 - (OLD.score > 80),
+        completed_pairs = completed_pairs + (pair.n = 3) - (pair.n = 2),
+        in_progress_pairs = in_progress_pairs + (pair.n = 2) - (pair.n = 0)
+    FROM (SELECT COUNT(*) AS n FROM exam_result
+          WHERE student_id = OLD.student_id AND course_id = OLD.course_id) AS pair
+    WHERE id = 1;
+END^;
+
+DROP TRIGGER IF EXISTS trg_rollup_exam_result_score^;
+CREATE TRIGGER trg_rollup_exam_result_score AFTER UPDATE OF score ON exam_result
+WHEN OLD.score <> NEW.score
+BEGIN
+    UPDATE dashboard_rollup SET
+        score_sum = score_sum + NEW.score - OLD.score,
+        range_0_20 = range_0_20 + (NEW.score <= 20) - (OLD.score <= 20),
+        range_21_40 = range_21_40 + (NEW.score > 20 AND NEW.score <= 40) - (OLD.score > 20 AND OLD.score <= 40),
+        range_41_60 = range_41_60 + (NEW.score > 40 AND NEW.score <= 60) - (OLD.score > 40 AND OLD.score <= 60),
+        range_61_80 = range_61_80 + (NEW.score > 60 AND NEW.score <= 80) - (OLD.score > 60 AND OLD.score <= 80),
+        range_81_100 = range_81_100 + (NEW.score > 80) - (OLD.score > 80)
+    WHERE id = 1;
+END^;
+
+DROP TRIGGER IF EXISTS trg_rollup_exam_result_pair^;
+CREATE TRIGGER trg_rollup_exam_result_pair AFTER UPDATE OF student_id, course_id ON exam_result
+WHEN OLD.student_id <> NEW.student_id OR OLD.course_id <> NEW.course_id
+BEGIN
+    UPDATE dashboard_rollup SET
+        completed_pairs = completed_pairs + (pair.n = 3) - (pair.n = 2),
+        in_progress_pairs = in_progress_pairs + (pair.n = 2) - (pair.n = 0)
+    FROM (SELECT COUNT(*) AS n FROM exam_result
+          WHERE student_id = OLD.student_id AND course_id = OLD.course_id) AS pair
+    WHERE id = 1;
+    UPDATE dashboard_rollup SET
+        completed_pairs = completed_pairs + (pair.n = 3) - (pair.n = 4),
+        in_progress_pairs = in_progress_pairs + (pair.n = 1) - (pair.n = 3)
+    FROM (SELECT COUNT(*) AS n FROM exam_result
+          WHERE student_id = NEW.student_id AND course_id = NEW.course_id) AS pair
+    WHERE id = 1;
+END^;
+
+-- =============================================================================
+-- Score trend rollup
+--   Count and score sum per course and calendar bucket, kept for day, week
+--   (starting Monday) and month buckets so trend queries read a few rows per
+--   bucket instead of scanning exam_result. Buckets are UTC dates; created_at
+--   is epoch millis when written by JPA and text when written by SQL. Empty
+--   buckets are removed. Backfilled the first time the table is empty.
+-- =============================================================================
+
+CREATE TABLE IF NOT EXISTS score_trend (
+    course_id INTEGER NOT NULL,
+    bucket TEXT NOT NULL CHECK (bucket IN ('day', 'week', 'month')),
+    bucket_start TEXT NOT NULL,
+    result_count INTEGER NOT NULL,
+    score_sum INTEGER NOT NULL,
+    PRIMARY KEY (course_id, bucket, bucket_start)
+) WITHOUT ROWID^;
+
+CREATE INDEX IF NOT EXISTS idx_score_trend_bucket ON score_trend(bucket, bucket_start)^;
+
+INSERT INTO score_trend (course_id, bucket, bucket_start, result_count, score_sum)
+SELECT t.course_id, b.bucket, CASE b.bucket WHEN 'day' THEN t.day WHEN 'week' THEN date(t.day, 'weekday 0', '-6 days') ELSE date(t.day, 'start of month') END AS bucket_start, COUNT(*), SUM(t.score)
+FROM (SELECT course_id, score, CASE WHEN typeof(created_at) = 'integer' THEN date(created_at / 1000, 'unixepoch') ELSE date(created_at) END AS day FROM exam_result) AS t,
+     (SELECT 'day' AS bucket UNION ALL SELECT 'week' UNION ALL SELECT 'month') AS b
+WHERE NOT EXISTS (SELECT 1 FROM score_trend)
+GROUP BY t.course_id, b.bucket, bucket_start^;
+
+DROP TRIGGER IF EXISTS trg_score_trend_insert^;
+CREATE TRIGGER trg_score_trend_insert AFTER INSERT ON exam_result
+BEGIN
+    INSERT INTO score_trend (course_id, bucket, bucket_start, result_count, score_sum)
+    SELECT NEW.course_id, b.bucket, CASE b.bucket WHEN 'day' THEN t.day WHEN 'week' THEN date(t.day, 'weekday 0', '-6 days') ELSE date(t.day, 'start of month') END, 1, NEW.score
+    FROM (SELECT CASE WHEN typeof(NEW.created_at) = 'integer' THEN date(NEW.created_at / 1000, 'unixepoch') ELSE date(NEW.created_at) END AS day) AS t,
+         (SELECT 'day' AS bucket UNION ALL SELECT 'week' UNION ALL SELECT 'month') AS b
+    WHERE true
+    ON CONFLICT (course_id, bucket, bucket_start) DO UPDATE SET
+        result_count = result_count + 1,
+        score_sum = score_sum + excluded.score_sum;
+END^;
+
+DROP TRIGGER IF EXISTS trg_score_trend_delete^;
+CREATE TRIGGER trg_score_trend_delete AFTER DELETE ON exam_result
+BEGIN
+    UPDATE score_trend SET
+        result_count = result_count - 1,
+        score_sum = score_sum - OLD.score
+    FROM (SELECT CASE WHEN typeof(OLD.created_at) = 'integer' THEN date(OLD.created_at / 1000, 'unixepoch') ELSE date(OLD.created_at) END AS day) AS t
+    WHERE course_id = OLD.course_id AND bucket_start = CASE bucket WHEN 'day' THEN t.day WHEN 'week' THEN date(t.day, 'weekday 0', '-6 days') ELSE date(t.day, 'start of month') END;
+    DELETE FROM score_trend WHERE course_id = OLD.course_id AND result_count = 0;
+END^;
+
+DROP TRIGGER IF EXISTS trg_score_trend_update^;
+CREATE TRIGGER trg_score_trend_update AFTER UPDATE OF course_id, score, created_at ON exam_result
+WHEN OLD.course_id <> NEW.course_id OR OLD.score <> NEW.score OR OLD.created_at IS NOT NEW.created_at
+BEGIN
+    UPDATE score_trend SET
+        result_count = result_count - 1,
+        score_sum = score_sum - OLD.score
+    FROM (SELECT CASE WHEN typeof(OLD.created_at) = 'integer' THEN date(OLD.created_at / 1000, 'unixepoch') ELSE date(OLD.created_at) END AS day) AS t
+    WHERE course_id = OLD.course_id AND bucket_start = CASE bucket WHEN 'day' THEN t.day WHEN 'week' THEN date(t.day, 'weekday 0', '-6 days') ELSE date(t.day, 'start of month') END;
+    DELETE FROM score_trend WHERE course_id = OLD.course_id AND result_count = 0;
+    INSERT INTO score_trend (course_id, bucket, bucket_start, result_count, score_sum)
+    SELECT NEW.course_id, b.bucket, CASE b.bucket WHEN 'day' THEN t.day WHEN 'week' THEN date(t.day, 'weekday 0', '-6 days') ELSE date(t.day, 'start of month') END, 1, NEW.score
+    FROM (SELECT CASE WHEN typeof(NEW.created_at) = 'integer' THEN date(NEW.created_at / 1000, 'unixepoch') ELSE date(NEW.created_at) END AS day) AS t,
+         (SELECT 'day' AS bucket UNION ALL SELECT 'week' UNION ALL SELECT 'month') AS b
+    WHERE true
+    ON CONFLICT (course_id, bucket, bucket_start) DO UPDATE SET
+        result_count = result_count + 1,
+        score_sum = score_sum + excluded.score_sum;
+END^;
+
+-- =============================================================================
+-- Full-text search (FTS5)
+--   Used when app.search.mode=fts. student_fts and course_fts index their
+--   tables as external content; exam_result_fts keeps its own copy of the
+--   student and course names so a search never joins. The triggers keep all
+--   three current, including renames and cascaded deletes. The statements
+--   after each table backfill it whenever it is out of step with its source,
+--   which covers databases created before these tables existed.
+--   A bulk student upsert in like mode skips student_fts and lists it in
+--   fts_stale instead; its triggers stand down until the next start rebuilds
+--   it, since deleting rows it never indexed would corrupt it.
+-- =============================================================================
+
+CREATE TABLE IF NOT EXISTS fts_stale (
+    table_name TEXT PRIMARY KEY
+)^;
+
+CREATE VIRTUAL TABLE IF NOT EXISTS student_fts USING fts5(
+    full_name, number, email, gsm_number,
+    content = 'student', content_rowid = 'id',
+    tokenize = 'unicode61 remove_diacritics 2', prefix = '2 3'
+)^;
+
+INSERT INTO student_fts(student_fts) SELECT 'rebuild'
+WHERE (SELECT COUNT(*) FROM student_fts_docsize) <> (SELECT COUNT(*) FROM student)
+   OR EXISTS (SELECT 1 FROM fts_stale WHERE table_name = 'student_fts')^;
+
+DELETE FROM fts_stale WHERE table_name = 'student_fts'^;
+
+CREATE VIRTUAL TABLE IF NOT EXISTS course_fts USING fts5(
+    name,
+    content = 'course', content_rowid = 'id',
+    tokenize = 'unicode61 remove_diacritics 2', prefix = '2 3'
+)^;
+
+INSERT INTO course_fts(course_fts) SELECT 'rebuild'
+WHERE (SELECT COUNT(*) FROM course_fts_docsize) <> (SELECT COUNT(*) FROM course)^;
+
+CREATE VIRTUAL TABLE IF NOT EXISTS exam_result_fts USING fts5(
+    student_name, course_name, score,
+    tokenize = 'unicode61 remove_diacritics 2', prefix = '2 3'
+)^;
+
+DELETE FROM exam_result_fts WHERE rowid NOT IN (SELECT id FROM exam_result)^;
+
+INSERT INTO exam_result_fts (rowid, student_name, course_name, score)
+SELECT er.id, s.full_name, c.name, er.score
+FROM exam_result er JOIN student s ON er.student_id = s.id JOIN course c ON er.course_id = c.id
+WHERE er.id NOT IN (SELECT rowid FROM exam_result_fts)^;
+
+DROP TRIGGER IF EXISTS trg_student_fts_insert^;
+CREATE TRIGGER trg_student_fts_insert AFTER INSERT ON student
+WHEN NOT EXISTS (SELECT 1 FROM fts_stale WHERE table_name = 'student_fts')
+BEGIN
+    INSERT INTO student_fts (rowid, full_name, number, email, gsm_number)
+    VALUES (NEW.id, NEW.full_name, NEW.number, NEW.email, NEW.gsm_number);
+END^;
+
+DROP TRIGGER IF EXISTS trg_student_fts_delete^;
+CREATE TRIGGER trg_student_fts_delete AFTER DELETE ON student
+WHEN NOT EXISTS (SELECT 1 FROM fts_stale WHERE table_name = 'student_fts')
+BEGIN
+    INSERT INTO student_fts (student_fts, rowid, full_name, number, email, gsm_number)
+    VALUES ('delete', OLD.id, OLD.full_name, OLD.number, OLD.email, OLD.gsm_number);
+END^;
+
+DROP TRIGGER IF EXISTS trg_student_fts_update^;
+CREATE TRIGGER trg_student_fts_update AFTER UPDATE OF full_name, number, email, gsm_number ON student
+WHEN NOT EXISTS (SELECT 1 FROM fts_stale WHERE table_name = 'student_fts')
+BEGIN
+    INSERT INTO student_fts (student_fts, rowid, full_name, number, email, gsm_number)
+    VALUES ('delete', OLD.id, OLD.full_name, OLD.number, OLD.email, OLD.gsm_number);
+    INSERT INTO student_fts (rowid, full_name, number, email, gsm_number)
+    VALUES (NEW.id, NEW.full_name, NEW.number, NEW.email, NEW.gsm_number);
+END^;
+
+DROP TRIGGER IF EXISTS trg_exam_result_fts_student_rename^;
+CREATE TRIGGER trg_exam_result_fts_student_rename AFTER UPDATE OF full_name ON student
+WHEN OLD.full_name IS NOT NEW.full_name
+BEGIN
+    UPDATE exam_result_fts SET student_name = NEW.full_name
+    WHERE rowid IN (SELECT id FROM exam_result WHERE student_id = NEW.id);
+END^;
+
+DROP TRIGGER IF EXISTS trg_course_fts_insert^;
+CREATE TRIGGER trg_course_fts_insert AFTER INSERT ON course
+BEGIN
+    INSERT INTO course_fts (rowid, name) VALUES (NEW.id, NEW.name);
+END^;
+
+DROP TRIGGER IF EXISTS trg_course_fts_delete^;
+CREATE TRIGGER trg_course_fts_delete AFTER DELETE ON course
+BEGIN
+    INSERT INTO course_fts (course_fts, rowid, name) VALUES ('delete', OLD.id, OLD.name);
+END^;
+
+DROP TRIGGER IF EXISTS trg_course_fts_update^;
+CREATE TRIGGER trg_course_fts_update AFTER UPDATE OF name ON course
+BEGIN
+    INSERT INTO course_fts (course_fts, rowid, name) VALUES ('delete', OLD.id, OLD.name);
+    INSERT INTO course_fts (rowid, name) VALUES (NEW.id, NEW.name);
+    UPDATE exam_result_fts SET course_name = NEW.name
+    WHERE rowid IN (SELECT id FROM exam_result WHERE course_id = NEW.id);
+END^;
+
+DROP TRIGGER IF EXISTS trg_exam_result_fts_insert^;
+CREATE TRIGGER trg_exam_result_fts_insert AFTER INSERT ON exam_result
+BEGIN
+    INSERT INTO exam_result_fts (rowid, student_name, course_name, score)
+    SELECT NEW.id, s.full_name, c.name, NEW.score
+    FROM student s, course c
+    WHERE s.id = NEW.student_id AND c.id = NEW.course_id;
+END^;
+
+DROP TRIGGER IF EXISTS trg_exam_result_fts_delete^;
+CREATE TRIGGER trg_exam_result_fts_delete AFTER DELETE ON exam_result
+BEGIN
+    DELETE FROM exam_result_fts WHERE rowid = OLD.id;
+END^;
+
+DROP TRIGGER IF EXISTS trg_exam_result_fts_update^;
+CREATE TRIGGER trg_exam_result_fts_update AFTER UPDATE OF student_id, course_id, score ON exam_result
+BEGIN
+    UPDATE exam_result_fts SET
+        student_name = (SELECT full_name FROM student WHERE id = NEW.student_id),
+        course_name = (SELECT name FROM course WHERE id = NEW.course_id),
+        score = NEW.score
+    WHERE rowid = NEW.id;
+END^;
+
+-- =============================================================================
+-- Change log
+--   Every insert, update and delete on the three tables appends one row here,
+--   including rows removed by ON DELETE CASCADE. Entries carry absolute values,
+--   so replaying them is idempotent. The application prunes entries already
+--   covered by its latest snapshot; created_at is copied as stored.
+-- =============================================================================
+
+CREATE TABLE IF NOT EXISTS change_log (
+    seq INTEGER PRIMARY KEY AUTOINCREMENT,
+    entity TEXT NOT NULL,
+    op TEXT NOT NULL,
+    entity_id INTEGER NOT NULL,
+    student_id INTEGER,
+    course_id INTEGER,
+    score INTEGER,
+    created_at,
+    name TEXT
+)^;
+
+DROP TRIGGER IF EXISTS trg_change_log_exam_result_insert^;
+CREATE TRIGGER trg_change_log_exam_result_insert AFTER INSERT ON exam_result
+BEGIN
+    INSERT INTO change_log (entity, op, entity_id, student_id, course_id, score, created_at)
+    VALUES ('exam_result', 'I', NEW.id, NEW.student_id, NEW.course_id, NEW.score, NEW.created_at);
+END^;
+
+DROP TRIGGER IF EXISTS trg_change_log_exam_result_update^;
+CREATE TRIGGER trg_change_log_exam_result_update AFTER UPDATE OF student_id, course_id, score ON exam_result
+BEGIN
+    INSERT INTO change_log (entity, op, entity_id, student_id, course_id, score, created_at)
+    VALUES ('exam_result', 'U', NEW.id, NEW.student_id, NEW.course_id, NEW.score, NEW.created_at);
+END^;
+
+DROP TRIGGER IF EXISTS trg_change_log_exam_result_delete^;
+CREATE TRIGGER trg_change_log_exam_result_delete AFTER DELETE ON exam_result
+BEGIN
+    INSERT INTO change_log (entity, op, entity_id) VALUES ('exam_result', 'D', OLD.id);
+END^;
+
+DROP TRIGGER IF EXISTS trg_change_log_student_insert^;
+CREATE TRIGGER trg_change_log_student_insert AFTER INSERT ON student
+BEGIN
+    INSERT INTO change_log (entity, op, entity_id, name) VALUES ('student', 'I', NEW.id, NEW.full_name);
+END^;
+
+DROP TRIGGER IF EXISTS trg_change_log_student_update^;
+CREATE TRIGGER trg_change_log_student_update AFTER UPDATE OF full_name ON student
+BEGIN
+    INSERT INTO change_log (entity, op, entity_id, name) VALUES ('student', 'U', NEW.id, NEW.full_name);
+END^;
+
+DROP TRIGGER IF EXISTS trg_change_log_student_delete^;
+CREATE TRIGGER trg_change_log_student_delete AFTER DELETE ON student
+BEGIN
+    INSERT INTO change_log (entity, op, entity_id) VALUES ('student', 'D', OLD.id);
+END^;
+
+DROP TRIGGER IF EXISTS trg_change_log_course_insert^;
+CREATE TRIGGER trg_change_log_course_insert AFTER INSERT ON course
+BEGIN
+    INSERT INTO change_log (entity, op, entity_id, name) VALUES ('course', 'I', NEW.id, NEW.name);
+END^;
+
+DROP TRIGGER IF EXISTS trg_change_log_course_update^;
+CREATE TRIGGER trg_change_log_course_update AFTER UPDATE OF name ON course
+BEGIN
+    INSERT INTO change_log (entity, op, entity_id, name) VALUES ('course', 'U', NEW.id, NEW.name);
+END^;
+
+DROP TRIGGER IF EXISTS trg_change_log_course_delete^;
+CREATE TRIGGER trg_change_log_course_delete AFTER DELETE ON course
+BEGIN
+    INSERT INTO change_log (entity, op, entity_id) VALUES ('course', 'D', OLD.id);
+END^;
+
+-- =============================================================================
+-- Student summary
+--   One row per student with the number of completed courses, the average of
+--   their course averages and the epoch millis of the latest exam result
+--   write, so the student list can sort by them through an index. Every exam
+--   result write recomputes the row of the student(s) it touches from that
+--   student's rows (via the (student_id, course_id) index). Backfilled the
+--   first time the table is empty.
+-- =============================================================================
+
+CREATE TABLE IF NOT EXISTS student_summary (
+    student_id INTEGER PRIMARY KEY REFERENCES student(id) ON DELETE CASCADE,
+    completed_courses INTEGER NOT NULL DEFAULT 0,
+    completed_average REAL,
+    last_activity INTEGER
+)^;
+
+CREATE INDEX IF NOT EXISTS idx_student_summary_average ON student_summary(completed_average)^;
+CREATE INDEX IF NOT EXISTS idx_student_summary_completed ON student_summary(completed_courses)^;
+CREATE INDEX IF NOT EXISTS idx_student_summary_activity ON student_summary(last_activity)^;
+
+INSERT INTO student_summary (student_id, completed_courses, completed_average, last_activity)
+SELECT s.id, COALESCE(c.n, 0), c.average, a.last
+FROM student s
+LEFT JOIN (SELECT s3.student_id, COUNT(*) AS n, AVG((s1.score + s2.score + s3.score) / 3.0) AS average
+           FROM exam_result s3
+           JOIN exam_result s1 ON s1.student_id = s3.student_id AND s1.course_id = s3.course_id AND s1.slot = 1
+           JOIN exam_result s2 ON s2.student_id = s3.student_id AND s2.course_id = s3.course_id AND s2.slot = 2
+           WHERE s3.slot = 3
+           GROUP BY s3.student_id) AS c ON c.student_id = s.id
+LEFT JOIN (SELECT student_id, MAX(CASE WHEN typeof(updated_at) = 'integer' THEN updated_at ELSE CAST(strftime('%s', updated_at) AS INTEGER) * 1000 END) AS last
+           FROM exam_result GROUP BY student_id) AS a ON a.student_id = s.id
+WHERE NOT EXISTS (SELECT 1 FROM student_summary)^;
+
+DROP TRIGGER IF EXISTS trg_student_summary_student_insert^;
+CREATE TRIGGER trg_student_summary_student_insert AFTER INSERT ON student
+BEGIN
+    INSERT OR IGNORE INTO student_summary (student_id) VALUES (NEW.id);
+END^;
+
+DROP TRIGGER IF EXISTS trg_student_summary_insert^;
+CREATE TRIGGER trg_student_summary_insert AFTER INSERT ON exam_result
+BEGIN
+    INSERT INTO student_summary (student_id, completed_courses, completed_average, last_activity)
+    SELECT s.id, c.n, c.average, a.last
+    FROM student s,
+         (SELECT COUNT(*) AS n, AVG(course_average) AS average FROM (SELECT AVG(score) AS course_average FROM exam_result
+          WHERE student_id = NEW.student_id GROUP BY course_id HAVING COUNT(*) = 3)) AS c,
+         (SELECT MAX(CASE WHEN typeof(updated_at) = 'integer' THEN updated_at ELSE CAST(strftime('%s', updated_at) AS INTEGER) * 1000 END) AS last FROM exam_result WHERE student_id = NEW.student_id) AS a
+    WHERE s.id = NEW.student_id
+    ON CONFLICT (student_id) DO UPDATE SET
+        completed_courses = excluded.completed_courses,
+        completed_average = excluded.completed_average,
+        last_activity = excluded.last_activity;
+END^;
+
+DROP TRIGGER IF EXISTS trg_student_summary_delete^;
+CREATE TRIGGER trg_student_summary_delete AFTER DELETE ON exam_result
+BEGIN
+    INSERT INTO student_summary (student_id, completed_courses, completed_average, last_activity)
+    SELECT s.id, c.n, c.average, a.last
+    FROM student s,
+         (SELECT COUNT(*) AS n, AVG(course_average) AS average FROM (SELECT AVG(score) AS course_average FROM exam_result
+          WHERE student_id = OLD.student_id GROUP BY course_id HAVING COUNT(*) = 3)) AS c,
+         (SELECT MAX(CASE WHEN typeof(updated_at) = 'integer' THEN updated_at ELSE CAST(strftime('%s', updated_at) AS INTEGER) * 1000 END) AS last FROM exam_result WHERE student_id = OLD.student_id) AS a
+    WHERE s.id = OLD.student_id
+    ON CONFLICT (student_id) DO UPDATE SET
+        completed_courses = excluded.completed_courses,
+        completed_average = excluded.completed_average,
+        last_activity = excluded.last_activity;
+END^;
+
+DROP TRIGGER IF EXISTS trg_student_summary_update^;
+CREATE TRIGGER trg_student_summary_update AFTER UPDATE OF student_id, course_id, score, updated_at ON exam_result
+BEGIN
+    INSERT INTO student_summary (student_id, completed_courses, completed_average, last_activity)
+    SELECT s.id, c.n, c.average, a.last
+    FROM student s,
+         (SELECT COUNT(*) AS n, AVG(course_average) AS average FROM (SELECT AVG(score) AS course_average FROM exam_result
+          WHERE student_id = OLD.student_id GROUP BY course_id HAVING COUNT(*) = 3)) AS c,
+         (SELECT MAX(CASE WHEN typeof(updated_at) = 'integer' THEN updated_at ELSE CAST(strftime('%s', updated_at) AS INTEGER) * 1000 END) AS last FROM exam_result WHERE student_id = OLD.student_id) AS a
+    WHERE s.id = OLD.student_id
+    ON CONFLICT (student_id) DO UPDATE SET
+        completed_courses = excluded.completed_courses,
+        completed_average = excluded.completed_average,
+        last_activity = excluded.last_activity;
+    INSERT INTO student_summary (student_id, completed_courses, completed_average, last_activity)
+    SELECT s.id, c.n, c.average, a.last
+    FROM student s,
+         (SELECT COUNT(*) AS n, AVG(course_average) AS average FROM (SELECT AVG(score) AS course_average FROM exam_result
+          WHERE student_id = NEW.student_id GROUP BY course_id HAVING COUNT(*) = 3)) AS c,
+         (SELECT MAX(CASE WHEN typeof(updated_at) = 'integer' THEN updated_at ELSE CAST(strftime('%s', updated_at) AS INTEGER) * 1000 END) AS last FROM exam_result WHERE student_id = NEW.student_id) AS a
+    WHERE s.id = NEW.student_id AND NEW.student_id <> OLD.student_id
+    ON CONFLICT (student_id) DO UPDATE SET
+        completed_courses = excluded.completed_courses,
+        completed_average = excluded.completed_average,
+        last_activity = excluded.last_activity;
+END^;
@@ -1,11 +1,16 @@
 package com.iqb.interviewpoc;
 
+import com.iqb.interviewpoc.config.DatabaseInitializerConfig;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
+import org.sqlite.SQLiteDataSource;
 
 import javax.sql.DataSource;
+import java.nio.file.Path;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -30,6 +35,9 @@ class DatabaseMigrationTest {
             assertTrue(tables.contains("student"), "student table should exist");
             assertTrue(tables.contains("course"), "course table should exist");
             assertTrue(tables.contains("exam_result"), "exam_result table should exist");
+            assertTrue(tables.contains("dashboard_rollup"), "dashboard_rollup table should exist");
+            assertTrue(tables.contains("change_log"), "change_log table should exist");
+            assertTrue(tables.contains("student_summary"), "student_summary table should exist");
         }
     }
 
@@ -45,7 +53,7 @@ class DatabaseMigrationTest {
 
     @Test
     void examResultTableHasCorrectColumns() throws SQLException {
-        assertColumnsExist("exam_result", List.of("id", "student_id", "course_id", "score", "created_at", "updated_at"));
+        assertColumnsExist("exam_result", List.of("id", "student_id", "course_id", "score", "slot", "created_at", "updated_at"));
     }
 
     @Test
@@ -121,6 +129,142 @@ class DatabaseMigrationTest {
         }
     }
 
+    @Test
+    void dashboardRollupFollowsCascadeDelete() throws SQLException {
+        try (var conn = dataSource.getConnection(); var stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA foreign_keys = ON");
+            stmt.execute("DELETE FROM exam_result");
+            stmt.execute("DELETE FROM student");
+            stmt.execute("DELETE FROM course");
+
+            stmt.execute("INSERT INTO student (id, full_name, number, email, created_at, updated_at) VALUES (20, 'Rollup Test', 300, 'rollup@test.com', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+            stmt.execute("INSERT INTO course (id, name, created_at, updated_at) VALUES (20, 'Rollup Course', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+            for (int score : new int[]{15, 55, 95}) {
+                stmt.execute("INSERT INTO exam_result (student_id, course_id, score, created_at, updated_at) VALUES (20, 20, " + score + ", CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+            }
+
+            try (var rs = stmt.executeQuery("SELECT student_count, exam_result_count, score_sum, completed_pairs, in_progress_pairs FROM dashboard_rollup")) {
+                rs.next();
+                assertEquals(1, rs.getInt("student_count"));
+                assertEquals(3, rs.getInt("exam_result_count"));
+                assertEquals(165, rs.getInt("score_sum"));
+                assertEquals(1, rs.getInt("completed_pairs"));
+                assertEquals(0, rs.getInt("in_progress_pairs"));
+            }
+
+            // cascaded exam_result deletes must be reflected as well
+            stmt.execute("DELETE FROM student WHERE id = 20");
+
+            try (var rs = stmt.executeQuery("SELECT student_count, exam_result_count, score_sum, completed_pairs FROM dashboard_rollup")) {
+                rs.next();
+                assertEquals(0, rs.getInt("student_count"));
+                assertEquals(0, rs.getInt("exam_result_count"));
+                assertEquals(0, rs.getInt("score_sum"));
+                assertEquals(0, rs.getInt("completed_pairs"));
+            }
+        }
+    }
+
+    @Test
+    void slotsStayDenseAndAFourthScoreFailsAtTheIndex() throws SQLException {
+        try (var conn = dataSource.getConnection(); var stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA foreign_keys = ON");
+            stmt.execute("DELETE FROM exam_result");
+            stmt.execute("DELETE FROM student");
+            stmt.execute("DELETE FROM course");
+
+            stmt.execute("INSERT INTO student (id, full_name, number, email, created_at, updated_at) VALUES (30, 'Slot Test', 400, 'slot@test.com', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+            stmt.execute("INSERT INTO course (id, name, created_at, updated_at) VALUES (30, 'Slot Course', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+            for (int score : new int[]{10, 20, 30}) {
+                stmt.execute("INSERT INTO exam_result (student_id, course_id, score, created_at, updated_at) VALUES (30, 30, " + score + ", CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+            }
+            assertEquals(List.of("10:1", "20:2", "30:3"), slots(stmt));
+
+            SQLException fourth = assertThrows(SQLException.class, () ->
+                stmt.execute("INSERT INTO exam_result (student_id, course_id, score, created_at, updated_at) VALUES (30, 30, 40, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)")
+            );
+            assertTrue(fourth.getMessage().contains("exam_result.slot"), fourth.getMessage());
+
+            // deleting the first score moves the later ones down, so the pair is no longer completed
+            stmt.execute("DELETE FROM exam_result WHERE score = 10");
+            assertEquals(List.of("20:1", "30:2"), slots(stmt));
+            try (var rs = stmt.executeQuery("SELECT completed_pairs, in_progress_pairs FROM dashboard_rollup")) {
+                rs.next();
+                assertEquals(0, rs.getInt("completed_pairs"));
+                assertEquals(1, rs.getInt("in_progress_pairs"));
+            }
+
+            stmt.execute("INSERT INTO exam_result (student_id, course_id, score, created_at, updated_at) VALUES (30, 30, 50, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+            assertEquals(List.of("20:1", "30:2", "50:3"), slots(stmt));
+        }
+    }
+
+    @Test
+    void slotColumnIsAddedToAnExistingTable(@TempDir Path dir) throws SQLException {
+        SQLiteDataSource legacy = new SQLiteDataSource();
+        legacy.setUrl("jdbc:sqlite:" + dir.resolve("legacy.db"));
+        try (var conn = legacy.getConnection(); var stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE exam_result (id INTEGER PRIMARY KEY AUTOINCREMENT, student_id INTEGER NOT NULL, course_id INTEGER NOT NULL, score INTEGER NOT NULL)");
+            // four rows for one pair predate the max-3 rule
+            for (String row : new String[]{"1, 1, 10", "1, 1, 20", "1, 2, 30", "1, 1, 40", "1, 1, 50"}) {
+                stmt.execute("INSERT INTO exam_result (student_id, course_id, score) VALUES (" + row + ")");
+            }
+        }
+
+        DatabaseInitializerConfig.addExamResultSlots(new JdbcTemplate(legacy));
+        DatabaseInitializerConfig.addExamResultSlots(new JdbcTemplate(legacy));
+
+        try (var conn = legacy.getConnection(); var stmt = conn.createStatement()) {
+            assertEquals(List.of("10:1", "20:2", "30:1", "40:3"), slots(stmt));
+            try (var rs = stmt.executeQuery("SELECT score, slot FROM exam_result_archive")) {
+                assertTrue(rs.next());
+                assertEquals(50, rs.getInt("score"));
+                assertNull(rs.getObject("slot"));
+                assertFalse(rs.next());
+            }
+        }
+    }
+
+    @Test
+    void textTimestampsAreConvertedOnceWithoutTheTrendTrigger(@TempDir Path dir) throws SQLException {
+        SQLiteDataSource legacy = new SQLiteDataSource();
+        legacy.setUrl("jdbc:sqlite:" + dir.resolve("legacy.db"));
+        try (var conn = legacy.getConnection(); var stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE exam_result (id INTEGER PRIMARY KEY, score INTEGER NOT NULL, created_at TIMESTAMP NOT NULL)");
+            stmt.execute("CREATE TABLE trend_updates (id INTEGER)");
+            stmt.execute("CREATE TRIGGER trg_score_trend_update AFTER UPDATE OF created_at ON exam_result " +
+                    "BEGIN INSERT INTO trend_updates VALUES (NEW.id); END");
+            stmt.execute("INSERT INTO exam_result VALUES (1, 10, '2024-03-01 12:00:00'), (2, 20, 1709294400000)");
+        }
+
+        DatabaseInitializerConfig.convertExamResultTimestamps(new JdbcTemplate(legacy));
+        DatabaseInitializerConfig.convertExamResultTimestamps(new JdbcTemplate(legacy));
+
+        try (var conn = legacy.getConnection(); var stmt = conn.createStatement()) {
+            try (var rs = stmt.executeQuery("SELECT typeof(created_at), created_at FROM exam_result ORDER BY id")) {
+                assertTrue(rs.next());
+                assertEquals("integer", rs.getString(1));
+                assertEquals(1709294400000L, rs.getLong(2));
+                assertTrue(rs.next());
+                assertEquals(1709294400000L, rs.getLong(2));
+            }
+            try (var rs = stmt.executeQuery("SELECT COUNT(*) FROM trend_updates")) {
+                rs.next();
+                assertEquals(0, rs.getInt(1));
+            }
+        }
+    }
+
+    private static List<String> slots(Statement stmt) throws SQLException {
+        List<String> slots = new ArrayList<>();
+        try (var rs = stmt.executeQuery("SELECT score, slot FROM exam_result ORDER BY score")) {
+            while (rs.next()) {
+                slots.add(rs.getInt("score") + ":" + rs.getString("slot"));
+            }
+        }
+        return slots;
+    }
+
     @Test
     void indexesExist() throws SQLException {
         try (var conn = dataSource.getConnection(); var stmt = conn.createStatement()) {
@@ -137,6 +281,9 @@ class DatabaseMigrationTest {
             assertTrue(indexes.contains("idx_exam_result_student_id"), "idx_exam_result_student_id should exist");
             assertTrue(indexes.contains("idx_exam_result_course_id"), "idx_exam_result_course_id should exist");
             assertTrue(indexes.contains("idx_exam_result_student_course"), "idx_exam_result_student_course should exist");
+            assertTrue(indexes.contains("idx_exam_result_course_score"), "idx_exam_result_course_score should exist");
+            assertTrue(indexes.contains("idx_exam_result_course_created"), "idx_exam_result_course_created should exist");
+            assertTrue(indexes.contains("idx_exam_result_slot"), "idx_exam_result_slot should exist");
         }
     }
 
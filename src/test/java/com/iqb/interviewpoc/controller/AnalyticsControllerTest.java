@@ -0,0 +1,222 @@
+package com.iqb.interviewpoc.controller;
+
+import com.iqb.interviewpoc.entity.Course;
+import com.iqb.interviewpoc.entity.ExamResult;
+import com.iqb.interviewpoc.entity.Student;
+import com.iqb.interviewpoc.repository.CourseRepository;
+import com.iqb.interviewpoc.repository.ExamResultRepository;
+import com.iqb.interviewpoc.repository.StudentRepository;
+import com.iqb.interviewpoc.store.ColumnarExamResults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AnalyticsControllerTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private StudentRepository studentRepository;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private ExamResultRepository examResultRepository;
+    @Autowired private ColumnarExamResults columns;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private Student alice;
+    private Student bob;
+    private Course math;
+    private Course physics;
+
+    @BeforeEach
+    void setUp() {
+        examResultRepository.deleteAll();
+        studentRepository.deleteAll();
+        courseRepository.deleteAll();
+        columns.rebuild();
+
+        alice = createStudent("Alice", 1);
+        bob = createStudent("Bob", 2);
+        math = createCourse("Math");
+        physics = createCourse("Physics");
+    }
+
+    private Student createStudent(String name, int number) {
+        Student s = new Student();
+        s.setFullName(name);
+        s.setNumber(number);
+        s.setEmail(name.toLowerCase() + "@test.com");
+        return studentRepository.save(s);
+    }
+
+    private Course createCourse(String name) {
+        Course c = new Course();
+        c.setName(name);
+        return courseRepository.save(c);
+    }
+
+    private ExamResult createScore(Student student, Course course, int score) {
+        ExamResult er = new ExamResult();
+        er.setStudent(student);
+        er.setCourse(course);
+        er.setScore(score);
+        return examResultRepository.save(er);
+    }
+
+    @Test
+    void groupByCourseFollowsWrites() throws Exception {
+        createScore(alice, math, 40);
+        ExamResult er = createScore(bob, math, 80);
+        createScore(alice, physics, 70);
+
+        mockMvc.perform(get("/api/analytics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.groupBy").value("course"))
+                .andExpect(jsonPath("$.count").value(3))
+                .andExpect(jsonPath("$.groups[*].label", contains("Math", "Physics")))
+                .andExpect(jsonPath("$.groups[0].averageScore").value(60.0))
+                .andExpect(jsonPath("$.groups[0].passRate").value(50.0));
+
+        er.setScore(20);
+        examResultRepository.save(er);
+        math.setName("Mathematics");
+        courseRepository.save(math);
+
+        mockMvc.perform(get("/api/analytics").param("passScore", "30"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.groups[0].label").value("Mathematics"))
+                .andExpect(jsonPath("$.groups[0].averageScore").value(30.0))
+                .andExpect(jsonPath("$.groups[0].passRate").value(50.0));
+
+        examResultRepository.delete(er);
+
+        mockMvc.perform(get("/api/analytics").param("groupBy", "student"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.groups", hasSize(1)))
+                .andExpect(jsonPath("$.groups[0].label").value("Alice"))
+                .andExpect(jsonPath("$.groups[0].averageScore").value(55.0));
+    }
+
+    @Test
+    void rebuildLoadsMoreNamesThanTheInitialDictionaryCapacity() throws Exception {
+        for (int i = 0; i < 70; i++) {
+            Student student = createStudent("Student" + i, 100 + i);
+            Course course = createCourse("Course " + i);
+            jdbcTemplate.update("INSERT INTO exam_result (student_id, course_id, score, created_at, updated_at) " +
+                    "VALUES (?, ?, 50, '2024-03-15 10:00:00', '2024-03-15 10:00:00')", student.getId(), course.getId());
+        }
+        columns.rebuild();
+
+        mockMvc.perform(get("/api/analytics").param("groupBy", "student"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(70))
+                .andExpect(jsonPath("$.groups", hasSize(70)))
+                .andExpect(jsonPath("$.groups[*].label", hasItem("Student69")));
+        mockMvc.perform(get("/api/analytics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.groups", hasSize(70)))
+                .andExpect(jsonPath("$.groups[*].label", hasItem("Course 69")));
+    }
+
+    @Test
+    void filtersAndTimeBuckets() throws Exception {
+        createScore(alice, math, 90);
+        createScore(bob, physics, 30);
+        jdbcTemplate.update("INSERT INTO exam_result (student_id, course_id, score, created_at, updated_at) " +
+                "VALUES (?, ?, 60, '2024-03-15 10:00:00', '2024-03-15 10:00:00')", alice.getId(), math.getId());
+        columns.rebuild();
+
+        mockMvc.perform(get("/api/analytics").param("groupBy", "month").param("courseId", String.valueOf(math.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.groups[0].key").value("2024-03"))
+                .andExpect(jsonPath("$.groups[0].averageScore").value(60.0));
+
+        mockMvc.perform(get("/api/analytics").param("groupBy", "week")
+                        .param("from", "2024-03-01").param("to", "2024-03-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.groups[0].key").value("2024-03-11"));
+
+        mockMvc.perform(get("/api/analytics").param("studentId", String.valueOf(bob.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.passRate").value(0.0));
+    }
+
+    @Test
+    void restartReplaysChangeLogOnTopOfSnapshot() throws Exception {
+        ExamResult er = createScore(alice, math, 50);
+        createScore(bob, physics, 70);
+        assertTrue(columns.writeSnapshot());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM change_log", Integer.class));
+
+        // written behind the store's back, so only the log knows about them
+        jdbcTemplate.update("INSERT INTO exam_result (student_id, course_id, score, created_at, updated_at) " +
+                "VALUES (?, ?, 90, '2024-03-15 10:00:00', '2024-03-15 10:00:00')", bob.getId(), math.getId());
+        jdbcTemplate.update("DELETE FROM exam_result WHERE id = ?", er.getId());
+        jdbcTemplate.update("UPDATE course SET name = 'Mathematics' WHERE id = ?", math.getId());
+        columns.warmStart();
+
+        mockMvc.perform(get("/api/analytics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.groups[*].label", contains("Mathematics", "Physics")))
+                .andExpect(jsonPath("$.groups[0].averageScore").value(90.0));
+    }
+
+    @Test
+    void pruningDropsAppliedLogEntriesWithoutASnapshot() throws Exception {
+        createScore(alice, math, 50);
+        assertTrue(columns.pruneLog() > 0);
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM change_log", Integer.class));
+
+        jdbcTemplate.update("INSERT INTO exam_result (student_id, course_id, score, created_at, updated_at) " +
+                "VALUES (?, ?, 90, '2024-03-15 10:00:00', '2024-03-15 10:00:00')", bob.getId(), math.getId());
+        columns.catchUp();
+        assertEquals(1, columns.pruneLog());
+
+        mockMvc.perform(get("/api/analytics"))
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.groups[0].averageScore").value(70.0));
+    }
+
+    @Test
+    void corruptSnapshotFallsBackToFullLoad() throws Exception {
+        createScore(alice, math, 50);
+        assertTrue(columns.writeSnapshot());
+        Path snapshot = Path.of("target/analytics-test.snapshot");
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length / 2] ^= 0x7f;
+        Files.write(snapshot, bytes);
+        createScore(bob, math, 70);
+
+        columns.warmStart();
+
+        mockMvc.perform(get("/api/analytics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.groups[0].averageScore").value(60.0));
+    }
+
+    @Test
+    void rejectsUnknownGrouping() throws Exception {
+        mockMvc.perform(get("/api/analytics").param("groupBy", "year"))
+                .andExpect(status().isBadRequest());
+    }
+}
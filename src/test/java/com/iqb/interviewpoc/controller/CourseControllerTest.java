@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.iqb.interviewpoc.entity.Course;
 import com.iqb.interviewpoc.repository.CourseRepository;
 import com.iqb.interviewpoc.repository.ExamResultRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,6 +15,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -26,6 +28,7 @@ class CourseControllerTest {
     @Autowired private ObjectMapper objectMapper;
     @Autowired private CourseRepository courseRepository;
     @Autowired private ExamResultRepository examResultRepository;
+    @Autowired private MeterRegistry meterRegistry;
 
     @BeforeEach
     void setUp() {
@@ -61,6 +64,53 @@ class CourseControllerTest {
                 .andExpect(jsonPath("$.content[0].name").value("Mathematics"));
     }
 
+    @Test
+    void listCoursesWithoutCount() throws Exception {
+        createCourse("Math");
+        createCourse("Physics");
+
+        mockMvc.perform(get("/api/courses").param("count", "none").param("size", "1").param("sort", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].name", contains("Math")))
+                .andExpect(jsonPath("$.last").value(false))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+        mockMvc.perform(get("/api/courses").param("count", "none").param("search", "phys"))
+                .andExpect(jsonPath("$.content[*].name", contains("Physics")))
+                .andExpect(jsonPath("$.last").value(true));
+    }
+
+    @Test
+    void repeatedSearchIsServedFromCacheUntilCoursesChange() throws Exception {
+        Course math = createCourse("Mathematics");
+        createCourse("Applied Math");
+        createCourse("Physics");
+        double hits = searchCache("hit");
+
+        mockMvc.perform(get("/api/courses").param("search", "MATH").param("sort", "name"))
+                .andExpect(jsonPath("$.content[*].name", contains("Applied Math", "Mathematics")));
+        mockMvc.perform(get("/api/courses").param("search", "math ").param("sort", "name")
+                        .param("size", "1").param("page", "1"))
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.content[*].name", contains("Mathematics")));
+        assertEquals(hits + 1, searchCache("hit"));
+
+        String json = """
+                {"name":"Statistics"}
+                """;
+        mockMvc.perform(put("/api/courses/{id}", math.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/courses").param("search", "math").param("sort", "name"))
+                .andExpect(jsonPath("$.content[*].name", contains("Applied Math")));
+        assertEquals(hits + 1, searchCache("hit"));
+    }
+
+    private double searchCache(String outcome) {
+        return meterRegistry.get("app.search.cache.calls").tag("outcome", outcome).counter().count();
+    }
+
     @Test
     void getById() throws Exception {
         Course c = createCourse("Math");
@@ -70,12 +120,80 @@ class CourseControllerTest {
                 .andExpect(jsonPath("$.name").value("Math"));
     }
 
+    @Test
+    void sparseFieldsPruneListAndDetail() throws Exception {
+        Course c = createCourse("Math");
+
+        mockMvc.perform(get("/api/courses").param("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(c.getId()))
+                .andExpect(jsonPath("$.content[0].name").value("Math"))
+                .andExpect(jsonPath("$.content[0].createdAt").doesNotExist());
+        mockMvc.perform(get("/api/courses/{id}", c.getId()).param("fields", "updatedAt"))
+                .andExpect(jsonPath("$.updatedAt").exists())
+                .andExpect(jsonPath("$.name").doesNotExist());
+        mockMvc.perform(get("/api/courses/{id}", c.getId()).param("fields", "title"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getByIdNotFound() throws Exception {
         mockMvc.perform(get("/api/courses/{id}", 9999))
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void listNotModifiedUntilCoursesChange() throws Exception {
+        createCourse("Math");
+
+        String etag = mockMvc.perform(get("/api/courses"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", startsWith("W/\"")))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/courses").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        createCourse("Physics");
+
+        mockMvc.perform(get("/api/courses").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(jsonPath("$.content", hasSize(2)));
+    }
+
+    @Test
+    void statsForCourseWithoutResults() throws Exception {
+        Course c = createCourse("Math");
+
+        mockMvc.perform(get("/api/courses/{id}/stats", c.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(0))
+                .andExpect(jsonPath("$.buckets", hasSize(11)));
+    }
+
+    @Test
+    void statsNotFound() throws Exception {
+        mockMvc.perform(get("/api/courses/{id}/stats", 9999))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void trendForCourseWithoutResults() throws Exception {
+        Course c = createCourse("Math");
+
+        mockMvc.perform(get("/api/courses/{id}/trend", c.getId()).param("bucket", "day"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bucket").value("day"))
+                .andExpect(jsonPath("$.count").value(0))
+                .andExpect(jsonPath("$.points", hasSize(0)));
+        mockMvc.perform(get("/api/courses/{id}/trend", c.getId()).param("bucket", "year"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/courses/{id}/trend", 9999))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void createCourseEndpoint() throws Exception {
         String json = """
@@ -6,15 +6,20 @@ import com.iqb.interviewpoc.entity.Student;
 import com.iqb.interviewpoc.repository.CourseRepository;
 import com.iqb.interviewpoc.repository.ExamResultRepository;
 import com.iqb.interviewpoc.repository.StudentRepository;
+import com.iqb.interviewpoc.service.DashboardStreamService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
-import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
@@ -26,6 +31,8 @@ class DashboardControllerTest {
     @Autowired private StudentRepository studentRepository;
     @Autowired private CourseRepository courseRepository;
     @Autowired private ExamResultRepository examResultRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private DashboardStreamService streamService;
 
     @BeforeEach
     void setUp() {
@@ -72,6 +79,105 @@ class DashboardControllerTest {
                 .andExpect(jsonPath("$.totalExamResults").value(1))
                 .andExpect(jsonPath("$.averageScore").value(80.0))
                 .andExpect(jsonPath("$.completedPairs").value(0))
-                .andExpect(jsonPath("$.inProgressPairs").value(1));
+                .andExpect(jsonPath("$.inProgressPairs").value(1))
+                .andExpect(jsonPath("$.topStudents[0].fullName").value("Alice"))
+                .andExpect(jsonPath("$.topStudents[0].averageScore").value(80.0));
+    }
+
+    @Test
+    void statsFollowScoreWrites() throws Exception {
+        Student s = new Student();
+        s.setFullName("Bob");
+        s.setNumber(2);
+        s.setEmail("bob@test.com");
+        s = studentRepository.save(s);
+
+        Course c = new Course();
+        c.setName("Physics");
+        c = courseRepository.save(c);
+
+        String create = String.format("""
+                {"courses":[{"courseId":%d,"scores":[{"id":null,"score":10},{"id":null,"score":50},{"id":null,"score":90}]}]}
+                """, c.getId());
+        mockMvc.perform(put("/api/exam-results/student/{id}", s.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(create))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/dashboard/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalExamResults").value(3))
+                .andExpect(jsonPath("$.averageScore").value(50.0))
+                .andExpect(jsonPath("$.completedPairs").value(1))
+                .andExpect(jsonPath("$.inProgressPairs").value(0))
+                .andExpect(jsonPath("$.scoreDistribution.range0to20").value(1))
+                .andExpect(jsonPath("$.scoreDistribution.range41to60").value(1))
+                .andExpect(jsonPath("$.scoreDistribution.range81to100").value(1));
+
+        Long lowId = examResultRepository.findByStudentIdOrderByCourseIdAscIdAsc(s.getId()).get(0).getId();
+        String delete = String.format("""
+                {"courses":[{"courseId":%d,"scores":[{"id":%d,"score":null}]}]}
+                """, c.getId(), lowId);
+        mockMvc.perform(put("/api/exam-results/student/{id}", s.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(delete))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/dashboard/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalExamResults").value(2))
+                .andExpect(jsonPath("$.averageScore").value(70.0))
+                .andExpect(jsonPath("$.completedPairs").value(0))
+                .andExpect(jsonPath("$.inProgressPairs").value(1))
+                .andExpect(jsonPath("$.scoreDistribution.range0to20").value(0));
+
+        mockMvc.perform(delete("/api/courses/{id}", c.getId()))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/dashboard/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalCourses").value(0))
+                .andExpect(jsonPath("$.totalExamResults").value(0))
+                .andExpect(jsonPath("$.inProgressPairs").value(0));
+    }
+
+    @Test
+    void rebuildRollup() throws Exception {
+        Student s = new Student();
+        s.setFullName("Carol");
+        s.setNumber(3);
+        s.setEmail("carol@test.com");
+        studentRepository.save(s);
+
+        jdbcTemplate.update("UPDATE dashboard_rollup SET student_count = 42, exam_result_count = 7 WHERE id = 1");
+
+        mockMvc.perform(post("/api/dashboard/rollup/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalStudents").value(1))
+                .andExpect(jsonPath("$.totalExamResults").value(0));
+    }
+
+    @Test
+    void streamSendsStatsThenDeltas() throws Exception {
+        MvcResult stream = mockMvc.perform(get("/api/dashboard/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String initial = stream.getResponse().getContentAsString();
+        assertTrue(initial.contains("event:stats"), initial);
+        assertTrue(initial.contains("\"totalStudents\":0"), initial);
+
+        mockMvc.perform(post("/api/courses")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"name":"Streamed"}
+                                """))
+                .andExpect(status().isCreated());
+
+        streamService.flush();
+
+        String updates = stream.getResponse().getContentAsString();
+        assertTrue(updates.contains("event:delta"), updates);
+        assertTrue(updates.contains("\"counters\":{\"totalCourses\":1}"), updates);
     }
 }
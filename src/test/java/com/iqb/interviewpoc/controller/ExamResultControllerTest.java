@@ -7,16 +7,24 @@ import com.iqb.interviewpoc.entity.Student;
 import com.iqb.interviewpoc.repository.CourseRepository;
 import com.iqb.interviewpoc.repository.ExamResultRepository;
 import com.iqb.interviewpoc.repository.StudentRepository;
+import com.iqb.interviewpoc.store.ScoreHistogramStore;
+import com.zaxxer.hikari.HikariDataSource;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.List;
+
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -30,6 +38,9 @@ class ExamResultControllerTest {
     @Autowired private StudentRepository studentRepository;
     @Autowired private CourseRepository courseRepository;
     @Autowired private ExamResultRepository examResultRepository;
+    @Autowired private ScoreHistogramStore scoreHistogramStore;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private DataSource dataSource;
 
     private Student student;
     private Course course;
@@ -78,6 +89,101 @@ class ExamResultControllerTest {
                 .andExpect(jsonPath("$.content", hasSize(1)));
     }
 
+    @Test
+    void listExamResultsWithEstimatedTotal() throws Exception {
+        createScore(80);
+        createScore(90);
+        createScore(95);
+
+        mockMvc.perform(get("/api/exam-results").param("count", "estimate").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].score", contains(95, 90)))
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.totalEstimated").value(true));
+        mockMvc.perform(get("/api/exam-results").param("count", "estimate").param("search", "90"))
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.totalEstimated").value(false));
+        mockMvc.perform(get("/api/exam-results").param("count", "none").param("size", "2").param("page", "1"))
+                .andExpect(jsonPath("$.content[*].score", contains(80)))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    void listExamResultsWithTypedFilters() throws Exception {
+        Course other = new Course();
+        other.setName("Other Course");
+        other = courseRepository.save(other);
+        Student second = new Student();
+        second.setFullName("Second Student");
+        second.setNumber(101);
+        second.setEmail("second@test.com");
+        second = studentRepository.save(second);
+
+        createScore(35);
+        createScore(85);
+        createScore(60);
+        ExamResult pending = new ExamResult();
+        pending.setStudent(student);
+        pending.setCourse(other);
+        pending.setScore(20);
+        examResultRepository.save(pending);
+        jdbcTemplate.update("INSERT INTO exam_result (student_id, course_id, score, created_at, updated_at) " +
+                "VALUES (?, ?, 30, '2024-03-13 09:00:00', '2024-03-13 09:00:00')", second.getId(), course.getId());
+
+        assertEquals("integer", jdbcTemplate.queryForObject(
+                "SELECT typeof(created_at) FROM exam_result WHERE score = 30", String.class));
+
+        mockMvc.perform(get("/api/exam-results").param("courseId", course.getId().toString()).param("maxScore", "39"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.content[*].score", contains(30, 35)));
+        mockMvc.perform(get("/api/exam-results").param("completed", "true").param("sort", "score"))
+                .andExpect(jsonPath("$.content[*].score", contains(35, 60, 85)));
+        mockMvc.perform(get("/api/exam-results").param("completed", "false"))
+                .andExpect(jsonPath("$.content[*].score", contains(30, 20)));
+        mockMvc.perform(get("/api/exam-results").param("createdFrom", "2024-03-01").param("createdTo", "2024-03-13"))
+                .andExpect(jsonPath("$.content[*].score", contains(30)));
+        mockMvc.perform(get("/api/exam-results").param("studentId", second.getId().toString()))
+                .andExpect(jsonPath("$.content[*].studentName", contains("Second Student")));
+        mockMvc.perform(get("/api/exam-results").param("courseId", course.getId().toString())
+                        .param("search", "85").param("count", "none"))
+                .andExpect(jsonPath("$.content[*].score", contains(85)))
+                .andExpect(jsonPath("$.last").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        mockMvc.perform(get("/api/exam-results").param("minScore", "50").param("maxScore", "40"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void listExamResultsWithSparseFields() throws Exception {
+        createScore(70);
+        createScore(40);
+
+        mockMvc.perform(get("/api/exam-results").param("fields", "courseName,score").param("sort", "score"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.content[*].score", contains(40, 70)))
+                .andExpect(jsonPath("$.content[0].id").exists())
+                .andExpect(jsonPath("$.content[0].courseName").value("Test Course"))
+                .andExpect(jsonPath("$.content[0].studentName").doesNotExist())
+                .andExpect(jsonPath("$.content[0].studentId").doesNotExist());
+        mockMvc.perform(get("/api/exam-results").param("fields", "studentId,score").param("search", "test"))
+                .andExpect(jsonPath("$.content[*].studentId", contains(student.getId().intValue(), student.getId().intValue())))
+                .andExpect(jsonPath("$.content[0].courseName").doesNotExist());
+        mockMvc.perform(get("/api/exam-results").param("fields", "studentNumber").param("maxScore", "50"))
+                .andExpect(jsonPath("$.content[*].studentNumber", contains(100)))
+                .andExpect(jsonPath("$.content[0].score").doesNotExist());
+        mockMvc.perform(get("/api/exam-results").param("after", "").param("fields", "score"))
+                .andExpect(jsonPath("$.content[*].score", contains(40, 70)))
+                .andExpect(jsonPath("$.content[0].studentName").doesNotExist())
+                .andExpect(jsonPath("$.hasNext").value(false));
+
+        mockMvc.perform(get("/api/exam-results").param("fields", "score,grade"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("'grade'")));
+    }
+
     @Test
     void getStudentScores() throws Exception {
         createScore(70);
@@ -139,6 +245,125 @@ class ExamResultControllerTest {
                 .andExpect(jsonPath("$.courses").isEmpty());
     }
 
+    @Test
+    void saveScoresWritesOnlyTheDiff() throws Exception {
+        ExamResult changed = createScore(70);
+        ExamResult removed = createScore(80);
+        ExamResult unchanged = createScore(90);
+        jdbcTemplate.update("UPDATE exam_result SET updated_at = 0 WHERE id = ?", unchanged.getId());
+        Course other = new Course();
+        other.setName("Other Course");
+        other = courseRepository.save(other);
+
+        // the delete frees the slot the new score takes, whatever the order in the request
+        String json = String.format("""
+                {"courses":[{"courseId":%d,"scores":[{"id":null,"score":65},{"id":%d,"score":75},{"id":%d,"score":null},{"id":%d,"score":90}]},
+                            {"courseId":%d,"scores":[{"id":null,"score":40}]},
+                            {"courseId":9999,"scores":[{"id":null,"score":10}]}]}
+                """, course.getId(), changed.getId(), removed.getId(), unchanged.getId(), other.getId());
+
+        mockMvc.perform(put("/api/exam-results/student/{id}", student.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.courses[*].courseId", contains(course.getId().intValue(), other.getId().intValue())))
+                .andExpect(jsonPath("$.courses[0].scores[*].score", contains(75, 90, 65)))
+                .andExpect(jsonPath("$.courses[1].scores[*].score", contains(40, null, null)));
+
+        assertEquals(0L, jdbcTemplate.queryForObject(
+                "SELECT updated_at FROM exam_result WHERE id = ?", Long.class, unchanged.getId()));
+        assertEquals(4, examResultRepository.count());
+        mockMvc.perform(get("/api/exam-results/student/{id}", student.getId()))
+                .andExpect(jsonPath("$.courses[0].scores[*].score", contains(75, 90, 65)));
+        mockMvc.perform(get("/api/courses/{id}/stats", course.getId()))
+                .andExpect(jsonPath("$.count").value(3));
+    }
+
+    @Test
+    void importStreamsCsvAndNdjsonWithRowErrors() throws Exception {
+        Course algebra = new Course();
+        algebra.setName("Algebra, Intro");
+        algebra = courseRepository.save(algebra);
+
+        String csv = """
+                score,studentNumber,courseName
+                80,100,Test Course
+                "75",100,"Algebra, Intro"
+                90,999,Test Course
+                101,100,Test Course
+                70,100,test course
+
+                60,100,Test Course
+                50,100,Test Course
+                """;
+        mockMvc.perform(post("/api/exam-results/import").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(4))
+                .andExpect(jsonPath("$.rejected").value(3))
+                .andExpect(jsonPath("$.errors[*].line", contains(4, 5, 9)))
+                .andExpect(jsonPath("$.errors[0].message").value("Unknown student number 999"))
+                .andExpect(jsonPath("$.errors[2].message", containsString("Maximum 3 scores")))
+                .andExpect(jsonPath("$.errorsTruncated").value(false));
+
+        String ndjson = """
+                {"studentNumber":100,"courseName":"Algebra, Intro","score":65}
+                oops
+                {"studentNumber":100,"courseName":"Nope","score":1}
+                """;
+        mockMvc.perform(post("/api/exam-results/import").contentType(MediaType.APPLICATION_NDJSON).content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[*].line", contains(2, 3)));
+
+        mockMvc.perform(get("/api/exam-results/student/{id}", student.getId()))
+                .andExpect(jsonPath("$.courses[0].scores[*].score", contains(80, 70, 60)))
+                .andExpect(jsonPath("$.courses[1].scores[*].score", contains(75, 65, null)));
+        // events carry the ids the batch inserts got
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM exam_result ORDER BY id DESC LIMIT 2", Long.class);
+        mockMvc.perform(get("/api/exam-results/recent").param("limit", "2"))
+                .andExpect(jsonPath("$.content[*].id", contains(ids.get(0).intValue(), ids.get(1).intValue())))
+                .andExpect(jsonPath("$.content[0].score").value(65));
+        mockMvc.perform(get("/api/courses/{id}/stats", course.getId()))
+                .andExpect(jsonPath("$.count").value(3));
+        mockMvc.perform(get("/api/exam-results").param("courseId", course.getId().toString()).param("createdFrom", LocalDate.now().minusDays(1).toString()))
+                .andExpect(jsonPath("$.totalElements").value(3));
+
+        mockMvc.perform(post("/api/exam-results/import").contentType("text/csv").content("student,course,score\n1,Test Course,5\n"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/exam-results/import").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    void importRetriesAFailedChunkRowByRow() throws Exception {
+        // stands in for a failure only the database sees, such as a constraint added after the checks
+        jdbcTemplate.execute("CREATE TRIGGER trg_test_reject_13 BEFORE INSERT ON exam_result WHEN NEW.score = 13 " +
+                "BEGIN SELECT RAISE(ABORT, 'score 13 is not accepted'); END");
+        try {
+            String csv = """
+                    studentNumber,courseName,score
+                    100,Test Course,80
+                    100,Test Course,13
+                    100,Test Course,60
+                    """;
+            mockMvc.perform(post("/api/exam-results/import").contentType("text/csv").content(csv))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.imported").value(2))
+                    .andExpect(jsonPath("$.rejected").value(1))
+                    .andExpect(jsonPath("$.errors[0].line").value(3))
+                    .andExpect(jsonPath("$.errors[0].message").value("Could not be saved: Data integrity violation"));
+        } finally {
+            jdbcTemplate.execute("DROP TRIGGER trg_test_reject_13");
+            // pooled connections that saw the trigger can fail their next prepare after the drop, so start fresh ones
+            dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean().softEvictConnections();
+        }
+
+        mockMvc.perform(get("/api/exam-results/student/{id}", student.getId()))
+                .andExpect(jsonPath("$.courses[0].scores[*].score", contains(80, 60, null)));
+        mockMvc.perform(get("/api/courses/{id}/stats", course.getId()))
+                .andExpect(jsonPath("$.count").value(2));
+    }
+
     @Test
     void saveScoresStudentNotFound() throws Exception {
         String json = String.format("""
@@ -181,4 +406,190 @@ class ExamResultControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message", containsString("Maximum 3 scores")));
     }
+
+    @Test
+    void courseStatsFollowScoreWrites() throws Exception {
+        createScore(40);
+        ExamResult er = createScore(60);
+        createScore(90);
+
+        String json = String.format("""
+                {"courses":[{"courseId":%d,"scores":[{"id":%d,"score":100}]}]}
+                """, course.getId(), er.getId());
+        mockMvc.perform(put("/api/exam-results/student/{id}", student.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/courses/{id}/stats", course.getId()).param("bucketWidth", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(3))
+                .andExpect(jsonPath("$.min").value(40))
+                .andExpect(jsonPath("$.median").value(90))
+                .andExpect(jsonPath("$.max").value(100))
+                .andExpect(jsonPath("$.buckets", hasSize(3)))
+                .andExpect(jsonPath("$.buckets[0].count").value(1))
+                .andExpect(jsonPath("$.buckets[2].from").value(100))
+                .andExpect(jsonPath("$.buckets[2].count").value(1));
+
+        mockMvc.perform(delete("/api/students/{id}", student.getId()))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/courses/{id}/stats", course.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(0))
+                .andExpect(jsonPath("$.median").doesNotExist());
+    }
+
+    @Test
+    void globalStats() throws Exception {
+        scoreHistogramStore.rebuild();
+        createScore(10);
+        createScore(50);
+        createScore(90);
+
+        mockMvc.perform(get("/api/exam-results/stats").param("bucketWidth", "101"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(3))
+                .andExpect(jsonPath("$.mean").value(50.0))
+                .andExpect(jsonPath("$.median").value(50))
+                .andExpect(jsonPath("$.p90").value(90))
+                .andExpect(jsonPath("$.max").value(90))
+                .andExpect(jsonPath("$.buckets", hasSize(1)))
+                .andExpect(jsonPath("$.buckets[0].count").value(3));
+    }
+
+    @Test
+    void trendFollowsWritesPerBucket() throws Exception {
+        createScore(40);
+        createScore(60);
+        // a second student in the same course, so the pair slot index leaves room for the dated rows
+        Student second = new Student();
+        second.setFullName("Second Student");
+        second.setNumber(101);
+        second.setEmail("second@test.com");
+        second = studentRepository.save(second);
+        jdbcTemplate.update("INSERT INTO exam_result (student_id, course_id, score, created_at, updated_at) " +
+                "VALUES (?, ?, 70, '2024-03-13 09:00:00', '2024-03-13 09:00:00')", second.getId(), course.getId());
+        jdbcTemplate.update("INSERT INTO exam_result (student_id, course_id, score, created_at, updated_at) " +
+                "VALUES (?, ?, 90, '2024-03-18 09:00:00', '2024-03-18 09:00:00')", second.getId(), course.getId());
+        jdbcTemplate.update("UPDATE exam_result SET score = 50 WHERE score = 70");
+
+        mockMvc.perform(get("/api/exam-results/trend").param("from", "2024-03-14").param("to", "2024-03-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bucket").value("week"))
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.points[*].start", contains("2024-03-11", "2024-03-18")))
+                .andExpect(jsonPath("$.points[0].averageScore").value(50.0));
+
+        mockMvc.perform(get("/api/courses/{id}/trend", course.getId()).param("bucket", "month"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(4))
+                .andExpect(jsonPath("$.points[0].start").value("2024-03-01"))
+                .andExpect(jsonPath("$.points[0].averageScore").value(70.0))
+                .andExpect(jsonPath("$.points[1].count").value(2))
+                .andExpect(jsonPath("$.points[1].averageScore").value(50.0));
+
+        jdbcTemplate.update("DELETE FROM exam_result WHERE score = 90");
+
+        mockMvc.perform(get("/api/exam-results/trend").param("bucket", "day").param("to", "2024-12-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.points", hasSize(1)))
+                .andExpect(jsonPath("$.points[0].start").value("2024-03-13"));
+    }
+
+    @Test
+    void cursorPagingNewestFirst() throws Exception {
+        createScore(10);
+        ExamResult middle = createScore(20);
+        ExamResult newest = createScore(30);
+
+        String first = mockMvc.perform(get("/api/exam-results").param("after", "").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains(newest.getId().intValue(), middle.getId().intValue())))
+                .andExpect(jsonPath("$.content[0].studentName").value("Test Student"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/api/exam-results").param("after", objectMapper.readTree(first).get("nextCursor").asText()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].score", contains(10)))
+                .andExpect(jsonPath("$.hasNext").value(false));
+
+        mockMvc.perform(get("/api/exam-results").param("after", "").param("size", "2").param("sort", "score,desc"))
+                .andExpect(jsonPath("$.content[*].score", contains(30, 20)));
+        mockMvc.perform(get("/api/exam-results").param("after", "").param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void statsRejectInvalidBucketWidth() throws Exception {
+        mockMvc.perform(get("/api/exam-results/stats").param("bucketWidth", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void recentFeedPagesWithCursor() throws Exception {
+        createScore(10);
+        ExamResult middle = createScore(20);
+        ExamResult newest = createScore(30);
+
+        mockMvc.perform(get("/api/exam-results/recent").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].score", contains(30, 20)))
+                .andExpect(jsonPath("$.content[0].studentName").value("Test Student"))
+                .andExpect(jsonPath("$.content[0].courseName").value("Test Course"))
+                .andExpect(jsonPath("$.nextCursor").value(middle.getId()));
+
+        mockMvc.perform(get("/api/exam-results/recent").param("before", String.valueOf(middle.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].score", contains(10)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        String json = String.format("""
+                {"courses":[{"courseId":%d,"scores":[{"id":%d,"score":null}]}]}
+                """, course.getId(), newest.getId());
+        mockMvc.perform(put("/api/exam-results/student/{id}", student.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/exam-results/recent").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].score", contains(20, 10)));
+    }
+
+    @Test
+    void recentFeedRejectsInvalidLimit() throws Exception {
+        mockMvc.perform(get("/api/exam-results/recent").param("limit", "101"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void studentScoresETagTracksOnlyThatStudent() throws Exception {
+        createScore(70);
+        String etag = mockMvc.perform(get("/api/exam-results/student/{id}", student.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        Student other = new Student();
+        other.setFullName("Other Student");
+        other.setNumber(101);
+        other.setEmail("other@test.com");
+        other = studentRepository.save(other);
+        ExamResult er = new ExamResult();
+        er.setStudent(other);
+        er.setCourse(course);
+        er.setScore(50);
+        examResultRepository.save(er);
+
+        mockMvc.perform(get("/api/exam-results/student/{id}", student.getId()).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        createScore(80);
+
+        mockMvc.perform(get("/api/exam-results/student/{id}", student.getId()).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.courses[0].scores[1].score").value(80));
+    }
 }
@@ -0,0 +1,167 @@
+package com.iqb.interviewpoc.controller;
+
+import com.iqb.interviewpoc.entity.Course;
+import com.iqb.interviewpoc.entity.ExamResult;
+import com.iqb.interviewpoc.entity.Student;
+import com.iqb.interviewpoc.repository.CourseRepository;
+import com.iqb.interviewpoc.repository.ExamResultRepository;
+import com.iqb.interviewpoc.repository.StudentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "app.search.mode=fts")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FullTextSearchTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private StudentRepository studentRepository;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private ExamResultRepository examResultRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private Student alice;
+    private Course math;
+
+    @BeforeEach
+    void setUp() {
+        examResultRepository.deleteAll();
+        studentRepository.deleteAll();
+        courseRepository.deleteAll();
+
+        alice = createStudent("Alice Öztürk", 4711, "alice@uni.edu");
+        createStudent("Bob Jones", 2, "bob@school.org");
+        math = createCourse("Mathematics");
+        createCourse("Physics");
+    }
+
+    // This class runs in its own context; leave nothing behind for the stores of the shared one.
+    @AfterEach
+    void tearDown() {
+        examResultRepository.deleteAll();
+        studentRepository.deleteAll();
+        courseRepository.deleteAll();
+    }
+
+    private Student createStudent(String name, int number, String email) {
+        Student s = new Student();
+        s.setFullName(name);
+        s.setNumber(number);
+        s.setEmail(email);
+        return studentRepository.save(s);
+    }
+
+    private Course createCourse(String name) {
+        Course c = new Course();
+        c.setName(name);
+        return courseRepository.save(c);
+    }
+
+    private ExamResult createScore(Student student, Course course, int score) {
+        ExamResult er = new ExamResult();
+        er.setStudent(student);
+        er.setCourse(course);
+        er.setScore(score);
+        return examResultRepository.save(er);
+    }
+
+    @Test
+    void studentsMatchWordPrefixes() throws Exception {
+        mockMvc.perform(get("/api/students").param("search", "oztu"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[0].fullName").value("Alice Öztürk"));
+        mockMvc.perform(get("/api/students").param("search", "school.o"))
+                .andExpect(jsonPath("$.content[*].fullName", contains("Bob Jones")));
+        mockMvc.perform(get("/api/students").param("search", "47"))
+                .andExpect(jsonPath("$.content[*].fullName", contains("Alice Öztürk")));
+        mockMvc.perform(get("/api/students").param("search", "\"*"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(0));
+
+        alice.setFullName("Alice Brown");
+        studentRepository.save(alice);
+
+        mockMvc.perform(get("/api/students").param("search", "oztu"))
+                .andExpect(jsonPath("$.totalElements").value(0));
+        mockMvc.perform(get("/api/students").param("search", "alice bro"))
+                .andExpect(jsonPath("$.content[*].fullName", contains("Alice Brown")));
+    }
+
+    @Test
+    void coursesRankBestMatchFirst() throws Exception {
+        createCourse("Statistics and Mathematics Lab");
+
+        mockMvc.perform(get("/api/courses").param("search", "math").param("sort", "name,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.content[0].name").value("Mathematics"));
+        mockMvc.perform(get("/api/courses").param("search", "math").param("size", "1").param("count", "none"))
+                .andExpect(jsonPath("$.content[*].name", contains("Mathematics")))
+                .andExpect(jsonPath("$.last").value(false));
+        mockMvc.perform(get("/api/courses").param("search", "math").param("size", "1").param("count", "estimate"))
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.totalEstimated").value(true));
+        mockMvc.perform(get("/api/courses").param("search", "phys").param("size", "1").param("page", "1"))
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content", hasSize(0)));
+    }
+
+    @Test
+    void examResultsFollowRenamesAndDeletes() throws Exception {
+        Student bob = studentRepository.findAll().stream()
+                .filter(s -> s.getNumber() == 2).findFirst().orElseThrow();
+        createScore(alice, math, 85);
+        createScore(bob, math, 40);
+
+        mockMvc.perform(get("/api/exam-results").param("search", "alice"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[0].score").value(85))
+                .andExpect(jsonPath("$.content[0].courseName").value("Mathematics"));
+        mockMvc.perform(get("/api/exam-results").param("search", "mathematics 4"))
+                .andExpect(jsonPath("$.content[*].studentName", contains("Bob Jones")));
+
+        jdbcTemplate.update("UPDATE course SET name = 'Calculus' WHERE id = ?", math.getId());
+        mockMvc.perform(get("/api/exam-results").param("search", "calc"))
+                .andExpect(jsonPath("$.totalElements").value(2));
+
+        jdbcTemplate.update("DELETE FROM student WHERE id = ?", bob.getId());
+        mockMvc.perform(get("/api/exam-results").param("search", "calc"))
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
+    @Test
+    void bulkUpsertKeepsTheIndexesCurrent() throws Exception {
+        createScore(alice, math, 85);
+        String body = """
+                [{"fullName":"Alice Yilmaz","number":4711,"email":"alice@uni.edu"},
+                 {"fullName":"Carol King","number":3,"email":"carol@uni.edu"}]
+                """;
+        mockMvc.perform(post("/api/students/bulk").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/students").param("search", "yilm"))
+                .andExpect(jsonPath("$.content[*].fullName", contains("Alice Yilmaz")));
+        mockMvc.perform(get("/api/students").param("search", "carol"))
+                .andExpect(jsonPath("$.content[*].fullName", contains("Carol King")));
+        mockMvc.perform(get("/api/students").param("search", "oztu"))
+                .andExpect(jsonPath("$.totalElements").value(0));
+        mockMvc.perform(get("/api/exam-results").param("search", "yilmaz"))
+                .andExpect(jsonPath("$.content[*].score", contains(85)));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM fts_stale", Integer.class));
+    }
+}
@@ -0,0 +1,141 @@
+package com.iqb.interviewpoc.controller;
+
+import com.iqb.interviewpoc.entity.Course;
+import com.iqb.interviewpoc.entity.Student;
+import com.iqb.interviewpoc.repository.CourseRepository;
+import com.iqb.interviewpoc.repository.ExamResultRepository;
+import com.iqb.interviewpoc.repository.StudentRepository;
+import com.iqb.interviewpoc.store.LeaderboardStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LeaderboardControllerTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private StudentRepository studentRepository;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private ExamResultRepository examResultRepository;
+    @Autowired private LeaderboardStore leaderboardStore;
+
+    private Student alice;
+    private Student bob;
+    private Student carol;
+    private Course math;
+    private Course physics;
+
+    @BeforeEach
+    void setUp() {
+        examResultRepository.deleteAll();
+        studentRepository.deleteAll();
+        courseRepository.deleteAll();
+        leaderboardStore.rebuild();
+
+        alice = createStudent("Alice", 1);
+        bob = createStudent("Bob", 2);
+        carol = createStudent("Carol", 3);
+        math = createCourse("Math");
+        physics = createCourse("Physics");
+    }
+
+    private Student createStudent(String name, int number) {
+        Student s = new Student();
+        s.setFullName(name);
+        s.setNumber(number);
+        s.setEmail(name.toLowerCase() + "@test.com");
+        return studentRepository.save(s);
+    }
+
+    private Course createCourse(String name) {
+        Course c = new Course();
+        c.setName(name);
+        return courseRepository.save(c);
+    }
+
+    private void saveScores(Student student, Course course, String scores) throws Exception {
+        String json = String.format("""
+                {"courses":[{"courseId":%d,"scores":[%s]}]}
+                """, course.getId(), scores);
+        mockMvc.perform(put("/api/exam-results/student/{id}", student.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void leaderboardRanksByAverage() throws Exception {
+        saveScores(alice, math, "{\"id\":null,\"score\":60},{\"id\":null,\"score\":80}");
+        saveScores(bob, math, "{\"id\":null,\"score\":90}");
+        saveScores(carol, physics, "{\"id\":null,\"score\":70}");
+
+        mockMvc.perform(get("/api/leaderboard"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.content[*].fullName", contains("Bob", "Alice", "Carol")))
+                .andExpect(jsonPath("$.content[*].rank", contains(1, 2, 2)))
+                .andExpect(jsonPath("$.content[1].averageScore").value(70.0))
+                .andExpect(jsonPath("$.content[1].scoreCount").value(2));
+
+        mockMvc.perform(get("/api/leaderboard").param("page", "1").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].fullName").value("Carol"))
+                .andExpect(jsonPath("$.content[0].rank").value(2));
+
+        mockMvc.perform(get("/api/leaderboard").param("courseId", String.valueOf(math.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.content[*].fullName", contains("Bob", "Alice")));
+    }
+
+    @Test
+    void standingFollowsScoreUpdates() throws Exception {
+        saveScores(alice, math, "{\"id\":null,\"score\":50}");
+        saveScores(bob, math, "{\"id\":null,\"score\":75}");
+
+        mockMvc.perform(get("/api/leaderboard/students/{id}", alice.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rank").value(2));
+
+        Long resultId = examResultRepository.findByStudentIdOrderByCourseIdAscIdAsc(alice.getId()).get(0).getId();
+        saveScores(alice, math, "{\"id\":" + resultId + ",\"score\":100}");
+
+        mockMvc.perform(get("/api/leaderboard/students/{id}", alice.getId())
+                        .param("courseId", String.valueOf(math.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rank").value(1))
+                .andExpect(jsonPath("$.fullName").value("Alice"))
+                .andExpect(jsonPath("$.averageScore").value(100.0));
+
+        mockMvc.perform(delete("/api/courses/{id}", math.getId()))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/leaderboard"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(0));
+    }
+
+    @Test
+    void standingNotFound() throws Exception {
+        mockMvc.perform(get("/api/leaderboard/students/{id}", carol.getId()))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/api/leaderboard/students/{id}", 9999))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/api/leaderboard").param("courseId", "9999"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -1,31 +1,47 @@
 package com.iqb.interviewpoc.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iqb.interviewpoc.entity.Course;
+import com.iqb.interviewpoc.entity.ExamResult;
 import com.iqb.interviewpoc.entity.Student;
+import com.iqb.interviewpoc.event.StudentBatchChangedEvent;
+import com.iqb.interviewpoc.event.StudentChangedEvent;
+import com.iqb.interviewpoc.repository.CourseRepository;
 import com.iqb.interviewpoc.repository.ExamResultRepository;
 import com.iqb.interviewpoc.repository.StudentRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
+
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
+@RecordApplicationEvents
 class StudentControllerTest {
 
     @Autowired private MockMvc mockMvc;
     @Autowired private ObjectMapper objectMapper;
     @Autowired private StudentRepository studentRepository;
     @Autowired private ExamResultRepository examResultRepository;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ApplicationEvents events;
 
     @BeforeEach
     void setUp() {
@@ -63,6 +79,319 @@ class StudentControllerTest {
                 .andExpect(jsonPath("$.content[0].fullName").value("Alice Smith"));
     }
 
+    @Test
+    void listStudentsWithoutCountOrWithEstimate() throws Exception {
+        createStudent("Alice Smith", 1, "alice@test.com");
+        createStudent("Bob Jones", 2, "bob@test.com");
+        createStudent("Carol Smithers", 3, "carol@test.com");
+
+        mockMvc.perform(get("/api/students").param("count", "none").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.last").value(false))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+        mockMvc.perform(get("/api/students").param("count", "none").param("size", "2").param("page", "1"))
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.last").value(true));
+
+        mockMvc.perform(get("/api/students").param("count", "estimate").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.totalEstimated").value(true));
+        mockMvc.perform(get("/api/students").param("count", "estimate").param("size", "2").param("page", "1"))
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.totalEstimated").value(false));
+        mockMvc.perform(get("/api/students").param("count", "estimate").param("size", "1")
+                        .param("search", "smith"))
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.totalEstimated").value(false));
+
+        mockMvc.perform(get("/api/students").param("count", "roughly"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private ExamResult createScore(Student student, Course course, int score) {
+        ExamResult er = new ExamResult();
+        er.setStudent(student);
+        er.setCourse(course);
+        er.setScore(score);
+        return examResultRepository.save(er);
+    }
+
+    @Test
+    void sortBySummaryKeysFollowsScoreWrites() throws Exception {
+        Course math = new Course();
+        math.setName("Summary Math");
+        math = courseRepository.save(math);
+        Course physics = new Course();
+        physics.setName("Summary Physics");
+        physics = courseRepository.save(physics);
+
+        Student alice = createStudent("Alice", 1, "alice@test.com");
+        Student bob = createStudent("Bob", 2, "bob@test.com");
+        createStudent("Carol", 3, "carol@test.com");
+        ExamResult aliceFirst = createScore(alice, math, 90);
+        createScore(alice, math, 90);
+        createScore(alice, math, 90);
+        for (int score : new int[]{50, 60, 70}) createScore(bob, math, score);
+        for (int score : new int[]{80, 80, 80}) createScore(bob, physics, score);
+
+        mockMvc.perform(get("/api/students").param("sort", "overallAverage,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.content[*].fullName", contains("Alice", "Bob", "Carol")));
+        mockMvc.perform(get("/api/students").param("sort", "completedCourses,desc"))
+                .andExpect(jsonPath("$.content[*].fullName", contains("Bob", "Alice", "Carol")));
+        mockMvc.perform(get("/api/students").param("sort", "overallAverage").param("count", "none").param("size", "2"))
+                .andExpect(jsonPath("$.content[*].fullName", contains("Bob", "Alice")))
+                .andExpect(jsonPath("$.last").value(false));
+        mockMvc.perform(get("/api/students").param("sort", "lastActivity,desc").param("search", "l"))
+                .andExpect(jsonPath("$.content[*].fullName", contains("Alice", "Carol")));
+
+        aliceFirst.setScore(0);
+        examResultRepository.save(aliceFirst);
+        mockMvc.perform(get("/api/students").param("sort", "overallAverage,desc"))
+                .andExpect(jsonPath("$.content[*].fullName", contains("Bob", "Alice", "Carol")));
+
+        examResultRepository.delete(aliceFirst);
+        mockMvc.perform(get("/api/students").param("sort", "completedCourses,desc").param("sort", "fullName"))
+                .andExpect(jsonPath("$.content[*].fullName", contains("Bob", "Alice", "Carol")))
+                .andExpect(jsonPath("$.content[1].completedCourses", hasSize(0)));
+    }
+
+    @Test
+    void searchMatchesInsideAnyFieldAndFollowsWrites() throws Exception {
+        Student alice = createStudent("Alice Smith", 4711, "alice@uni.edu");
+        Student bob = createStudent("Bob Jones", 2, "bob@school.org");
+        bob.setGsmNumber("+905551234567");
+        studentRepository.save(bob);
+        createStudent("Carol Smithers", 3, "carol@uni.edu");
+
+        mockMvc.perform(get("/api/students").param("search", "SMITH").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.content[0].fullName").value("Alice Smith"));
+        mockMvc.perform(get("/api/students").param("search", "smith").param("sort", "fullName,desc"))
+                .andExpect(jsonPath("$.content[*].fullName", contains("Carol Smithers", "Alice Smith")));
+        mockMvc.perform(get("/api/students").param("search", "471"))
+                .andExpect(jsonPath("$.content[*].fullName", contains("Alice Smith")));
+        mockMvc.perform(get("/api/students").param("search", "5512"))
+                .andExpect(jsonPath("$.content[*].fullName", contains("Bob Jones")));
+        mockMvc.perform(get("/api/students").param("search", "ob"))
+                .andExpect(jsonPath("$.content[*].fullName", contains("Bob Jones")));
+        // every trigram occurs, but not as one substring
+        mockMvc.perform(get("/api/students").param("search", "smithsmith"))
+                .andExpect(jsonPath("$.totalElements").value(0));
+
+        alice.setFullName("Alice Brown");
+        studentRepository.save(alice);
+        studentRepository.delete(bob);
+
+        mockMvc.perform(get("/api/students").param("search", "smith"))
+                .andExpect(jsonPath("$.content[*].fullName", contains("Carol Smithers")));
+        mockMvc.perform(get("/api/students").param("search", "brow"))
+                .andExpect(jsonPath("$.content[*].fullName", contains("Alice Brown")));
+        mockMvc.perform(get("/api/students").param("search", "5512"))
+                .andExpect(jsonPath("$.totalElements").value(0));
+    }
+
+    @Test
+    void shortTermsAndSortedPagesComeFromTheIndex() throws Exception {
+        createStudent("Ann Lee", 10, "a@t.io");
+        createStudent("Bea Lin", 21, "b@t.io");
+        createStudent("Cem Lo", 32, "c@t.io");
+        createStudent("Dan Ku", 43, "d@t.io");
+
+        mockMvc.perform(get("/api/students").param("search", "L").param("sort", "fullName,desc").param("size", "2"))
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.content[*].fullName", contains("Cem Lo", "Bea Lin")));
+        mockMvc.perform(get("/api/students").param("search", "l").param("sort", "fullName,desc")
+                        .param("size", "2").param("page", "1"))
+                .andExpect(jsonPath("$.content[*].fullName", contains("Ann Lee")));
+        mockMvc.perform(get("/api/students").param("search", "1").param("sort", "number,desc"))
+                .andExpect(jsonPath("$.content[*].fullName", contains("Bea Lin", "Ann Lee")));
+        // the last two characters of a field
+        mockMvc.perform(get("/api/students").param("search", "lo"))
+                .andExpect(jsonPath("$.content[*].fullName", contains("Cem Lo")));
+        mockMvc.perform(get("/api/students").param("search", "io").param("size", "2").param("page", "1"))
+                .andExpect(jsonPath("$.totalElements").value(4))
+                .andExpect(jsonPath("$.content[*].fullName", contains("Cem Lo", "Dan Ku")));
+    }
+
+    @Test
+    void suggestMatchesPrefixesAndFollowsWrites() throws Exception {
+        Student alice = createStudent("Alice Öztürk", 4711, "alice@uni.edu");
+        createStudent("Bob Smith", 4720, "bob@school.org");
+        createStudent("Alicia Keys", 12, "keys@uni.edu");
+
+        mockMvc.perform(get("/api/students/suggest").param("prefix", "ali"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].fullName", contains("Alice Öztürk", "Alicia Keys")))
+                .andExpect(jsonPath("$[0].number").value(4711))
+                .andExpect(jsonPath("$[0].email").doesNotExist());
+        mockMvc.perform(get("/api/students/suggest").param("prefix", "OZT"))
+                .andExpect(jsonPath("$[*].fullName", contains("Alice Öztürk")));
+        mockMvc.perform(get("/api/students/suggest").param("prefix", "47").param("limit", "1"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].number").value(4711));
+        mockMvc.perform(get("/api/students/suggest").param("prefix", "bob@"))
+                .andExpect(jsonPath("$[*].fullName", contains("Bob Smith")));
+
+        alice.setFullName("Alice Brown");
+        studentRepository.save(alice);
+        mockMvc.perform(get("/api/students/suggest").param("prefix", "ozt"))
+                .andExpect(jsonPath("$", hasSize(0)));
+        mockMvc.perform(get("/api/students/suggest").param("prefix", "brow"))
+                .andExpect(jsonPath("$[*].fullName", contains("Alice Brown")));
+
+        studentRepository.deleteById(alice.getId());
+        mockMvc.perform(get("/api/students/suggest").param("prefix", "alic"))
+                .andExpect(jsonPath("$[*].fullName", contains("Alicia Keys")));
+
+        mockMvc.perform(get("/api/students/suggest").param("prefix", "a").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void cursorPagingSeeksPastLastRow() throws Exception {
+        createStudent("Carol", 3, "carol@test.com");
+        createStudent("Alice", 1, "alice@test.com");
+        createStudent("Eve", 5, "eve@test.com");
+        createStudent("Bob", 2, "bob@test.com");
+        createStudent("Dave", 4, "dave@test.com");
+
+        String first = mockMvc.perform(get("/api/students").param("after", "").param("size", "2").param("sort", "fullName,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].fullName", contains("Eve", "Dave")))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(first).get("nextCursor").asText();
+
+        String second = mockMvc.perform(get("/api/students").param("after", cursor).param("size", "2").param("sort", "fullName,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].fullName", contains("Carol", "Bob")))
+                .andReturn().getResponse().getContentAsString();
+        cursor = objectMapper.readTree(second).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/students").param("after", cursor).param("size", "2").param("sort", "fullName,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].fullName", contains("Alice")))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        mockMvc.perform(get("/api/students").param("after", cursor).param("sort", "number"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/students").param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/students").param("after", "").param("sort", "gsmNumber"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void bulkUpsertCreatesUpdatesAndReportsPerRow() throws Exception {
+        Student alice = createStudent("Alice", 1, "alice@test.com");
+
+        String body = """
+                [{"fullName":"Alice Smith","number":1,"email":"alice@test.com"},
+                 {"fullName":"Bob","number":2,"email":"bob@test.com","gsmNumber":"555"},
+                 {"fullName":"","number":3,"email":"not-an-email"},
+                 {"fullName":"Robert","number":2,"email":"bob@test.com"},
+                 {"fullName":"Carol","number":"three","email":"carol@test.com"}]
+                """;
+        mockMvc.perform(post("/api/students/bulk").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.updated").value(2))
+                .andExpect(jsonPath("$.unchanged").value(0))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.rows[*].status", contains("UPDATED", "CREATED", "REJECTED", "UPDATED", "REJECTED")))
+                .andExpect(jsonPath("$.rows[0].id").value(alice.getId()))
+                .andExpect(jsonPath("$.rows[2].message", allOf(containsString("email"), containsString("fullName"))))
+                .andExpect(jsonPath("$.rows[4].message").value("Not a valid student object"));
+
+        mockMvc.perform(get("/api/students").param("sort", "number"))
+                .andExpect(jsonPath("$.content[*].fullName", contains("Alice Smith", "Robert")))
+                .andExpect(jsonPath("$.content[1].gsmNumber").doesNotExist());
+        mockMvc.perform(get("/api/students/suggest").param("prefix", "rob"))
+                .andExpect(jsonPath("$[*].fullName", contains("Robert")));
+
+        mockMvc.perform(post("/api/students/bulk").contentType(MediaType.APPLICATION_JSON).content("{\"number\":1}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void bulkUpsertReportsRowsSavedBeforeMalformedJson() throws Exception {
+        String body = "[{\"fullName\":\"Dan\",\"number\":4,\"email\":\"dan@test.com\"}, {\"number\":5,";
+
+        String response = mockMvc.perform(post("/api/students/bulk").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.rows[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.rows[1].index").value(1))
+                .andExpect(jsonPath("$.rows[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$.rows[1].message", startsWith("Malformed JSON")))
+                .andReturn().getResponse().getContentAsString();
+
+        long id = objectMapper.readTree(response).at("/rows/0/id").asLong();
+        mockMvc.perform(get("/api/students/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fullName").value("Dan"));
+    }
+
+    @Test
+    void bulkUpsertPublishesOneEventPerChunkAndLeavesUnchangedRowsAlone() throws Exception {
+        createStudent("Alice", 1, "alice@test.com");
+        events.clear();
+        String body = """
+                [{"fullName":"Alice","number":1,"email":"alice@test.com"},
+                 {"fullName":"Bob","number":2,"email":"bob@test.com"},
+                 {"fullName":"Carol","number":3,"email":"carol@test.com"}]
+                """;
+
+        mockMvc.perform(post("/api/students/bulk").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(jsonPath("$.rows[*].status", contains("UNCHANGED", "CREATED", "CREATED")))
+                .andExpect(jsonPath("$.unchanged").value(1));
+
+        List<StudentBatchChangedEvent> batches = events.stream(StudentBatchChangedEvent.class).toList();
+        assertEquals(1, batches.size());
+        assertEquals(List.of(2, 3), batches.get(0).changes().stream().map(StudentChangedEvent::number).toList());
+        assertEquals(0, events.stream(StudentChangedEvent.class).count());
+        // like mode leaves student_fts to be rebuilt on the next start instead of paying for it per row
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM fts_stale WHERE table_name = 'student_fts'", Integer.class));
+        mockMvc.perform(get("/api/students").param("search", "caro"))
+                .andExpect(jsonPath("$.content[*].fullName", contains("Carol")));
+    }
+
+    // mvn test -Dtest=StudentControllerTest#bulkUpsertThroughput -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void bulkUpsertThroughput() throws Exception {
+        int rows = 50_000;
+        // a warm-up batch on other numbers, then the measured passes over the same numbers
+        bulkUpsert("warm-up", rows, 1_000_000, "");
+        bulkUpsert("insert", rows, 100_000, "");
+        bulkUpsert("unchanged", rows, 100_000, "");
+        bulkUpsert("update", rows, 100_000, " Jr");
+    }
+
+    private void bulkUpsert(String pass, int rows, int firstNumber, String nameSuffix) throws Exception {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) body.append(',');
+            body.append("{\"fullName\":\"Student ").append(i).append(nameSuffix).append("\",\"number\":").append(firstNumber + i)
+                    .append(",\"email\":\"s").append(i).append("@test.com\"}");
+        }
+        byte[] content = body.append(']').toString().getBytes();
+        long started = System.nanoTime();
+        mockMvc.perform(post("/api/students/bulk").contentType(MediaType.APPLICATION_JSON).content(content))
+                .andExpect(status().isOk());
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("bulk %s: %d rows in %.2f s, %.0f rows/s%n", pass, rows, seconds, rows / seconds);
+    }
+
     @Test
     void getById() throws Exception {
         Student s = createStudent("Alice", 1, "alice@test.com");
@@ -72,6 +401,31 @@ class StudentControllerTest {
                 .andExpect(jsonPath("$.fullName").value("Alice"));
     }
 
+    @Test
+    void sparseFieldsPruneListAndDetail() throws Exception {
+        Student s = createStudent("Alice", 1, "alice@test.com");
+
+        mockMvc.perform(get("/api/students").param("fields", "fullName, number"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[0].id").value(s.getId()))
+                .andExpect(jsonPath("$.content[0].fullName").value("Alice"))
+                .andExpect(jsonPath("$.content[0].number").value(1))
+                .andExpect(jsonPath("$.content[0].email").doesNotExist())
+                .andExpect(jsonPath("$.content[0].completedCourses").doesNotExist());
+        mockMvc.perform(get("/api/students").param("after", "").param("fields", "email"))
+                .andExpect(jsonPath("$.content[0].email").value("alice@test.com"))
+                .andExpect(jsonPath("$.content[0].fullName").doesNotExist());
+        mockMvc.perform(get("/api/students/{id}", s.getId()).param("fields", "email"))
+                .andExpect(jsonPath("$.email").value("alice@test.com"))
+                .andExpect(jsonPath("$.createdAt").doesNotExist());
+        mockMvc.perform(get("/api/students/{id}", s.getId()))
+                .andExpect(jsonPath("$.createdAt").exists());
+
+        mockMvc.perform(get("/api/students").param("fields", "fullName,completedCourse"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getByIdNotFound() throws Exception {
         mockMvc.perform(get("/api/students/{id}", 9999))
@@ -0,0 +1,85 @@
+package com.iqb.interviewpoc.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageDtoTest {
+
+    private final ObjectMapper mapper = new ObjectMapper().setFilterProvider(
+            new SimpleFilterProvider().addFilter(FieldSet.FILTER, SimpleBeanPropertyFilter.serializeAll()));
+
+    private static Page<ExamResultDto> page(int size) {
+        List<ExamResultDto> rows = IntStream.range(0, size)
+                .mapToObj(i -> new ExamResultDto(i, 100 + i, "Student " + i, 1000 + i, 7, "Course", i % 101))
+                .toList();
+        return new PageImpl<>(rows, PageRequest.of(3, size, Sort.by("score").descending()), 5000);
+    }
+
+    @Test
+    void envelopeKeepsRowsAndTotalsWithoutPageableGraph() throws Exception {
+        Page<ExamResultDto> page = page(10);
+        String envelope = mapper.writeValueAsString(PageDto.of(page));
+        String pageImpl = mapper.writeValueAsString(page);
+
+        JsonNode json = mapper.readTree(envelope);
+        assertEquals(mapper.readTree(pageImpl).get("content"), json.get("content"));
+        assertEquals(5000, json.get("totalElements").asLong());
+        assertEquals(500, json.get("totalPages").asInt());
+        assertEquals(3, json.get("number").asInt());
+        assertFalse(json.get("last").asBoolean());
+        assertFalse(json.get("totalEstimated").asBoolean());
+        assertNull(json.get("pageable"));
+        assertNull(json.get("sort"));
+        assertTrue(envelope.length() < pageImpl.length());
+    }
+
+    @Test
+    void uncountedSliceOmitsTotals() throws Exception {
+        JsonNode json = mapper.readTree(mapper.writeValueAsString(PageDto.of(
+                new SliceImpl<>(List.of("a"), PageRequest.of(0, 1), true))));
+        assertNull(json.get("totalElements"));
+        assertNull(json.get("totalEstimated"));
+        assertFalse(json.get("last").asBoolean());
+    }
+
+    // mvn test -Dtest=PageDtoTest -Dbenchmark=true; rounds alternate so JIT warm-up favours neither, best round counts.
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkAgainstPageImpl() throws Exception {
+        for (int size : new int[]{1, 10, 100}) {
+            Page<ExamResultDto> page = page(size);
+            PageDto<ExamResultDto> dto = PageDto.of(page);
+            int iterations = 200_000 / size;
+            long pageImplNanos = Long.MAX_VALUE;
+            long envelopeNanos = Long.MAX_VALUE;
+            for (int round = 0; round < 8; round++) {
+                pageImplNanos = Math.min(pageImplNanos, time(page, iterations));
+                envelopeNanos = Math.min(envelopeNanos, time(dto, iterations));
+            }
+            System.out.printf("size=%3d  PageImpl: %5d bytes %7.0f ns/op  PageDto: %5d bytes %7.0f ns/op%n",
+                    size,
+                    mapper.writeValueAsBytes(page).length, (double) pageImplNanos / iterations,
+                    mapper.writeValueAsBytes(dto).length, (double) envelopeNanos / iterations);
+        }
+    }
+
+    private long time(Object value, int iterations) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) mapper.writeValueAsBytes(value);
+        return System.nanoTime() - start;
+    }
+}
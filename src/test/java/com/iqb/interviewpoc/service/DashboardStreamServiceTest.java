@@ -0,0 +1,99 @@
+package com.iqb.interviewpoc.service;
+
+import com.iqb.interviewpoc.dto.DashboardStatsDto;
+import com.iqb.interviewpoc.dto.DashboardStatsDto.ScoreDistributionDto;
+import com.iqb.interviewpoc.event.DashboardRollupRebuiltEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DashboardStreamServiceTest {
+
+    private final AtomicLong students = new AtomicLong();
+    private final DashboardStreamService streams = new DashboardStreamService(new DashboardService(null, null, null, null, null, null, null, null) {
+        @Override
+        DashboardStatsDto loadStats() {
+            return new DashboardStatsDto(students.get(), 0, 0, 0.0, 0, 0, List.of(), List.of(),
+                    new ScoreDistributionDto(0, 0, 0, 0, 0));
+        }
+    }, 60_000);
+    private final ExecutorService pool = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void stop() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void slowSubscriberDoesNotBlockNewSubscriptions() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        streams.subscribe(new SseEmitter() {
+            private boolean connected;
+
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                // the first event is the stats snapshot, later ones are deltas stuck on a slow client
+                if (connected) {
+                    sending.countDown();
+                    await(release);
+                }
+                connected = true;
+            }
+        });
+
+        students.set(1);
+        streams.onCourseChanged(null);
+        Future<?> flush = pool.submit(streams::flush);
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+
+        long started = System.nanoTime();
+        streams.subscribe();
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(2, streams.subscriberCount());
+
+        release.countDown();
+        flush.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void rollupRebuildIsStreamed() {
+        List<String> events = new CopyOnWriteArrayList<>();
+        streams.subscribe(new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                events.add(builder.build().iterator().next().getData().toString());
+            }
+        });
+        streams.flush();
+        int before = events.size();
+
+        students.set(7);
+        streams.onRollupRebuilt(new DashboardRollupRebuiltEvent());
+        streams.flush();
+
+        assertEquals(before + 1, events.size());
+        assertTrue(events.get(events.size() - 1).contains("event:delta"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.iqb.interviewpoc.service;
+
+import com.iqb.interviewpoc.exception.BusinessRuleException;
+import com.iqb.interviewpoc.exception.WriteTimeoutException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupCommitWriterTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final CountingTransactionManager transactions = new CountingTransactionManager();
+    private final GroupCommitWriter writer = new GroupCommitWriter(transactions, registry, true, 64, 1000, 5000);
+    private final ExecutorService pool = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void stop() {
+        pool.shutdownNow();
+        writer.shutdown();
+    }
+
+    @Test
+    void queuedWritesShareOneCommit() throws Exception {
+        CountDownLatch release = blockWriter();
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int value = i;
+            results.add(pool.submit(() -> writer.execute(() -> value * 10)));
+        }
+        awaitQueueDepth(5);
+        release.countDown();
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i * 10, results.get(i).get(5, TimeUnit.SECONDS));
+        }
+        // the blocking write alone, then the five queued behind it together
+        assertEquals(2, transactions.commits.get());
+        assertEquals(5, registry.get("app.writer.batch.size").summary().max());
+        assertEquals(1, registry.get("app.writer.commit").tag("mode", "group").timer().count());
+    }
+
+    @Test
+    void failedGroupIsRerunOneCommandPerTransaction() throws Exception {
+        CountDownLatch release = blockWriter();
+        AtomicInteger runs = new AtomicInteger();
+        Future<String> first = pool.submit(() -> writer.execute(() -> "first" + runs.incrementAndGet()));
+        awaitQueueDepth(1);
+        Future<Object> failing = pool.submit(() -> writer.execute(() -> {
+            throw new BusinessRuleException("Maximum 3 scores per student-course pair");
+        }));
+        awaitQueueDepth(2);
+        Future<String> last = pool.submit(() -> writer.execute(() -> "last"));
+        awaitQueueDepth(3);
+        release.countDown();
+
+        // the first command's group run was rolled back, so its caller sees the rerun
+        assertEquals("first2", first.get(5, TimeUnit.SECONDS));
+        assertEquals("last", last.get(5, TimeUnit.SECONDS));
+        Exception e = assertThrows(Exception.class, () -> failing.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(BusinessRuleException.class, e.getCause());
+        assertEquals(1, registry.get("app.writer.fallbacks").counter().count());
+        assertEquals(3, transactions.commits.get());
+        assertEquals(2, transactions.rollbacks.get());
+    }
+
+    @Test
+    void callerGivesUpAfterTheTimeoutAndTheWriteIsSkipped() throws Exception {
+        MeterRegistry meters = new SimpleMeterRegistry();
+        GroupCommitWriter impatient = new GroupCommitWriter(transactions, meters, true, 64, 1000, 50);
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            pool.submit(() -> impatient.execute(() -> {
+                started.countDown();
+                await(release);
+                return null;
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            AtomicInteger runs = new AtomicInteger();
+
+            assertThrows(WriteTimeoutException.class, () -> impatient.execute(runs::incrementAndGet));
+            release.countDown();
+
+            assertEquals("after", pool.submit(() -> impatient.execute(() -> "after")).get(5, TimeUnit.SECONDS));
+            assertEquals(0, runs.get());
+            // the blocking command's caller stopped waiting too, though its work had already started
+            assertEquals(2, meters.get("app.writer.timeouts").counter().count());
+        } finally {
+            impatient.shutdown();
+        }
+    }
+
+    @Test
+    void disabledWriterRunsOnTheCallingThread() {
+        GroupCommitWriter inline = new GroupCommitWriter(transactions, new SimpleMeterRegistry(), false, 64, 1000, 5000);
+
+        assertEquals(Thread.currentThread().getName(), inline.execute(() -> Thread.currentThread().getName()));
+        assertEquals(1, transactions.commits.get());
+    }
+
+    // Occupies the writer thread until the returned latch is released.
+    private CountDownLatch blockWriter() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        pool.submit(() -> writer.execute(() -> {
+            started.countDown();
+            await(release);
+            return null;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+
+    private void awaitQueueDepth(int depth) throws InterruptedException {
+        while (registry.get("app.writer.queue.depth").gauge().value() < depth) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class CountingTransactionManager extends AbstractPlatformTransactionManager {
+        final AtomicInteger commits = new AtomicInteger();
+        final AtomicInteger rollbacks = new AtomicInteger();
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            commits.incrementAndGet();
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            rollbacks.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.iqb.interviewpoc.service;
+
+import com.iqb.interviewpoc.exception.ResourceNotFoundException;
+import com.iqb.interviewpoc.store.DataVersions;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescerTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private double count(String operation, String outcome) {
+        return registry.counter("app.coalescing.calls", "operation", operation, "outcome", outcome).count();
+    }
+
+    @Test
+    void concurrentCallersShareOneExecution() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer(new MockEnvironment(), registry, new DataVersions());
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> coalescer.execute("stats", "all", () -> {
+                    executions.incrementAndGet();
+                    await(release);
+                    return "value";
+                })));
+            }
+            // wait until every caller is either running the loader or waiting on it
+            while (count("stats", "executed") + count("stats", "joined") < callers) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("value", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, executions.get());
+        assertEquals(callers - 1, count("stats", "joined"));
+    }
+
+    @Test
+    void joinersReceiveTheLeadersException() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer(new MockEnvironment(), registry, new DataVersions());
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> leader = pool.submit(() -> coalescer.execute("scores", 1L, () -> {
+                await(release);
+                throw new ResourceNotFoundException("Student not found");
+            }));
+            while (count("scores", "executed") < 1) {
+                Thread.sleep(5);
+            }
+            Future<Object> joiner = pool.submit(() -> coalescer.execute("scores", 1L, () -> "unused"));
+            while (count("scores", "joined") < 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            Exception e = assertThrows(Exception.class, () -> joiner.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(ResourceNotFoundException.class, e.getCause());
+            assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void disabledOperationBypassesCoalescing() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.coalescing.courses.enabled", "false");
+        RequestCoalescer coalescer = new RequestCoalescer(environment, registry, new DataVersions());
+
+        assertEquals("a", coalescer.execute("courses", "k", () -> "a"));
+        assertEquals(1, count("courses", "bypassed"));
+        assertEquals(0, count("courses", "executed"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.iqb.interviewpoc.store;
+
+import com.iqb.interviewpoc.entity.Course;
+import com.iqb.interviewpoc.entity.Student;
+import com.iqb.interviewpoc.event.ChangeType;
+import com.iqb.interviewpoc.event.ExamResultChangedEvent;
+import com.iqb.interviewpoc.repository.CourseRepository;
+import com.iqb.interviewpoc.repository.ExamResultRepository;
+import com.iqb.interviewpoc.repository.StudentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ScoreHistogramStoreTest {
+
+    @Autowired private StudentRepository studentRepository;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private ExamResultRepository examResultRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private long studentId;
+    private long courseId;
+
+    @BeforeEach
+    void setUp() {
+        examResultRepository.deleteAll();
+        studentRepository.deleteAll();
+        courseRepository.deleteAll();
+
+        Student student = new Student();
+        student.setFullName("Rebuild Student");
+        student.setNumber(700);
+        student.setEmail("rebuild@test.com");
+        studentId = studentRepository.save(student).getId();
+        Course course = new Course();
+        course.setName("Rebuild Course");
+        courseId = courseRepository.save(course).getId();
+    }
+
+    @Test
+    void writesCommittedDuringRebuildAreCountedOnce() throws Exception {
+        long before = insert(40);
+        ExecutorService writerThread = Executors.newSingleThreadExecutor();
+        Future<?>[] write = new Future<?>[1];
+
+        ScoreHistogramStore store = new ScoreHistogramStore(examResultRepository, courseRepository,
+                jdbcTemplate, transactionManager) {
+            @Override
+            void load(Map<Long, ScoreHistogram> courses, ScoreHistogram all) {
+                // committed before the load, delivered while it runs: already counted
+                onExamResultChanged(event(ChangeType.CREATED, before, null, 40));
+                super.load(courses, all);
+                // committed once the load's read transaction ends, delivered before the swap
+                CountDownLatch holding = new CountDownLatch(1);
+                ScoreHistogramStore self = this;
+                write[0] = writerThread.submit(() -> {
+                    synchronized (self) {
+                        holding.countDown();
+                        long created = insert(70);
+                        jdbcTemplate.update("UPDATE exam_result SET score = 45 WHERE id = ?", before);
+                        onExamResultChanged(event(ChangeType.CREATED, created, null, 70));
+                        onExamResultChanged(event(ChangeType.UPDATED, before, 40, 45));
+                    }
+                });
+                await(holding);
+            }
+        };
+        try {
+            store.rebuild();
+            write[0].get(5, TimeUnit.SECONDS);
+        } finally {
+            writerThread.shutdownNow();
+        }
+
+        ScoreHistogram course = store.course(courseId).orElseThrow();
+        assertEquals(2, course.total());
+        assertEquals(0, course.count(40));
+        assertEquals(1, course.count(45));
+        assertEquals(1, course.count(70));
+        assertEquals(115, store.global().sum());
+    }
+
+    private long insert(int score) {
+        jdbcTemplate.update("INSERT INTO exam_result (student_id, course_id, score, created_at, updated_at) " +
+                "VALUES (?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", studentId, courseId, score);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM exam_result", Long.class);
+    }
+
+    private ExamResultChangedEvent event(ChangeType type, long id, Integer oldScore, Integer newScore) {
+        return new ExamResultChangedEvent(type, id, studentId, courseId, oldScore, newScore, null);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
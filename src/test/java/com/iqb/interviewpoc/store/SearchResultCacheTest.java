@@ -0,0 +1,92 @@
+package com.iqb.interviewpoc.store;
+
+import com.iqb.interviewpoc.event.ChangeType;
+import com.iqb.interviewpoc.event.ExamResultChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchResultCacheTest {
+
+    private final SearchResultCache cache = new SearchResultCache(true, 10_000, 4, 3, new SimpleMeterRegistry());
+    private final AtomicInteger loads = new AtomicInteger();
+
+    // Ids 100 down to 91, newest first like an exam result search.
+    private IntFunction<List<Long>> tenIds() {
+        return limit -> {
+            loads.incrementAndGet();
+            return LongStream.iterate(100, id -> id - 1).limit(Math.min(limit, 10)).boxed().toList();
+        };
+    }
+
+    private IntFunction<List<Long>> ids(Long... ids) {
+        return limit -> {
+            loads.incrementAndGet();
+            return List.of(ids);
+        };
+    }
+
+    @Test
+    void broadTermKeepsOnlyTheFirstIdsAndLeavesTheRestToTheCaller() {
+        Slice<Long> first = cache.page(SearchResultCache.Entity.STUDENT, "smith", PageRequest.of(0, 2), false, tenIds());
+        assertFalse(first instanceof Page);
+        assertEquals(List.of(100L, 99L), first.getContent());
+        assertTrue(first.hasNext());
+        assertEquals(List.of(98L, 97L),
+                cache.page(SearchResultCache.Entity.STUDENT, "smith", PageRequest.of(1, 2), false, tenIds()).getContent());
+        assertNull(cache.page(SearchResultCache.Entity.STUDENT, "smith", PageRequest.of(2, 2), false, tenIds()));
+        assertNull(cache.page(SearchResultCache.Entity.STUDENT, "smith", PageRequest.of(0, 2), true, tenIds()));
+        assertEquals(1, loads.get());
+        assertEquals(4 + 16, cache.weight());
+    }
+
+    @Test
+    void shortTermsAreNotCached() {
+        assertNull(cache.page(SearchResultCache.Entity.STUDENT, " al ", PageRequest.of(0, 2), false, tenIds()));
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void examResultWritesAreAppliedToCachedLists() {
+        List<List<Long>> checked = new ArrayList<>();
+        Slice<Long> page = cache.page(SearchResultCache.Entity.EXAM_RESULT, "alice", PageRequest.of(0, 10), true,
+                ids(9L, 7L, 3L), created -> {
+                    checked.add(created);
+                    return created.stream().filter(id -> id != 13).toList();
+                });
+        assertEquals(3, ((Page<Long>) page).getTotalElements());
+        cache.page(SearchResultCache.Entity.EXAM_RESULT, "100", PageRequest.of(0, 10), true, ids(9L), null);
+
+        cache.onExamResultChanged(event(ChangeType.DELETED, 7, 85, null));
+        cache.onExamResultChanged(event(ChangeType.CREATED, 12, null, 60));
+        cache.onExamResultChanged(event(ChangeType.CREATED, 13, null, 70));
+        cache.onExamResultChanged(event(ChangeType.UPDATED, 9, 85, 90));
+
+        page = cache.page(SearchResultCache.Entity.EXAM_RESULT, "alice", PageRequest.of(0, 10), true,
+                ids(), created -> {
+                    checked.add(created);
+                    return created.stream().filter(id -> id != 13).toList();
+                });
+        assertEquals(List.of(12L, 9L, 3L), page.getContent());
+        assertEquals(List.of(List.of(12L, 13L)), checked);
+        assertEquals(2, loads.get());
+
+        // a score change can move a row in or out of a numeric term's results, so that entry was dropped
+        cache.page(SearchResultCache.Entity.EXAM_RESULT, "100", PageRequest.of(0, 10), true, ids(), null);
+        assertEquals(3, loads.get());
+    }
+
+    private static ExamResultChangedEvent event(ChangeType type, long id, Integer oldScore, Integer newScore) {
+        return new ExamResultChangedEvent(type, id, 1, 1, oldScore, newScore, null);
+    }
+}